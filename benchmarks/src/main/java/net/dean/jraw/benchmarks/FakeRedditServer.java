@@ -0,0 +1,414 @@
+package net.dean.jraw.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import net.dean.jraw.http.HeaderRateLimitPolicy;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An HTTP server on localhost that stands in for reddit, serving the JSON fixtures. It understands just enough of the
+ * API for paginators and comment trees:
+ *
+ * <ul>
+ *     <li>Any listing, such as {@code /r/pics/hot.json}, is served from a fixed set of pages that are chained together
+ *         with "after" cursors. The {@code limit} parameter is ignored; every page has 25 submissions.
+ *     <li>{@code /comments/{id}.json} serves a submission with a deep comment tree, whatever the ID.
+ *     <li>{@code POST /api/morechildren} returns one comment for each of the requested children.
+ * </ul>
+ *
+ * <p>Every response includes reddit's rate limit headers. Once the configured amount of requests in a window has been
+ * used up, or at random if so configured, the server responds with 429 Too Many Requests. It can also add latency
+ * and respond with 503 Service Unavailable at random.
+ */
+public final class FakeRedditServer {
+    private static final int PAGE_SIZE = 25;
+    private static final String JSON = "application/json; charset=UTF-8";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        // Otherwise Nagle's algorithm adds tens of milliseconds to small responses. Must be set before the JDK's
+        // server reads its configuration.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, byte[]> pages;
+    private final byte[] firstPage;
+    private final byte[] thread;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double tooManyRequestsRate;
+    private final double serverErrorRate;
+    private final int requestsPerWindow;
+    private final long windowNanos;
+    private final AtomicLong requestCount;
+
+    // Guarded by 'this'
+    private long windowStart;
+    private int used;
+
+    private FakeRedditServer(Builder b) throws IOException {
+        this.latencyMillis = b.latencyMillis;
+        this.jitterMillis = b.jitterMillis;
+        this.tooManyRequestsRate = b.tooManyRequestsRate;
+        this.serverErrorRate = b.serverErrorRate;
+        this.requestsPerWindow = b.requestsPerWindow;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(b.windowSeconds);
+        this.requestCount = new AtomicLong();
+        this.windowStart = System.nanoTime();
+
+        this.pages = createPages(b.pages);
+        this.firstPage = pages.get(null);
+        this.thread = Fixtures.load(Fixtures.SUBMISSION_COMMENTS);
+
+        this.server = HttpServer.create(new InetSocketAddress("localhost", b.port), 0);
+        this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "FakeRedditServer");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    FakeRedditServer.this.handle(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Creates a Builder with the default settings: 40 pages, no latency, no errors and no rate limit
+     * @return A new Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the host (including the port) this server is listening on. Can be passed to
+     * {@link net.dean.jraw.RedditClient#RedditClient(String, int, String)}.
+     *
+     * @return The host
+     */
+    public String getHost() {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the amount of requests this server has received
+     * @return The amount of requests
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /** Stops the server */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        sleep();
+
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith(".json")) {
+            path = path.substring(0, path.length() - ".json".length());
+        }
+
+        boolean limited = countRequest(exchange);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (limited || random.nextDouble() < tooManyRequestsRate) {
+            send(exchange, 429, "{\"message\": \"Too Many Requests\", \"error\": 429}".getBytes(StandardCharsets.UTF_8));
+        } else if (random.nextDouble() < serverErrorRate) {
+            send(exchange, 503, "{\"message\": \"Service Unavailable\", \"error\": 503}".getBytes(StandardCharsets.UTF_8));
+        } else if (path.equals("/api/morechildren")) {
+            send(exchange, 200, moreChildren(readForm(exchange).get("children")));
+        } else if (path.startsWith("/comments/") || path.contains("/comments/")) {
+            send(exchange, 200, thread);
+        } else {
+            byte[] page = pages.get(query(exchange).get("after"));
+            send(exchange, 200, page != null ? page : firstPage);
+        }
+    }
+
+    private void sleep() {
+        long millis = latencyMillis;
+        if (jitterMillis > 0) {
+            millis += ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Counts a request against the current window and adds the rate limit headers. Without a rate limit, the remaining
+     * amount of requests is always {@link Integer#MAX_VALUE}.
+     *
+     * @return If the request is over the limit
+     */
+    private boolean countRequest(HttpExchange exchange) {
+        int used;
+        long resetNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - windowStart >= windowNanos) {
+                windowStart = now;
+                this.used = 0;
+            }
+            used = ++this.used;
+            resetNanos = windowStart + windowNanos - now;
+        }
+
+        exchange.getResponseHeaders().set(HeaderRateLimitPolicy.HEADER_USED, String.valueOf(used));
+        exchange.getResponseHeaders().set(HeaderRateLimitPolicy.HEADER_REMAINING,
+                String.valueOf(requestsPerWindow > 0 ? Math.max(0, requestsPerWindow - used) : Integer.MAX_VALUE));
+        exchange.getResponseHeaders().set(HeaderRateLimitPolicy.HEADER_RESET,
+                String.valueOf(TimeUnit.NANOSECONDS.toSeconds(resetNanos) + 1));
+        return requestsPerWindow > 0 && used > requestsPerWindow;
+    }
+
+    private static void send(HttpExchange exchange, int code, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /** Creates a page of submissions for every "after" cursor, where the first page has a null key */
+    private static Map<String, byte[]> createPages(int count) throws IOException {
+        byte[] fixture = Fixtures.load(Fixtures.SUBREDDIT_HOT);
+        Map<String, byte[]> pages = new HashMap<>();
+        String cursor = null;
+        for (int page = 0; page < count; page++) {
+            JsonNode listing = MAPPER.readTree(fixture);
+            ObjectNode data = (ObjectNode) listing.get("data");
+            String last = null;
+            int i = 0;
+            for (JsonNode child : data.get("children")) {
+                ObjectNode childData = (ObjectNode) child.get("data");
+                String id = Long.toString(page * PAGE_SIZE + i++ + 1_000_000L, 36);
+                last = "t3_" + id;
+                childData.put("id", id);
+                childData.put("name", last);
+            }
+            data.put("after", page == count - 1 ? null : last);
+            pages.put(cursor, MAPPER.writeValueAsBytes(listing));
+            cursor = last;
+        }
+        return pages;
+    }
+
+    /** Creates the response of /api/morechildren, with a short comment for each ID */
+    private static byte[] moreChildren(String children) throws IOException {
+        List<String> ids = children == null || children.isEmpty() ? Collections.<String>emptyList() :
+                splitIds(children);
+        ObjectNode root = MAPPER.createObjectNode();
+        ObjectNode json = root.putObject("json");
+        json.putArray("errors");
+        ArrayNode things = json.putObject("data").putArray("things");
+        for (String id : ids) {
+            ObjectNode thing = things.addObject();
+            thing.put("kind", "t1");
+            ObjectNode data = thing.putObject("data");
+            data.put("id", "t1_" + id);
+            data.put("parent", "t3_fake");
+            data.put("link", "t3_fake");
+            data.put("contentText", "Comment " + id);
+            data.put("contentHTML", "&lt;div class=\"md\"&gt;&lt;p&gt;Comment " + id + "&lt;/p&gt;&lt;/div&gt;");
+            data.put("content", "&lt;div class=\"thing\" id=\"thing_t1_" + id + "\"&gt;&lt;/div&gt;");
+            data.put("replies", "");
+        }
+        return MAPPER.writeValueAsBytes(root);
+    }
+
+    private static List<String> splitIds(String children) {
+        List<String> ids = new ArrayList<>();
+        for (String id : children.split(",")) {
+            // Only echo IDs that look like IDs
+            if (id.matches("[a-z0-9]+")) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        return query == null ? Collections.<String, String>emptyMap() : parseForm(query);
+    }
+
+    private static Map<String, String> readForm(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return parseForm(new String(body.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> parseForm(String form) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                try {
+                    params.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+                            URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return params;
+    }
+
+    /** Configures and starts a FakeRedditServer */
+    public static final class Builder {
+        private int port;
+        private int pages = 40;
+        private long latencyMillis;
+        private long jitterMillis;
+        private double tooManyRequestsRate;
+        private double serverErrorRate;
+        private int requestsPerWindow;
+        private int windowSeconds = 600;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the port to listen on. Defaults to 0, which picks a free port.
+         * @param port The port
+         * @return This Builder
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets how many pages each listing has before its "after" cursor is null
+         * @param pages The amount of pages, at least 1
+         * @return This Builder
+         */
+        public Builder pages(int pages) {
+            if (pages < 1) {
+                throw new IllegalArgumentException("There must be at least one page");
+            }
+            this.pages = pages;
+            return this;
+        }
+
+        /**
+         * Delays every response
+         * @param latencyMillis The average delay in milliseconds
+         * @param jitterMillis How much the delay varies in either direction
+         * @return This Builder
+         */
+        public Builder latency(long latencyMillis, long jitterMillis) {
+            if (latencyMillis < 0 || jitterMillis < 0 || jitterMillis > latencyMillis) {
+                throw new IllegalArgumentException("Latency must be positive and larger than its jitter");
+            }
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+            return this;
+        }
+
+        /**
+         * Responds to a fraction of all requests with 429 Too Many Requests, regardless of the rate limit
+         * @param rate The fraction of requests, between 0 and 1
+         * @return This Builder
+         */
+        public Builder tooManyRequestsRate(double rate) {
+            this.tooManyRequestsRate = checkRate(rate);
+            return this;
+        }
+
+        /**
+         * Responds to a fraction of all requests with 503 Service Unavailable
+         * @param rate The fraction of requests, between 0 and 1
+         * @return This Builder
+         */
+        public Builder serverErrorRate(double rate) {
+            this.serverErrorRate = checkRate(rate);
+            return this;
+        }
+
+        /**
+         * Enforces a rate limit, which the rate limit headers count down from. Reddit allows 600 requests every 600
+         * seconds.
+         * @param requests The amount of requests allowed per window, or 0 to disable the rate limit
+         * @param windowSeconds The length of a window in seconds
+         * @return This Builder
+         */
+        public Builder rateLimit(int requests, int windowSeconds) {
+            if (windowSeconds <= 0) {
+                throw new IllegalArgumentException("The window must be at least one second long");
+            }
+            this.requestsPerWindow = requests;
+            this.windowSeconds = windowSeconds;
+            return this;
+        }
+
+        /**
+         * Starts a new server
+         * @return The started server
+         * @throws IOException If the server could not be started
+         */
+        public FakeRedditServer start() throws IOException {
+            return new FakeRedditServer(this);
+        }
+
+        private static double checkRate(double rate) {
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException("Rate must be between 0 and 1");
+            }
+            return rate;
+        }
+    }
+}
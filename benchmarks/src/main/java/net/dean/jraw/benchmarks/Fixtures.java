@@ -0,0 +1,123 @@
+package net.dean.jraw.benchmarks;
+
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RestRequest;
+import okio.Buffer;
+import okio.BufferedSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads the JSON fixtures in {@code src/main/resources/fixtures} and turns them into responses, so that benchmarks
+ * never touch the network. The fixtures have the same shape as reddit's responses but their content is made up.
+ */
+public final class Fixtures {
+    /** A page of 25 submissions, as returned by /r/{subreddit}/hot */
+    public static final String SUBREDDIT_HOT = "subreddit_hot.json";
+    /** A submission and a comment tree of 560 comments that is up to ten levels deep, as returned by /comments/{id} */
+    public static final String SUBMISSION_COMMENTS = "submission_comments.json";
+
+    private static final MediaType JSON = MediaType.parse("application/json; charset=UTF-8");
+    private static final Request DEFAULT_REQUEST = new Request.Builder().url("https://www.reddit.com/").build();
+
+    private Fixtures() {
+        // no instances
+    }
+
+    /**
+     * Reads a fixture
+     *
+     * @param name The file name of the fixture, such as {@link #SUBREDDIT_HOT}
+     * @return The contents of the fixture
+     */
+    public static byte[] load(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No such fixture: " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read fixture " + name, e);
+        }
+    }
+
+    /**
+     * Creates a successful JSON response whose body can be read once
+     *
+     * @param body The body of the response
+     * @return A new Response
+     */
+    public static Response response(byte[] body) {
+        return response(DEFAULT_REQUEST, body);
+    }
+
+    /**
+     * Creates a successful JSON response whose body can be read once
+     *
+     * @param request The request the response is for
+     * @param body The body of the response
+     * @return A new Response
+     */
+    public static Response response(Request request, final byte[] body) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .header("Content-Type", JSON.toString())
+                .body(new ResponseBody() {
+                    @Override
+                    public MediaType contentType() {
+                        return JSON;
+                    }
+
+                    @Override
+                    public long contentLength() {
+                        return body.length;
+                    }
+
+                    @Override
+                    public BufferedSource source() {
+                        return new Buffer().write(body);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * A RedditClient that answers every request with the same fixture instead of sending it. Requests are still built
+     * and responses are still parsed, but rate limiting, retries and the rest of the HTTP stack are skipped.
+     */
+    public static class FixtureRedditClient extends RedditClient {
+        private final byte[] body;
+
+        /**
+         * Instantiates a new FixtureRedditClient
+         * @param fixture The file name of the fixture to respond with
+         */
+        public FixtureRedditClient(String fixture) {
+            super("JRAW benchmarks");
+            this.body = load(fixture);
+            setRequestLoggingEnabled(false);
+        }
+
+        @Override
+        public RedditResponse execute(RestRequest request) throws NetworkException {
+            return new RedditResponse(response(request.getOkHttpRequest(), body));
+        }
+    }
+}
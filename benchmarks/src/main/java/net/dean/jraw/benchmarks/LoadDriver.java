@@ -0,0 +1,309 @@
+package net.dean.jraw.benchmarks;
+
+import net.dean.jraw.ApiException;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.HeaderRateLimitPolicy;
+import net.dean.jraw.http.LatencyHistogram;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RequestListener;
+import net.dean.jraw.http.RestRequest;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.http.RetryPolicy;
+import net.dean.jraw.models.CommentSort;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.More;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.paginators.SubredditPaginator;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Drives a {@link RedditClient} shared by several threads against a {@link FakeRedditServer} and reports the
+ * throughput, latency and allocations of the client. Each thread repeatedly picks one of the following:
+ *
+ * <ul>
+ *     <li>Reading up to four pages of a subreddit with a {@link SubredditPaginator} (60%)
+ *     <li>Loading a submission and its comments (30%)
+ *     <li>Loading more children of a comment tree (10%)
+ * </ul>
+ *
+ * <p>Options are given as {@code key=value} arguments:
+ *
+ * <table summary="Options">
+ *     <tr><td>threads</td><td>The amount of threads sending requests (8)</td></tr>
+ *     <tr><td>seconds</td><td>How long to measure for (30)</td></tr>
+ *     <tr><td>warmup</td><td>How long to run before measuring (5)</td></tr>
+ *     <tr><td>latency</td><td>The server's average latency in milliseconds (20)</td></tr>
+ *     <tr><td>jitter</td><td>How much the server's latency varies in milliseconds (10)</td></tr>
+ *     <tr><td>errors</td><td>The fraction of requests answered with 503 (0)</td></tr>
+ *     <tr><td>throttle</td><td>The fraction of requests answered with 429 (0)</td></tr>
+ *     <tr><td>limit</td><td>Requests allowed by the server every window, or 0 for no limit (0)</td></tr>
+ *     <tr><td>window</td><td>The length of the server's rate limit window in seconds (600)</td></tr>
+ *     <tr><td>rpm</td><td>Requests per minute allowed by the client, or 0 for no limit (0)</td></tr>
+ *     <tr><td>headers</td><td>Whether the client follows the server's rate limit headers (false)</td></tr>
+ *     <tr><td>retries</td><td>The maximum amount of attempts per request, or 1 to never retry (1)</td></tr>
+ * </table>
+ *
+ * <p>Allocations are measured for the load threads only, so that the server does not count against the client.
+ * Garbage collections are counted for the whole JVM.
+ *
+ * <p>Usage: {@code ./gradlew :benchmarks:load -Pload.args="threads=16 seconds=60 errors=0.01"}
+ */
+public final class LoadDriver {
+    private static final String SUBREDDIT = "pics";
+    /** If this JVM counts the bytes allocated by each thread */
+    private static final boolean ALLOCATIONS_SUPPORTED = allocationCountersSupported();
+
+    private final RedditClient reddit;
+    private final int threads;
+    private final More more;
+    private final Submission submission;
+    private final AtomicReference<Stats> stats;
+
+    private LoadDriver(RedditClient reddit, int threads) throws NetworkException {
+        this.reddit = reddit;
+        this.threads = threads;
+        this.stats = new AtomicReference<>(new Stats());
+        this.submission = reddit.getSubmission("fake");
+        Listing<?> comments = submission.getComments();
+        this.more = comments != null ? comments.getMoreChildren() : null;
+
+        reddit.addRequestListener(new RequestListener.Adapter() {
+            @Override
+            public void onCompleted(RestRequest request, RestResponse response, long totalNanos) {
+                stats.get().latency.record(totalNanos);
+            }
+
+            @Override
+            public void onFailed(RestRequest request, NetworkException e, long totalNanos) {
+                stats.get().fail(e.getCode());
+            }
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int threads = intOption(options, "threads", 8);
+        int seconds = intOption(options, "seconds", 30);
+        int warmup = intOption(options, "warmup", 5);
+        int latency = intOption(options, "latency", 20);
+        int jitter = intOption(options, "jitter", 10);
+        double errors = doubleOption(options, "errors", 0);
+        double throttle = doubleOption(options, "throttle", 0);
+        int limit = intOption(options, "limit", 0);
+        int window = intOption(options, "window", 600);
+        int rpm = intOption(options, "rpm", 0);
+        boolean headers = Boolean.parseBoolean(option(options, "headers", "false"));
+        int retries = intOption(options, "retries", 1);
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + options.keySet());
+        }
+
+        FakeRedditServer server = FakeRedditServer.builder()
+                .latency(latency, jitter)
+                .serverErrorRate(errors)
+                .tooManyRequestsRate(throttle)
+                .rateLimit(limit, window)
+                .start();
+        try {
+            RedditClient reddit = new RedditClient("JRAW load driver", rpm, server.getHost());
+            reddit.setHttpsDefault(false);
+            reddit.setRequestLoggingEnabled(false);
+            if (headers) {
+                // Without a client limit, the headers are what slows the client down
+                reddit.setRateLimitPolicy(new HeaderRateLimitPolicy(rpm > 0 ? rpm : 60_000));
+            }
+            if (retries > 1) {
+                reddit.setRetryPolicy(new RetryPolicy.Builder()
+                        .maxAttempts(retries)
+                        .backoff(10, 1000, TimeUnit.MILLISECONDS)
+                        .build());
+            }
+
+            System.out.printf("%d threads for %d s (+%d s warmup) against %s: latency %d+-%d ms, 503 %.1f%%, " +
+                    "429 %.1f%%, limit %s%n", threads, seconds, warmup, server.getHost(), latency, jitter, errors * 100,
+                    throttle * 100, limit > 0 ? limit + "/" + window + " s" : "none");
+
+            LoadDriver driver = new LoadDriver(reddit, threads);
+            driver.run(TimeUnit.SECONDS.toNanos(warmup));
+            driver.stats.set(new Stats());
+            long serverRequests = server.getRequestCount();
+            GcSnapshot gc = new GcSnapshot();
+            long elapsed = driver.run(TimeUnit.SECONDS.toNanos(seconds));
+            driver.report(elapsed, server.getRequestCount() - serverRequests, gc.since());
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Runs the load threads until the duration has passed
+     * @return The actual duration in nanoseconds
+     */
+    private long run(long durationNanos) throws InterruptedException {
+        final long start = System.nanoTime();
+        final long deadline = start + durationNanos;
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long allocated = allocatedBytes();
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            work();
+                        } catch (NetworkException | ApiException | RuntimeException e) {
+                            // Failures are counted by the RequestListener
+                        }
+                    }
+                    stats.get().allocated.addAndGet(allocatedBytes() - allocated);
+                }
+            }, "LoadDriver-" + i);
+            t.start();
+            workers.add(t);
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void work() throws NetworkException, ApiException {
+        int op = ThreadLocalRandom.current().nextInt(10);
+        if (op < 6) {
+            SubredditPaginator paginator = new SubredditPaginator(reddit, SUBREDDIT);
+            for (int page = 0; page < 4 && paginator.hasNext(); page++) {
+                paginator.next();
+            }
+        } else if (op < 9 || more == null) {
+            reddit.getSubmission(Long.toString(ThreadLocalRandom.current().nextLong(1_000_000L), 36));
+        } else {
+            reddit.getMoreChildren(submission, CommentSort.TOP, more);
+        }
+    }
+
+    private void report(long elapsedNanos, long serverRequests, GcSnapshot gc) {
+        Stats stats = this.stats.get();
+        long completed = stats.latency.getCount();
+        long failed = 0;
+        for (AtomicLong count : stats.failures.values()) {
+            failed += count.get();
+        }
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.printf("requests:   %d completed (%.1f/s), %d failed %s, %d received by the server%n",
+                completed, completed / seconds, failed, new TreeMap<>(stats.failures), serverRequests);
+        System.out.printf("latency:    p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                stats.latency.getPercentile(50, TimeUnit.MICROSECONDS) / 1000.0,
+                stats.latency.getPercentile(99, TimeUnit.MICROSECONDS) / 1000.0,
+                stats.latency.getMax(TimeUnit.MICROSECONDS) / 1000.0);
+        long allocated = stats.allocated.get();
+        if (ALLOCATIONS_SUPPORTED) {
+            System.out.printf("allocated:  %.1f MB/s, %.1f KB per request%n", allocated / seconds / (1 << 20),
+                    completed == 0 ? 0 : allocated / (double) completed / 1024);
+        } else {
+            System.out.println("allocated:  not supported by this JVM");
+        }
+        System.out.printf("gc:         %d collections, %d ms%n", gc.count, gc.millis);
+    }
+
+    private static boolean allocationCountersSupported() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            return sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled();
+        }
+        return false;
+    }
+
+    /** Returns the amount of bytes the current thread has allocated, or 0 if {@link #ALLOCATIONS_SUPPORTED} is false */
+    private static long allocatedBytes() {
+        if (!ALLOCATIONS_SUPPORTED) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            for (String pair : arg.trim().split("\\s+")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int eq = pair.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException("Expected key=value, got " + pair);
+                }
+                options.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static String option(Map<String, String> options, String key, String defaultValue) {
+        String value = options.remove(key);
+        return value != null ? value : defaultValue;
+    }
+
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        return Integer.parseInt(option(options, key, String.valueOf(defaultValue)));
+    }
+
+    private static double doubleOption(Map<String, String> options, String key, double defaultValue) {
+        return Double.parseDouble(option(options, key, String.valueOf(defaultValue)));
+    }
+
+    /** The results of one run */
+    private static final class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final ConcurrentMap<Integer, AtomicLong> failures = new ConcurrentHashMap<>();
+        private final AtomicLong allocated = new AtomicLong();
+
+        private void fail(int code) {
+            AtomicLong count = failures.get(code);
+            if (count == null) {
+                AtomicLong created = new AtomicLong();
+                count = failures.putIfAbsent(code, created);
+                if (count == null) {
+                    count = created;
+                }
+            }
+            count.incrementAndGet();
+        }
+    }
+
+    /** The garbage collections of the JVM since this object was created */
+    private static final class GcSnapshot {
+        private long count;
+        private long millis;
+
+        private GcSnapshot() {
+            for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count -= Math.max(0, bean.getCollectionCount());
+                millis -= Math.max(0, bean.getCollectionTime());
+            }
+        }
+
+        private GcSnapshot since() {
+            GcSnapshot now = new GcSnapshot();
+            now.count = -now.count + count;
+            now.millis = -now.millis + millis;
+            return now;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package net.dean.jraw.benchmarks;
+
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the fields of already parsed models, comparing the boxed {@code JsonProperty} getters with the
+ * primitive accessors, and {@code toString()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+    private Listing<Submission> submissions;
+
+    @Setup
+    public void setUp() {
+        submissions = new RedditResponse(Fixtures.response(Fixtures.load(Fixtures.SUBREDDIT_HOT)))
+                .asListing(Submission.class);
+    }
+
+    @Benchmark
+    public long boxedGetters() {
+        long sum = 0;
+        for (Submission s : submissions) {
+            sum += s.getScore() + s.getCommentCount() + s.getCreatedUtc().getTime();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long primitiveAccessors() {
+        long sum = 0;
+        for (Submission s : submissions) {
+            sum += s.score() + s.commentCount() + s.createdUtcEpochSeconds() * 1000;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int stringGetters() {
+        int length = 0;
+        for (Submission s : submissions) {
+            length += s.getTitle().length() + s.getAuthor().length() + s.getUrl().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public String toStringFirst() {
+        return submissions.get(0).toString();
+    }
+}
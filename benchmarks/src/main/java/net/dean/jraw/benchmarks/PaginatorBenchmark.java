@@ -0,0 +1,44 @@
+package net.dean.jraw.benchmarks;
+
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.paginators.SubredditPaginator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures everything a Paginator does to get a page, except for the network: building the request, creating the
+ * response and parsing the listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginatorBenchmark {
+    private final RedditClient reddit = new Fixtures.FixtureRedditClient(Fixtures.SUBREDDIT_HOT);
+
+    @Benchmark
+    public Listing<Submission> firstPage() {
+        return new SubredditPaginator(reddit, "programming").next();
+    }
+
+    @Benchmark
+    public Listing<Submission> threePages() {
+        SubredditPaginator paginator = new SubredditPaginator(reddit, "programming");
+        paginator.next();
+        paginator.next();
+        return paginator.next();
+    }
+}
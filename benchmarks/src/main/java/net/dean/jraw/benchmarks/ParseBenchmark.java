@@ -0,0 +1,70 @@
+package net.dean.jraw.benchmarks;
+
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning a response body into models: reading and parsing the JSON, and creating the models of a listing or
+ * of a whole comment tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    private final byte[] listing = Fixtures.load(Fixtures.SUBREDDIT_HOT);
+    private final byte[] thread = Fixtures.load(Fixtures.SUBMISSION_COMMENTS);
+
+    @Benchmark
+    public RestResponse restResponse() {
+        return new RestResponse(Fixtures.response(listing));
+    }
+
+    @Benchmark
+    public RestResponse restResponseStreaming() {
+        return new RestResponse(Fixtures.response(listing), true);
+    }
+
+    @Benchmark
+    public void asListing(Blackhole bh) {
+        Listing<Submission> submissions = new RedditResponse(Fixtures.response(listing)).asListing(Submission.class);
+        for (Submission s : submissions) {
+            bh.consume(s);
+        }
+    }
+
+    @Benchmark
+    public int submissionWithComments() {
+        Submission submission = new RedditResponse(Fixtures.response(thread)).as(Submission.class);
+        // Replies are created lazily, so visit the whole tree
+        return countComments(submission.getComments());
+    }
+
+    private static int countComments(Listing<Comment> comments) {
+        if (comments == null) {
+            return 0;
+        }
+        int count = comments.size();
+        for (Comment c : comments) {
+            count += countComments(c.getReplies());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,66 @@
+package net.dean.jraw.benchmarks;
+
+import net.dean.jraw.Endpoint;
+import net.dean.jraw.Endpoints;
+import net.dean.jraw.http.RestRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * Measures how long it takes to build the URL of a request, and how much it allocates. Run with the GC profiler (the
+ * {@code jmh} task does this) and compare {@code gc.alloc.rate.norm} between the benchmarks.
+ *
+ * <p>{@link #regexUri()} reproduces how URIs were expanded before endpoints had precompiled templates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBuildBenchmark {
+    private final Endpoint endpoint = Endpoints.MULTI_MULTIPATH_R_SRNAME_PUT.getEndpoint();
+    private final List<String> args = Arrays.asList("user/someone/m/programming", "java");
+
+    @Benchmark
+    public StringBuilder templateUri() {
+        return endpoint.getTemplate().expand(new StringBuilder(64), args);
+    }
+
+    @Benchmark
+    public String regexUri() {
+        String uri = endpoint.getUri();
+        Matcher m = null;
+        for (String arg : args) {
+            if (m == null) {
+                m = Endpoint.URI_PARAM_PATTERN.matcher(uri);
+            } else {
+                m.reset(uri);
+            }
+            uri = m.replaceFirst(arg);
+        }
+        return String.format("http%s://%s", "s", "oauth.reddit.com") + uri;
+    }
+
+    @Benchmark
+    public RestRequest buildRequest() {
+        return new RestRequest.Builder()
+                .host("oauth.reddit.com")
+                .https(true)
+                .endpoint(Endpoints.MULTI_MULTIPATH_R_SRNAME_PUT, "user/someone/m/programming", "java")
+                .query("limit", "100", "after", "t3_abcdef")
+                .build();
+    }
+}
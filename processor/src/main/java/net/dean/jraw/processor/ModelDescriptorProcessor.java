@@ -0,0 +1,240 @@
+package net.dean.jraw.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates {@code net.dean.jraw.models.GeneratedModelDescriptors}, which contains a {@code ModelDescriptor} for every
+ * public, concrete subclass of {@code JsonModel} being compiled. Each descriptor lists the model's {@code JsonProperty}
+ * methods in alphabetical order and calls them directly through a switch, so that {@code JsonModel.toString()} does
+ * not have to scan the class hierarchy and invoke methods reflectively.
+ */
+public class ModelDescriptorProcessor extends AbstractProcessor {
+    private static final String JSON_MODEL = "net.dean.jraw.models.JsonModel";
+    private static final String JSON_PROPERTY = "net.dean.jraw.models.JsonProperty";
+    private static final String PACKAGE = "net.dean.jraw.models";
+    private static final String GENERATED_CLASS = "GeneratedModelDescriptors";
+    private static final String INDENT = "    ";
+
+    private boolean generated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // Subclasses that only inherit their JsonProperty methods need descriptors too, so look at every class
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement jsonModel = processingEnv.getElementUtils().getTypeElement(JSON_MODEL);
+        if (generated || roundEnv.processingOver() || jsonModel == null) {
+            return false;
+        }
+
+        List<TypeElement> models = new ArrayList<>();
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            findModels(type, jsonModel, models);
+        }
+        if (models.isEmpty()) {
+            return false;
+        }
+
+        Collections.sort(models, new Comparator<TypeElement>() {
+            @Override
+            public int compare(TypeElement o1, TypeElement o2) {
+                return o1.getQualifiedName().toString().compareTo(o2.getQualifiedName().toString());
+            }
+        });
+
+        try {
+            generate(models);
+            generated = true;
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write " + GENERATED_CLASS + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    /** Adds the given type and its nested types to the list if they are models that can be described */
+    private void findModels(TypeElement type, TypeElement jsonModel, List<TypeElement> models) {
+        if (type.getKind() == ElementKind.CLASS && isAccessible(type) &&
+                !type.getModifiers().contains(Modifier.ABSTRACT) &&
+                processingEnv.getTypeUtils().isSubtype(erasure(type.asType()), erasure(jsonModel.asType()))) {
+            models.add(type);
+        }
+
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            findModels(nested, jsonModel, models);
+        }
+    }
+
+    /** Checks if the generated code can refer to the given type */
+    private static boolean isAccessible(TypeElement type) {
+        Element e = type;
+        while (e instanceof TypeElement) {
+            Set<Modifier> modifiers = e.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            Element enclosing = e.getEnclosingElement();
+            if (enclosing instanceof TypeElement && !modifiers.contains(Modifier.STATIC)) {
+                // Inner classes need an enclosing instance
+                return false;
+            }
+            e = enclosing;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the JsonProperty methods of a model, including those declared in its superclasses and their interfaces
+     *
+     * @return A map of method names to whether they may return null, sorted by name
+     */
+    private Map<String, Boolean> findProperties(TypeElement model) {
+        Map<String, Boolean> properties = new TreeMap<>();
+        TypeElement type = model;
+        while (type != null) {
+            addProperties(type, properties);
+            if (type.getQualifiedName().contentEquals(JSON_MODEL)) {
+                break;
+            }
+            type = asElement(type.getSuperclass());
+        }
+        return properties;
+    }
+
+    private void addProperties(TypeElement type, Map<String, Boolean> properties) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            Boolean nullable = jsonPropertyNullable(method);
+            String name = method.getSimpleName().toString();
+            if (nullable != null && method.getParameters().isEmpty() && method.getModifiers().contains(Modifier.PUBLIC)
+                    && !method.getModifiers().contains(Modifier.STATIC) && !properties.containsKey(name)) {
+                properties.put(name, nullable);
+            }
+        }
+        for (TypeMirror interf : type.getInterfaces()) {
+            TypeElement element = asElement(interf);
+            if (element != null) {
+                addProperties(element, properties);
+            }
+        }
+    }
+
+    /** Returns the "nullable" value of the method's JsonProperty annotation, or null if it does not have one */
+    private Boolean jsonPropertyNullable(ExecutableElement method) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(JSON_PROPERTY)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                    processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("nullable")) {
+                    return (Boolean) entry.getValue().getValue();
+                }
+            }
+            return false;
+        }
+        return null;
+    }
+
+    private void generate(List<TypeElement> models) throws IOException {
+        Element[] origins = models.toArray(new Element[models.size()]);
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(PACKAGE + "." + GENERATED_CLASS, origins).openWriter())) {
+            out.println("package " + PACKAGE + ";");
+            out.println();
+            out.println("/* This class is generated by " + getClass().getName() + ". Do not modify directly */");
+            out.println("/** Descriptors of JRAW's models, loaded by {@link ModelDescriptor} */");
+            out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+            out.println("final class " + GENERATED_CLASS + " {");
+            out.println(INDENT + "private " + GENERATED_CLASS + "() {");
+            out.println(INDENT + INDENT + "// no instances");
+            out.println(INDENT + "}");
+            out.println();
+            out.println(INDENT + "static java.util.Map<java.lang.Class<?>, ModelDescriptor<?>> descriptors() {");
+            out.println(INDENT + INDENT + "java.util.Map<java.lang.Class<?>, ModelDescriptor<?>> descriptors = " +
+                    "new java.util.HashMap<>();");
+            for (TypeElement model : models) {
+                generateDescriptor(out, model, findProperties(model));
+            }
+            out.println(INDENT + INDENT + "return descriptors;");
+            out.println(INDENT + "}");
+            out.println("}");
+        }
+    }
+
+    private void generateDescriptor(PrintWriter out, TypeElement model, Map<String, Boolean> properties) {
+        String name = model.getQualifiedName().toString();
+        String i2 = INDENT + INDENT;
+        String i3 = i2 + INDENT;
+        String i4 = i3 + INDENT;
+        String i5 = i4 + INDENT;
+
+        StringBuilder names = new StringBuilder();
+        StringBuilder nullable = new StringBuilder();
+        for (Map.Entry<String, Boolean> property : properties.entrySet()) {
+            if (names.length() > 0) {
+                names.append(", ");
+                nullable.append(", ");
+            }
+            names.append('"').append(property.getKey()).append('"');
+            nullable.append(property.getValue());
+        }
+
+        out.println(i2 + "descriptors.put(" + name + ".class, new ModelDescriptor<" + name + ">(" + name + ".class,");
+        out.println(i4 + "new java.lang.String[] {" + names + "},");
+        out.println(i4 + "new boolean[] {" + nullable + "}) {");
+        out.println(i3 + "@java.lang.Override");
+        out.println(i3 + "public java.lang.Object get(" + name + " model, int index) {");
+        out.println(i4 + "switch (index) {");
+        int index = 0;
+        for (String property : properties.keySet()) {
+            out.println(i5 + "case " + index++ + ": return model." + property + "();");
+        }
+        out.println(i5 + "default: throw new java.lang.IndexOutOfBoundsException(java.lang.String.valueOf(index));");
+        out.println(i4 + "}");
+        out.println(i3 + "}");
+        out.println(i2 + "});");
+    }
+
+    private TypeMirror erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type);
+    }
+
+    private static TypeElement asElement(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) type).asElement();
+    }
+}
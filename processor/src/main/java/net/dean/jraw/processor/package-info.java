@@ -0,0 +1,4 @@
+/**
+ * An annotation processor that generates descriptors of JRAW's models at build time
+ */
+package net.dean.jraw.processor;
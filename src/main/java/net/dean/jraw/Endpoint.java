@@ -1,9 +1,7 @@
 package net.dean.jraw;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -21,6 +19,7 @@ public class Endpoint implements Comparable<Endpoint> {
     protected final String uri;
     protected final String requestDescriptor;
     protected final List<String> urlParams;
+    protected final UriTemplate template;
 
     /**
      * Instantiates a new Endpoint. Used mostly for meta-programming in the
@@ -49,21 +48,12 @@ public class Endpoint implements Comparable<Endpoint> {
 
         this.verb = parts[0].toUpperCase();
         this.uri = parts[1];
-        this.urlParams = parseUrlParams(uri);
+        this.template = new UriTemplate(uri);
+        this.urlParams = template.getParams();
         this.scope = scope;
         this.implemented = false;
     }
 
-    private List<String> parseUrlParams(String uri) {
-        List<String> params = new ArrayList<>();
-        Matcher matcher = URI_PARAM_PATTERN.matcher(uri);
-        while (matcher.find()) {
-            params.add(matcher.group());
-        }
-
-        return params;
-    }
-
     /**
      * Gets a list of parameters in this endpoint's URI. For example, the endpoint {@code /user/{username}/about.json}
      * would have one parameter: {@code {username}}.
@@ -73,6 +63,14 @@ public class Endpoint implements Comparable<Endpoint> {
         return urlParams;
     }
 
+    /**
+     * Gets the precompiled form of this endpoint's URI, which is used to build requests without parsing the URI again
+     * @return The URI template
+     */
+    public UriTemplate getTemplate() {
+        return template;
+    }
+
     /**
      * Gets this endpoint's OAuth2 scope. Always null for normal library use. See
      * <a href="http://www.reddit.com/dev/api">here</a>
@@ -1,13 +1,8 @@
 package net.dean.jraw;
 
 import com.squareup.okhttp.MediaType;
-import net.dean.jraw.models.Comment;
-import net.dean.jraw.models.Contribution;
-import net.dean.jraw.models.Message;
-import net.dean.jraw.models.PublicContribution;
+import net.dean.jraw.models.ModelRegistry;
 import net.dean.jraw.models.RedditObject;
-import net.dean.jraw.models.Submission;
-import net.dean.jraw.models.ThingType;
 import net.dean.jraw.paginators.MultiHubPaginator;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -16,8 +11,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.StringWriter;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -140,48 +133,16 @@ public final class JrawUtils {
      * @param thingClass The type of Thing this JsonNode should be turned into
      * @param <T>        The return type
      * @return A new RedditObject
+     * @see ModelRegistry
      */
     @SuppressWarnings("unchecked")
     public static <T extends RedditObject> T parseJson(JsonNode rootNode, Class<T> thingClass) {
-        if (thingClass.equals(Contribution.class)) {
-            switch (ThingType.getByPrefix(rootNode.get("kind").asText())) {
-                case LINK:
-                    return (T) new Submission(rootNode.get("data"));
-                case COMMENT:
-                    return (T) new Comment(rootNode.get("data"));
-                case MESSAGE:
-                    return (T) new Message(rootNode.get("data"));
-                default:
-                    throw new IllegalArgumentException("Class " + thingClass.getName() +
-                            " is not applicable for Contribution");
-            }
-        } else if (thingClass.equals(MultiHubPaginator.MultiRedditId.class)) {
+        if (thingClass.equals(MultiHubPaginator.MultiRedditId.class)) {
+            // Not wrapped in "kind" and "data"
             return (T) new MultiHubPaginator.MultiRedditId(rootNode.get("owner").asText(),
                     rootNode.get("name").asText());
-        } else if (thingClass.equals(PublicContribution.class)) {
-            switch (ThingType.getByPrefix(rootNode.get("kind").asText())) {
-                case LINK:
-                    return (T) new Submission(rootNode.get("data"));
-                case COMMENT:
-                    return (T) new Comment(rootNode.get("data"));
-                default:
-                    throw new IllegalArgumentException("Class " + thingClass.getName() +
-                            " is not applicable for Contribution");
-            }
         }
-        try {
-            // Instantiate a generic Thing
-            Constructor<T> constructor = thingClass.getConstructor(JsonNode.class);
-            return constructor.newInstance(rootNode.get("data"));
-        } catch (NoSuchMethodException |
-                InstantiationException |
-                IllegalAccessException |
-                InvocationTargetException e) {
-            // Holy exceptions Batman!
-            logger().error("Could not create the Thing ({})", thingClass.getName(), e);
-        }
-
-        return null;
+        return ModelRegistry.create(rootNode, thingClass);
     }
 
     /**
@@ -3,8 +3,11 @@ package net.dean.jraw;
 import com.squareup.okhttp.Response;
 import net.dean.jraw.http.AuthenticationMethod;
 import net.dean.jraw.http.Credentials;
+import net.dean.jraw.http.HttpResources;
+import net.dean.jraw.http.HttpTransport;
 import net.dean.jraw.http.MediaTypes;
 import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.OkHttpTransport;
 import net.dean.jraw.http.RedditResponse;
 import net.dean.jraw.http.RestClient;
 import net.dean.jraw.http.RestRequest;
@@ -58,10 +61,10 @@ public class RedditClient extends RestClient<RedditResponse> {
     private static final int NUM_TRENDING_SUBREDDITS = 5;
 
     /** The username of the user who is currently authenticated */
-    protected String authenticatedUser;
+    protected volatile String authenticatedUser;
 
     /** The method of authentication currently being used */
-    protected AuthenticationMethod authMethod;
+    protected volatile AuthenticationMethod authMethod;
 
     /**
      * Instantiates a new RedditClient and adds the given user agent to the default headers
@@ -83,7 +86,47 @@ public class RedditClient extends RestClient<RedditResponse> {
      * @param requestsPerMinute The amount of requests per minute to send
      */
     public RedditClient(String userAgent, int requestsPerMinute) {
-        super(HOST, userAgent, requestsPerMinute);
+        this(userAgent, requestsPerMinute, HOST);
+    }
+
+    /**
+     * Instantiates a new RedditClient whose requests go to the given host by default instead of {@link #HOST}, such as
+     * a local server that stands in for reddit during load tests. Requests that always need a specific host, like
+     * logging in, are not affected.
+     *
+     * @param userAgent The User-Agent header that will be sent with all the HTTP requests
+     * @param requestsPerMinute The amount of requests per minute to send
+     * @param host The host, including the port if it is not the default one. For example, "localhost:8080".
+     */
+    public RedditClient(String userAgent, int requestsPerMinute, String host) {
+        this(userAgent, requestsPerMinute, host, new OkHttpTransport());
+    }
+
+    /**
+     * Instantiates a new RedditClient that sends its requests with the given transport
+     *
+     * @param userAgent The User-Agent header that will be sent with all the HTTP requests
+     * @param requestsPerMinute The amount of requests per minute to send
+     * @param host The host, including the port if it is not the default one. Usually {@link #HOST}.
+     * @param transport Sends the HTTP requests. May be shared with other clients.
+     * @see net.dean.jraw.http.UrlConnectionTransport
+     */
+    public RedditClient(String userAgent, int requestsPerMinute, String host, HttpTransport transport) {
+        super(transport, host, userAgent, requestsPerMinute);
+        this.authMethod = AuthenticationMethod.NONE;
+    }
+
+    /**
+     * Instantiates a new RedditClient on top of resources that may be shared with the clients of other users. The
+     * client keeps its own cookies, modhash and rate limit, while connections and threads are shared.
+     *
+     * @param userAgent The User-Agent header that will be sent with all the HTTP requests
+     * @param requestsPerMinute The amount of requests per minute to send
+     * @param host The host, including the port if it is not the default one. Usually {@link #HOST}.
+     * @param resources The transport, listeners and circuit breakers to use
+     */
+    public RedditClient(String userAgent, int requestsPerMinute, String host, HttpResources resources) {
+        super(resources, host, userAgent, requestsPerMinute);
         this.authMethod = AuthenticationMethod.NONE;
     }
 
@@ -111,7 +154,7 @@ public class RedditClient extends RestClient<RedditResponse> {
 
     @Override
     protected RedditResponse initResponse(Response response) {
-        return new RedditResponse(response);
+        return new RedditResponse(response, isStreamingResponses());
     }
 
     /**
@@ -154,7 +197,7 @@ public class RedditClient extends RestClient<RedditResponse> {
         String modhash = loginResponse.getJson().get("json").get("data").get("modhash").getTextValue();
 
         // Add the X-Modhash header, or update it if it already exists
-        defaultHeaders.put(HEADER_MODHASH, modhash);
+        setDefaultHeader(HEADER_MODHASH, modhash);
 
         LoggedInAccount me = me();
         this.authenticatedUser = me.getFullName();
@@ -171,7 +214,7 @@ public class RedditClient extends RestClient<RedditResponse> {
                 .path("/logout")
                 .expected(MediaTypes.HTML.type())
                 .post(null).build());
-        defaultHeaders.remove(HEADER_MODHASH);
+        removeDefaultHeader(HEADER_MODHASH);
         authMethod = AuthenticationMethod.NONE;
     }
 
@@ -215,7 +258,7 @@ public class RedditClient extends RestClient<RedditResponse> {
         String modhash = response.getJson().get("json").get("data").get("modhash").getTextValue();
 
         // Add the X-Modhash header, or update it if it already exists
-        defaultHeaders.put(HEADER_MODHASH, modhash);
+        setDefaultHeader(HEADER_MODHASH, modhash);
 
         LoggedInAccount me = me();
         this.authenticatedUser = me.getFullName();
@@ -223,6 +266,11 @@ public class RedditClient extends RestClient<RedditResponse> {
         return me;
     }
 
+    @Override
+    protected String getCacheIdentity() {
+        return isLoggedIn() ? authenticatedUser : null;
+    }
+
     /**
      * Checks if the user is logged in
      * @return True if the user is logged in
@@ -323,6 +371,7 @@ public class RedditClient extends RestClient<RedditResponse> {
         return execute(request()
                 .endpoint(Endpoints.USER_USERNAME_ABOUT, username)
                 .get()
+                .coalesce(true)
                 .build()).as(Account.class);
     }
 
@@ -354,6 +403,7 @@ public class RedditClient extends RestClient<RedditResponse> {
         return execute(request()
                 .path(String.format("/comments/%s.json", request.id))
                 .query(args)
+                .coalesce(true)
                 .build()).as(Submission.class);
 
     }
@@ -369,6 +419,7 @@ public class RedditClient extends RestClient<RedditResponse> {
     public Subreddit getSubreddit(String name) throws NetworkException {
         return execute(request()
                 .endpoint(Endpoints.SUBREDDIT_ABOUT, name)
+                .coalesce(true)
                 .build()).as(Subreddit.class);
     }
 
@@ -3,8 +3,11 @@ package net.dean.jraw;
 import com.google.common.base.Joiner;
 import net.dean.jraw.http.AuthenticationMethod;
 import net.dean.jraw.http.Credentials;
+import net.dean.jraw.http.HttpResources;
+import net.dean.jraw.http.HttpTransport;
 import net.dean.jraw.http.MediaTypes;
 import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.OkHttpTransport;
 import net.dean.jraw.http.RedditResponse;
 import net.dean.jraw.http.RestRequest;
 import net.dean.jraw.http.oauth.AuthData;
@@ -28,7 +31,7 @@ import java.util.Map;
  */
 public class RedditOAuth2Client extends RedditClient {
     private static final String HEADER_AUTHORIZATION = "Authorization";
-    private AuthData authData;
+    private volatile AuthData authData;
     private OAuthHelper authHelper;
 
     /**
@@ -50,8 +53,32 @@ public class RedditOAuth2Client extends RedditClient {
      *                  </blockquote>
      */
     public RedditOAuth2Client(String userAgent) {
-        super(userAgent, REQUESTS_PER_MINUTE_OAUTH2);
-        this.authHelper = new OAuthHelper(this);
+        this(userAgent, new OkHttpTransport());
+    }
+
+    /**
+     * Instantiates a new OAuth2RedditClient that sends its requests with the given transport
+     *
+     * @param userAgent The User-Agent header that will be sent with all the HTTP requests. See
+     *                  {@link #RedditOAuth2Client(String)}.
+     * @param transport Sends the HTTP requests. May be shared with other clients.
+     */
+    public RedditOAuth2Client(String userAgent, HttpTransport transport) {
+        super(userAgent, REQUESTS_PER_MINUTE_OAUTH2, HOST, transport);
+        setHttpsDefault(true);
+    }
+
+    /**
+     * Instantiates a new OAuth2RedditClient on top of resources that may be shared with the clients of other users.
+     * This is the cheapest way to act on behalf of many users at once: each client only holds its own access token and
+     * rate limit, while connections and threads are shared.
+     *
+     * @param userAgent The User-Agent header that will be sent with all the HTTP requests. See
+     *                  {@link #RedditOAuth2Client(String)}.
+     * @param resources The transport, listeners and circuit breakers to use
+     */
+    public RedditOAuth2Client(String userAgent, HttpResources resources) {
+        super(userAgent, REQUESTS_PER_MINUTE_OAUTH2, HOST, resources);
         setHttpsDefault(true);
     }
 
@@ -70,7 +97,7 @@ public class RedditOAuth2Client extends RedditClient {
                     "getOAuthHelper() instead to log in.");
         }
 
-        return onAuthorized(authHelper.doScriptApp(credentials), credentials);
+        return onAuthorized(getOAuthHelper().doScriptApp(credentials), credentials);
     }
 
     /**
@@ -82,7 +109,7 @@ public class RedditOAuth2Client extends RedditClient {
      */
     public LoggedInAccount onAuthorized(AuthData data, Credentials credentials) throws NetworkException {
         this.authData = data;
-        defaultHeaders.put(HEADER_AUTHORIZATION, "bearer " + authData.getAccessToken());
+        setDefaultHeader(HEADER_AUTHORIZATION, "bearer " + authData.getAccessToken());
 
         LoggedInAccount me = me();
         this.authenticatedUser = me.getFullName();
@@ -291,7 +318,9 @@ public class RedditOAuth2Client extends RedditClient {
     /**
      * Gets the object that will help clients authenticate users with their Reddit app
      */
-    public OAuthHelper getOAuthHelper() {
+    public synchronized OAuthHelper getOAuthHelper() {
+        if (authHelper == null)
+            authHelper = new OAuthHelper(this);
         return authHelper;
     }
 
@@ -0,0 +1,175 @@
+package net.dean.jraw;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A URI such as "{@code /user/{username}/about.json}" that has been split into its literal segments and parameters
+ * ahead of time, so that it can be expanded without scanning or copying the URI again. Every {@link Endpoint} has one.
+ */
+public final class UriTemplate {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /** The text before, between and after the parameters. There is always one more literal than there are parameters. */
+    private final String[] literals;
+    /** The names of the parameters including their braces, in order of appearance */
+    private final List<String> params;
+    private final int literalLength;
+
+    /**
+     * Parses a URI template
+     * @param uri The URI, where every parameter is surrounded by braces
+     * @throws IllegalArgumentException If a brace is not closed
+     */
+    public UriTemplate(String uri) {
+        List<String> literals = new ArrayList<>();
+        List<String> params = new ArrayList<>();
+        int literalLength = 0;
+
+        int start = 0;
+        int open;
+        while ((open = uri.indexOf('{', start)) != -1) {
+            int close = uri.indexOf('}', open);
+            if (close == -1) {
+                throw new IllegalArgumentException("Unclosed URI parameter in \"" + uri + "\"");
+            }
+            literals.add(uri.substring(start, open));
+            params.add(uri.substring(open, close + 1));
+            literalLength += open - start;
+            start = close + 1;
+        }
+        literals.add(uri.substring(start));
+        literalLength += uri.length() - start;
+
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.params = Collections.unmodifiableList(params);
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Gets the parameters of this template, including their braces. For example, "{@code {username}}".
+     * @return The parameters in order of appearance
+     */
+    public List<String> getParams() {
+        return params;
+    }
+
+    /**
+     * Estimates the length of this template when expanded with the given arguments, assuming no characters need to be
+     * percent-encoded
+     *
+     * @param args The arguments
+     * @return The estimated length
+     */
+    public int estimateLength(List<String> args) {
+        int length = literalLength;
+        for (String arg : args) {
+            length += arg.length();
+        }
+        return length;
+    }
+
+    /**
+     * Appends this template to the given StringBuilder, replacing every parameter with the argument in the same
+     * position. Arguments are percent-encoded as URI path segments, except that "/" is left alone so that arguments
+     * such as multireddit paths can span several segments.
+     *
+     * @param dest The StringBuilder to append to
+     * @param args The arguments, one for each parameter
+     * @return The given StringBuilder
+     * @throws IllegalArgumentException If the amount of arguments does not match the amount of parameters
+     */
+    public StringBuilder expand(StringBuilder dest, List<String> args) {
+        if (args.size() != params.size()) {
+            throw new IllegalArgumentException(String.format("URL parameter size mismatch. Expecting %s, got %s",
+                    params.size(), args.size()));
+        }
+
+        dest.append(literals[0]);
+        for (int i = 0; i < args.size(); i++) {
+            appendEncoded(dest, args.get(i), false);
+            dest.append(literals[i + 1]);
+        }
+        return dest;
+    }
+
+    /**
+     * Appends a string to a StringBuilder in the {@code application/x-www-form-urlencoded} format used by query strings.
+     * The result is the same as that of {@code URLEncoder.encode(str, "UTF-8")}, without creating a new String.
+     *
+     * @param dest The StringBuilder to append to
+     * @param str The string to encode
+     */
+    public static void appendFormEncoded(StringBuilder dest, String str) {
+        appendEncoded(dest, str, true);
+    }
+
+    /**
+     * Appends a string to a StringBuilder, percent-encoding every character that is not allowed
+     *
+     * @param dest The StringBuilder to append to
+     * @param str The string to encode
+     * @param form If true, encode for a query string (see {@link #appendFormEncoded(StringBuilder, String)}). Otherwise,
+     *             encode for a URI path.
+     */
+    private static void appendEncoded(StringBuilder dest, String str, boolean form) {
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (form ? isFormChar(c) : isPathChar(c)) {
+                dest.append(c);
+            } else if (form && c == ' ') {
+                dest.append('+');
+            } else if (c < 0x80) {
+                appendEscaped(dest, c);
+            } else {
+                // Rare enough to not bother encoding by hand
+                int end = i + 1;
+                while (end < length && str.charAt(end) >= 0x80) {
+                    end++;
+                }
+                for (byte b : str.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    appendEscaped(dest, b & 0xFF);
+                }
+                i = end - 1;
+            }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder dest, int b) {
+        dest.append('%').append(HEX[b >> 4]).append(HEX[b & 0xF]);
+    }
+
+    /** Checks if the given character is left alone by URLEncoder */
+    private static boolean isFormChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+                c == '.' || c == '-' || c == '*' || c == '_';
+    }
+
+    /** Checks if the given character is unreserved, a sub-delimiter, ':', '@' or '/' as defined by RFC 3986 */
+    private static boolean isPathChar(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+            return true;
+        }
+        switch (c) {
+            case '-': case '.': case '_': case '~':
+            case '!': case '$': case '&': case '\'': case '(': case ')': case '*': case '+': case ',': case ';': case '=':
+            case ':': case '@': case '/':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(literalLength + params.size() * 16);
+        sb.append(literals[0]);
+        for (int i = 0; i < params.size(); i++) {
+            sb.append(params.get(i)).append(literals[i + 1]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package net.dean.jraw.http;
+
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * An OkHttp response body that reads from a source it was given, used to turn responses that were stored or received
+ * by something other than OkHttp back into OkHttp responses
+ */
+final class BufferedResponseBody extends ResponseBody {
+    private final MediaType contentType;
+    private final long contentLength;
+    private final BufferedSource source;
+
+    /**
+     * Instantiates a new BufferedResponseBody
+     *
+     * @param contentType The value of the Content-Type header, or null if there was none
+     * @param contentLength The length of the body in bytes, or -1 if it is unknown
+     * @param source The body
+     */
+    BufferedResponseBody(String contentType, long contentLength, BufferedSource source) {
+        this.contentType = contentType != null ? MediaType.parse(contentType) : null;
+        this.contentLength = contentLength;
+        this.source = source;
+    }
+
+    /**
+     * Creates a body that reads from the given bytes
+     *
+     * @param contentType The value of the Content-Type header, or null if there was none
+     * @param body The body
+     * @return A new BufferedResponseBody
+     */
+    static BufferedResponseBody of(String contentType, byte[] body) {
+        return new BufferedResponseBody(contentType, body.length, new Buffer().write(body));
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public BufferedSource source() {
+        return source;
+    }
+}
@@ -0,0 +1,263 @@
+package net.dean.jraw.http;
+
+import com.squareup.okhttp.Headers;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An immutable copy of a successful HTTP response that is kept by a {@link ResponseCache}. Besides the response itself,
+ * this class keeps track of the freshness information and validators (ETag and Last-Modified) sent by the server.
+ *
+ * <p>Cookies set by the response are not kept, since they have already been stored by the client that received it.
+ */
+public final class CachedResponse {
+    private static final String HEADER_CACHE_CONTROL = "Cache-Control";
+    private static final String HEADER_ETAG = "ETag";
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+    /** Headers that are removed before a response is stored */
+    private static final String[] UNSTORED_HEADERS = {"Set-Cookie", "Set-Cookie2"};
+
+    private final int code;
+    private final String message;
+    private final Headers headers;
+    private final byte[] body;
+    private final long receivedAt;
+    private final boolean authenticated;
+    private final long maxAge;
+    private final boolean noCache;
+
+    private CachedResponse(int code, String message, Headers headers, byte[] body, long receivedAt,
+                           boolean authenticated) {
+        this.code = code;
+        this.message = message;
+        this.headers = withoutUnstored(headers);
+        this.body = body;
+        this.receivedAt = receivedAt;
+        this.authenticated = authenticated;
+
+        long maxAge = -1;
+        boolean noCache = false;
+        for (String value : headers.values(HEADER_CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                directive = directive.trim().toLowerCase();
+                if (directive.equals("no-cache")) {
+                    noCache = true;
+                } else if (directive.startsWith("max-age=")) {
+                    try {
+                        maxAge = Long.parseLong(directive.substring("max-age=".length()).trim());
+                    } catch (NumberFormatException e) {
+                        maxAge = 0;
+                    }
+                }
+            }
+        }
+        this.maxAge = maxAge;
+        this.noCache = noCache;
+    }
+
+    /**
+     * Creates a new CachedResponse for an unauthenticated request by reading the body of the given response. If the
+     * response may not be stored, the body is left untouched.
+     *
+     * @param response The response to copy
+     * @param now The current time in milliseconds
+     * @return A new CachedResponse, or null if the response may not be stored
+     * @throws IOException If the body could not be read
+     */
+    public static CachedResponse create(Response response, long now) throws IOException {
+        return create(response, now, false);
+    }
+
+    /**
+     * Creates a new CachedResponse by reading the body of the given response. If the response may not be stored, the
+     * body is left untouched.
+     *
+     * @param response The response to copy
+     * @param now The current time in milliseconds
+     * @param authenticated If the request was sent on behalf of a user. See {@link #isAuthenticated()}.
+     * @return A new CachedResponse, or null if the response may not be stored
+     * @throws IOException If the body could not be read
+     */
+    public static CachedResponse create(Response response, long now, boolean authenticated) throws IOException {
+        if (!isStorable(response)) {
+            return null;
+        }
+        return new CachedResponse(response.code(), response.message(), response.headers(), response.body().bytes(), now,
+                authenticated);
+    }
+
+    /**
+     * Checks if the given response may be stored in a cache. Only 200 OK responses that were not marked with
+     * "no-store" and that either have a lifetime or a validator are stored.
+     *
+     * @param response The response to check
+     * @return If the response may be stored
+     */
+    public static boolean isStorable(Response response) {
+        if (response.code() != 200) {
+            return false;
+        }
+        for (String value : response.headers(HEADER_CACHE_CONTROL)) {
+            if (value.toLowerCase().contains("no-store")) {
+                return false;
+            }
+        }
+        CachedResponse headersOnly = new CachedResponse(200, null, response.headers(), new byte[0], 0, false);
+        return headersOnly.maxAge > 0 || headersOnly.getETag() != null || headersOnly.getLastModified() != null;
+    }
+
+    /**
+     * Checks if this response can be used without asking the server first
+     * @param now The current time in milliseconds
+     * @return If this response is still fresh
+     */
+    public boolean isFresh(long now) {
+        return !noCache && maxAge > 0 && now - receivedAt < maxAge * 1000;
+    }
+
+    /**
+     * Creates an updated copy of this response after the server replied with 304 Not Modified. Headers sent with the
+     * 304 response replace the stored ones, and the freshness lifetime starts over.
+     *
+     * @param notModified The headers of the 304 response
+     * @param now The current time in milliseconds
+     * @return An updated copy of this response
+     */
+    public CachedResponse revalidate(Headers notModified, long now) {
+        Headers.Builder merged = headers.newBuilder();
+        for (String name : notModified.names()) {
+            merged.removeAll(name);
+            for (String value : notModified.values(name)) {
+                merged.add(name, value);
+            }
+        }
+        return new CachedResponse(code, message, merged.build(), body, now, authenticated);
+    }
+
+    /**
+     * Creates a new OkHttp response using the stored data
+     * @param request The request the response will be for
+     * @return A new Response
+     */
+    public Response toResponse(Request request) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message(message)
+                .headers(headers)
+                .body(BufferedResponseBody.of(headers.get("Content-Type"), body))
+                .build();
+    }
+
+    /**
+     * Gets the value of the ETag header
+     * @return The ETag, or null if there was none
+     */
+    public String getETag() {
+        return headers.get(HEADER_ETAG);
+    }
+
+    /**
+     * Gets the value of the Last-Modified header
+     * @return The last modified date, or null if there was none
+     */
+    public String getLastModified() {
+        return headers.get(HEADER_LAST_MODIFIED);
+    }
+
+    /**
+     * Checks if the server can be asked whether this response has changed
+     * @return If this response has an ETag or Last-Modified header
+     */
+    public boolean hasValidators() {
+        return getETag() != null || getLastModified() != null;
+    }
+
+    /**
+     * Gets the time this response was received or last revalidated
+     * @return The time in milliseconds
+     */
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+    /**
+     * Checks if this is the response to a request that was sent on behalf of a user. Such responses may contain private
+     * data, so they should not be written anywhere other people could read them, such as to disk.
+     *
+     * @return If the request was authenticated
+     */
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    /**
+     * Gets an estimate of the amount of memory this response takes up
+     * @return The size of this response in bytes
+     */
+    public int getWeight() {
+        int weight = body.length;
+        for (int i = 0; i < headers.size(); i++) {
+            weight += headers.name(i).length() + headers.value(i).length();
+        }
+        return weight;
+    }
+
+    private static Headers withoutUnstored(Headers headers) {
+        Headers.Builder stored = null;
+        for (String name : UNSTORED_HEADERS) {
+            if (headers.get(name) != null) {
+                if (stored == null) {
+                    stored = headers.newBuilder();
+                }
+                stored.removeAll(name);
+            }
+        }
+        return stored != null ? stored.build() : headers;
+    }
+
+    /**
+     * Writes this response so that it can be read again by {@link #readFrom(DataInput)}. Whether it was
+     * {@link #isAuthenticated() authenticated} is not written.
+     * @param out The output to write to
+     * @throws IOException If the response could not be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(code);
+        out.writeUTF(message != null ? message : "");
+        out.writeLong(receivedAt);
+        out.writeInt(headers.size());
+        for (int i = 0; i < headers.size(); i++) {
+            out.writeUTF(headers.name(i));
+            out.writeUTF(headers.value(i));
+        }
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    /**
+     * Reads a response that was written by {@link #writeTo(DataOutput)}. It is assumed not to be authenticated.
+     * @param in The input to read from
+     * @return A new CachedResponse
+     * @throws IOException If the response could not be read
+     */
+    public static CachedResponse readFrom(DataInput in) throws IOException {
+        int code = in.readInt();
+        String message = in.readUTF();
+        long receivedAt = in.readLong();
+        int headerCount = in.readInt();
+        Headers.Builder headers = new Headers.Builder();
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(in.readUTF(), in.readUTF());
+        }
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new CachedResponse(code, message, headers.build(), body, receivedAt, false);
+    }
+}
@@ -0,0 +1,223 @@
+package net.dean.jraw.http;
+
+import com.google.common.base.Ticker;
+import net.dean.jraw.JrawUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the health of a single host and stops requests from being sent to it while it is failing. See
+ * {@link CircuitBreakerPolicy} for how the state of a breaker changes.
+ */
+public class CircuitBreaker {
+    /** The possible states of a CircuitBreaker */
+    public static enum State {
+        /** Requests are sent normally */
+        CLOSED,
+        /** Requests fail immediately */
+        OPEN,
+        /** A limited amount of probe requests are sent to find out if the host has recovered */
+        HALF_OPEN
+    }
+
+    private static final byte OUTCOME_FAILED = 1;
+    private static final byte OUTCOME_SLOW = 2;
+
+    private final String host;
+    private final CircuitBreakerPolicy policy;
+    private final Ticker ticker;
+    private final CircuitBreakerListener listener;
+
+    // All fields below are guarded by 'this'
+    private State state;
+    /** Ring buffer of the outcomes of the most recent requests */
+    private final byte[] outcomes;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int probesInFlight;
+    private int probesSucceeded;
+
+    /**
+     * Instantiates a new CircuitBreaker
+     *
+     * @param host The host this breaker is responsible for
+     * @param policy The policy that decides when this breaker opens and closes
+     * @param ticker The source of time
+     * @param listener Notified when the state of this breaker changes. Can be null.
+     */
+    public CircuitBreaker(String host, CircuitBreakerPolicy policy, Ticker ticker, CircuitBreakerListener listener) {
+        this.host = host;
+        this.policy = policy;
+        this.ticker = ticker;
+        this.listener = listener;
+        this.state = State.CLOSED;
+        this.outcomes = new byte[policy.getWindowSize()];
+    }
+
+    /**
+     * Checks if a request may be sent to this breaker's host. If this method returns true, the outcome of the request
+     * must be reported using {@link #onResult(boolean, long)}, or {@link #release()} must be called if it was never
+     * sent or was cancelled.
+     *
+     * @return If the request may be sent
+     */
+    public boolean tryAcquire() {
+        State from;
+        synchronized (this) {
+            from = state;
+            if (state == State.CLOSED) {
+                return true;
+            }
+            if (state == State.OPEN) {
+                if (ticker.read() - openedAt < policy.getOpenDuration(TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                halfOpen();
+            }
+            if (probesInFlight + probesSucceeded >= policy.getHalfOpenCalls()) {
+                // Enough probes out already. Can't happen right after opening since the counters were reset.
+                return false;
+            }
+            probesInFlight++;
+        }
+        if (from != State.HALF_OPEN) {
+            notifyListener(from, State.HALF_OPEN);
+        }
+        return true;
+    }
+
+    /**
+     * Gives back a permit obtained from {@link #tryAcquire()} for a request that was never sent, or that was cancelled
+     * before its outcome was known
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    /**
+     * Reports the outcome of a request that was allowed by {@link #tryAcquire()}
+     *
+     * @param failed If the request failed
+     * @param durationNanos How long the request took, in nanoseconds
+     */
+    public void onResult(boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= policy.getSlowCallThreshold(TimeUnit.NANOSECONDS);
+        State from;
+        State to;
+        synchronized (this) {
+            from = state;
+            if (state == State.HALF_OPEN) {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+                if (failed || slow) {
+                    open();
+                } else if (++probesSucceeded >= policy.getHalfOpenCalls()) {
+                    close();
+                }
+            } else if (state == State.CLOSED) {
+                record(failed, slow);
+                if (calls >= policy.getMinimumCalls() &&
+                        (failures >= policy.getFailureRateThreshold() * calls ||
+                         slowCalls >= policy.getSlowCallRateThreshold() * calls)) {
+                    open();
+                }
+            }
+            // Results of requests that were sent before the breaker opened are ignored
+            to = state;
+        }
+        if (from != to) {
+            notifyListener(from, to);
+        }
+    }
+
+    private void record(boolean failed, boolean slow) {
+        if (calls == outcomes.length) {
+            // Forget the oldest outcome
+            byte oldest = outcomes[next];
+            if ((oldest & OUTCOME_FAILED) != 0) failures--;
+            if ((oldest & OUTCOME_SLOW) != 0) slowCalls--;
+        } else {
+            calls++;
+        }
+
+        byte outcome = 0;
+        if (failed) {
+            outcome |= OUTCOME_FAILED;
+            failures++;
+        }
+        if (slow) {
+            outcome |= OUTCOME_SLOW;
+            slowCalls++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = ticker.read();
+    }
+
+    private void halfOpen() {
+        state = State.HALF_OPEN;
+        probesInFlight = 0;
+        probesSucceeded = 0;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        calls = 0;
+        failures = 0;
+        slowCalls = 0;
+        next = 0;
+    }
+
+    private void notifyListener(State from, State to) {
+        JrawUtils.logger().info("Circuit breaker for {} changed from {} to {}", host, from, to);
+        if (listener != null) {
+            try {
+                listener.onStateChange(this, from, to);
+            } catch (RuntimeException e) {
+                JrawUtils.logger().error("CircuitBreakerListener threw an exception", e);
+            }
+        }
+    }
+
+    /**
+     * Gets the host this breaker is responsible for
+     * @return The host
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Gets the current state of this breaker. Note that an open breaker only moves to {@link State#HALF_OPEN} once a
+     * request is attempted after the open duration has passed.
+     *
+     * @return The current state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the fraction of recent requests that failed while this breaker was closed
+     * @return The failure rate, or 0 if no requests have been recorded
+     */
+    public synchronized double getFailureRate() {
+        return calls == 0 ? 0 : (double) failures / calls;
+    }
+
+    /**
+     * Gets the fraction of recent requests that were slow while this breaker was closed
+     * @return The slow call rate, or 0 if no requests have been recorded
+     */
+    public synchronized double getSlowCallRate() {
+        return calls == 0 ? 0 : (double) slowCalls / calls;
+    }
+}
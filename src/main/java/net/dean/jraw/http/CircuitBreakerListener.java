@@ -0,0 +1,18 @@
+package net.dean.jraw.http;
+
+/**
+ * Notified when a {@link CircuitBreaker} changes state. Listeners are called on the thread that caused the change
+ * (usually the one that received a response) and should return quickly.
+ *
+ * @see RestClient#addCircuitBreakerListener(CircuitBreakerListener)
+ */
+public interface CircuitBreakerListener {
+    /**
+     * Called when a circuit breaker moves from one state to another
+     *
+     * @param breaker The circuit breaker
+     * @param from The previous state
+     * @param to The new state
+     */
+    public void onStateChange(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to);
+}
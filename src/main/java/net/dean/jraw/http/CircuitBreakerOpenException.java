@@ -0,0 +1,26 @@
+package net.dean.jraw.http;
+
+/**
+ * Thrown instead of sending a request when the {@link CircuitBreaker} of the request's host is open
+ */
+public class CircuitBreakerOpenException extends NetworkException {
+    private final String host;
+
+    /**
+     * Instantiates a new CircuitBreakerOpenException
+     *
+     * @param host The host whose circuit breaker is open
+     */
+    public CircuitBreakerOpenException(String host) {
+        super(String.format("Circuit breaker for %s is open, not sending the request", host));
+        this.host = host;
+    }
+
+    /**
+     * Gets the host whose circuit breaker is open
+     * @return The host
+     */
+    public String getHost() {
+        return host;
+    }
+}
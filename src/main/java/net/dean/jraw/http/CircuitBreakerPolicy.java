@@ -0,0 +1,183 @@
+package net.dean.jraw.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class configures the {@link CircuitBreaker}s a {@link RestClient} creates for each host. A breaker looks at the
+ * outcome of the last {@link Builder#windowSize(int) few requests} sent to its host. A request counts as a failure if
+ * it could not be sent or the server responded with a 5xx status, and as slow if it took longer than the
+ * {@link Builder#slowCallThreshold(long, TimeUnit) slow call threshold}. Once enough requests have been seen and either
+ * the failure rate or the slow call rate reaches its threshold, the breaker opens and requests to that host fail
+ * immediately with a {@link CircuitBreakerOpenException}. After the {@link Builder#openDuration(long, TimeUnit) open
+ * duration} a few probe requests are let through: if they all succeed the breaker closes, and if any one fails it
+ * opens again.
+ *
+ * @see RestClient#setCircuitBreakerPolicy(CircuitBreakerPolicy)
+ */
+public final class CircuitBreakerPolicy {
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThresholdNanos;
+    private final double slowCallRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+
+    private CircuitBreakerPolicy(Builder b) {
+        this.windowSize = b.windowSize;
+        this.minimumCalls = b.minimumCalls;
+        this.failureRateThreshold = b.failureRateThreshold;
+        this.slowCallThresholdNanos = b.slowCallThresholdNanos;
+        this.slowCallRateThreshold = b.slowCallRateThreshold;
+        this.openDurationNanos = b.openDurationNanos;
+        this.halfOpenCalls = b.halfOpenCalls;
+    }
+
+    /** The amount of recent requests taken into account */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /** The amount of requests that must be seen before the breaker can open */
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /** The fraction of failed requests at which the breaker opens */
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /** The duration after which a request is considered slow */
+    public long getSlowCallThreshold(TimeUnit unit) {
+        return unit.convert(slowCallThresholdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** The fraction of slow requests at which the breaker opens */
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /** How long the breaker stays open before letting probe requests through */
+    public long getOpenDuration(TimeUnit unit) {
+        return unit.convert(openDurationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** The amount of probe requests that must succeed for the breaker to close again */
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    /**
+     * This class is responsible for creating new CircuitBreakerPolicies
+     */
+    public static class Builder {
+        private int windowSize;
+        private int minimumCalls;
+        private double failureRateThreshold;
+        private long slowCallThresholdNanos;
+        private double slowCallRateThreshold;
+        private long openDurationNanos;
+        private int halfOpenCalls;
+
+        /**
+         * Instantiates a new Builder. By default, the breaker looks at the last 20 requests (but at least 10), opens
+         * when half of them failed or took longer than 10 seconds, stays open for 30 seconds, and closes again after
+         * 3 successful probes.
+         */
+        public Builder() {
+            this.windowSize = 20;
+            this.minimumCalls = 10;
+            this.failureRateThreshold = 0.5;
+            this.slowCallThresholdNanos = TimeUnit.SECONDS.toNanos(10);
+            this.slowCallRateThreshold = 0.5;
+            this.openDurationNanos = TimeUnit.SECONDS.toNanos(30);
+            this.halfOpenCalls = 3;
+        }
+
+        /**
+         * Sets how many recent requests are taken into account, and how many must be seen before the breaker can open
+         * @param windowSize The amount of recent requests to keep track of
+         * @param minimumCalls The minimum amount of requests. Must be between 1 and windowSize.
+         * @return This Builder
+         */
+        public Builder windowSize(int windowSize, int minimumCalls) {
+            if (minimumCalls < 1 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException("minimumCalls must be between 1 and windowSize");
+            }
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of failed requests at which the breaker opens
+         * @param threshold A value between 0 (exclusive) and 1 (inclusive)
+         * @return This Builder
+         */
+        public Builder failureRateThreshold(double threshold) {
+            this.failureRateThreshold = checkRate(threshold);
+            return this;
+        }
+
+        /**
+         * Sets the duration after which a request is considered slow
+         * @param duration The duration
+         * @param unit The unit of the duration
+         * @return This Builder
+         */
+        public Builder slowCallThreshold(long duration, TimeUnit unit) {
+            this.slowCallThresholdNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the fraction of slow requests at which the breaker opens
+         * @param threshold A value between 0 (exclusive) and 1 (inclusive)
+         * @return This Builder
+         */
+        public Builder slowCallRateThreshold(double threshold) {
+            this.slowCallRateThreshold = checkRate(threshold);
+            return this;
+        }
+
+        /**
+         * Sets how long the breaker stays open before letting probe requests through
+         * @param duration The duration
+         * @param unit The unit of the duration
+         * @return This Builder
+         */
+        public Builder openDuration(long duration, TimeUnit unit) {
+            this.openDurationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the amount of probe requests that must succeed for the breaker to close again
+         * @param calls The amount of probe requests. Must be at least 1.
+         * @return This Builder
+         */
+        public Builder halfOpenCalls(int calls) {
+            if (calls < 1) {
+                throw new IllegalArgumentException("calls must be at least 1");
+            }
+            this.halfOpenCalls = calls;
+            return this;
+        }
+
+        private static double checkRate(double rate) {
+            if (rate <= 0 || rate > 1) {
+                throw new IllegalArgumentException("Rate must be greater than 0 and at most 1");
+            }
+            return rate;
+        }
+
+        /**
+         * Builds this Builder into a new CircuitBreakerPolicy
+         * @return A new CircuitBreakerPolicy
+         */
+        public CircuitBreakerPolicy build() {
+            return new CircuitBreakerPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package net.dean.jraw.http;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class sends requests at a steady, fixed rate regardless of what the server reports. This is the policy created
+ * by {@link RestClient#setEnforceRatelimit(int)}.
+ */
+public class FixedRateLimitPolicy implements RateLimitPolicy {
+    private final RateLimiter rateLimiter;
+    private final int requestsPerMinute;
+    /** Permits given back by {@link #refund()} that can be spent without waiting */
+    private final AtomicInteger credits;
+
+    /**
+     * Instantiates a new FixedRateLimitPolicy
+     *
+     * @param requestsPerMinute The amount of HTTP requests that can be sent in one minute. Must be greater than 0.
+     */
+    public FixedRateLimitPolicy(int requestsPerMinute) {
+        if (requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("Requests per minute must be greater than 0");
+        }
+        this.requestsPerMinute = requestsPerMinute;
+        this.rateLimiter = RateLimiter.create((double) requestsPerMinute / 60);
+        this.credits = new AtomicInteger();
+    }
+
+    @Override
+    public double acquire() {
+        int available;
+        while ((available = credits.get()) > 0) {
+            if (credits.compareAndSet(available, available - 1)) {
+                return 0;
+            }
+        }
+        if (rateLimiter.tryAcquire()) {
+            return 0;
+        }
+        return rateLimiter.acquire();
+    }
+
+    @Override
+    public void onResponse(RestResponse response) {
+        // Fixed rate, nothing to adapt to
+    }
+
+    @Override
+    public void refund() {
+        // Never bank more than a minute's worth of requests
+        int available;
+        do {
+            available = credits.get();
+        } while (available < requestsPerMinute && !credits.compareAndSet(available, available + 1));
+    }
+
+    /**
+     * Gets the amount of requests that can be sent in one minute
+     * @return The amount of requests per minute
+     */
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+}
@@ -0,0 +1,209 @@
+package net.dean.jraw.http;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.dean.jraw.JrawUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class adapts to the rate limit headers that Reddit sends with every response:
+ *
+ * <ul>
+ *     <li>{@code X-Ratelimit-Used}: Approximate number of requests used in this period
+ *     <li>{@code X-Ratelimit-Remaining}: Approximate number of requests left to use
+ *     <li>{@code X-Ratelimit-Reset}: Approximate number of seconds to end of period
+ * </ul>
+ *
+ * <p>While plenty of the budget remains, requests are sent immediately. Once less than a certain fraction of the window
+ * is left (see {@link #HeaderRateLimitPolicy(int, double, Ticker)}), the remaining requests are spread out evenly
+ * until the window resets. If the budget is used up or the server responds with {@code 429 Too Many Requests}, no more
+ * requests are sent until the window resets. Until the first headers are received (and after every reset), requests
+ * are sent at the fixed rate given in the constructor.
+ */
+public class HeaderRateLimitPolicy implements RateLimitPolicy {
+    /** The name of the header that contains the approximate number of requests used in this period */
+    public static final String HEADER_USED = "X-Ratelimit-Used";
+    /** The name of the header that contains the approximate number of requests left to use */
+    public static final String HEADER_REMAINING = "X-Ratelimit-Remaining";
+    /** The name of the header that contains the approximate number of seconds to the end of the period */
+    public static final String HEADER_RESET = "X-Ratelimit-Reset";
+    /** The default fraction of the window below which requests will be spread out instead of sent immediately */
+    public static final double DEFAULT_BURST_RESERVE = 0.1;
+    /** How long to stop sending requests after a 429 without a reset header */
+    private static final long DEFAULT_BLOCK_NANOS = TimeUnit.SECONDS.toNanos(60);
+    /** The difference in reset times that indicates that a new window has started */
+    private static final long NEW_WINDOW_TOLERANCE_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+
+    private final FixedRateLimitPolicy fallback;
+    private final double burstReserve;
+    private final Ticker ticker;
+
+    // All of the following fields are guarded by 'this'
+    /** Whether the fields below reflect the current window */
+    private boolean known;
+    private double remaining;
+    private double windowSize;
+    /** The time at which the current window resets */
+    private long resetAt;
+    /** The earliest time the next request can be sent while spreading out the remaining budget */
+    private long nextFree;
+    /** The time until which no requests may be sent at all */
+    private long blockedUntil;
+
+    /**
+     * Instantiates a new HeaderRateLimitPolicy
+     *
+     * @param requestsPerMinute The fixed rate to use before any rate limit headers have been received
+     */
+    public HeaderRateLimitPolicy(int requestsPerMinute) {
+        this(requestsPerMinute, DEFAULT_BURST_RESERVE, Ticker.systemTicker());
+    }
+
+    /**
+     * Instantiates a new HeaderRateLimitPolicy
+     *
+     * @param requestsPerMinute The fixed rate to use before any rate limit headers have been received
+     * @param burstReserve The fraction (between 0 and 1) of the window below which the remaining requests will be
+     *                     spread out evenly until the window resets. Above this fraction, requests are sent immediately.
+     * @param ticker The time source to use
+     */
+    public HeaderRateLimitPolicy(int requestsPerMinute, double burstReserve, Ticker ticker) {
+        if (burstReserve < 0 || burstReserve > 1) {
+            throw new IllegalArgumentException("Burst reserve must be between 0 and 1");
+        }
+        this.fallback = new FixedRateLimitPolicy(requestsPerMinute);
+        this.burstReserve = burstReserve;
+        this.ticker = ticker;
+        this.known = false;
+    }
+
+    @Override
+    public double acquire() {
+        long now;
+        long waitUntil = 0;
+        boolean useFallback = false;
+        synchronized (this) {
+            now = ticker.read();
+            if (known && now - resetAt >= 0) {
+                // The window has been reset, the data we have is stale
+                known = false;
+            }
+
+            if (now - blockedUntil < 0) {
+                waitUntil = blockedUntil;
+            } else if (!known) {
+                useFallback = true;
+            } else if (remaining < 1) {
+                // Nothing left, wait for the next window
+                waitUntil = resetAt;
+            } else if (remaining > windowSize * burstReserve) {
+                // Plenty left, spend it
+                waitUntil = now;
+            } else {
+                // Running low, spread out what is left over the time left in this window
+                long interval = (long) ((resetAt - now) / remaining);
+                waitUntil = Math.max(now, nextFree);
+                nextFree = waitUntil + interval;
+            }
+
+            if (known) {
+                remaining--;
+            }
+        }
+
+        if (useFallback) {
+            return fallback.acquire();
+        }
+
+        long nanos = waitUntil - now;
+        if (nanos > 0) {
+            sleep(nanos);
+            return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+        }
+        return 0;
+    }
+
+    @Override
+    public void onResponse(RestResponse response) {
+        long now = ticker.read();
+        Double used = parse(response, HEADER_USED);
+        Double headerRemaining = parse(response, HEADER_REMAINING);
+        Double reset = parse(response, HEADER_RESET);
+        boolean tooManyRequests = response.getStatusCode() == STATUS_TOO_MANY_REQUESTS;
+
+        synchronized (this) {
+            if (tooManyRequests) {
+                blockedUntil = now + (reset != null ? toNanos(reset) : DEFAULT_BLOCK_NANOS);
+                JrawUtils.logger().warn("Rate limit exceeded, no more requests will be sent for {} seconds",
+                        (blockedUntil - now) / TimeUnit.SECONDS.toNanos(1));
+            }
+
+            if (headerRemaining == null || reset == null) {
+                return;
+            }
+
+            long newResetAt = now + toNanos(reset);
+            if (!known || newResetAt - resetAt > NEW_WINDOW_TOLERANCE_NANOS) {
+                // First data for this window
+                remaining = headerRemaining;
+                nextFree = now;
+            } else {
+                // Requests that are still in flight have already been subtracted locally
+                remaining = Math.min(remaining, headerRemaining);
+            }
+            if (tooManyRequests) {
+                remaining = 0;
+            }
+
+            windowSize = used != null ? used + headerRemaining : Math.max(windowSize, headerRemaining);
+            resetAt = newResetAt;
+            known = true;
+        }
+    }
+
+    @Override
+    public void refund() {
+        synchronized (this) {
+            if (known) {
+                // Reddit still counted the request, and the headers of the response already told us so
+                return;
+            }
+        }
+        fallback.refund();
+    }
+
+    /**
+     * Gets the approximate number of requests that can still be sent in the current window, or -1 if that is unknown
+     * @return The approximate number of requests left
+     */
+    public synchronized double getRemaining() {
+        return known ? Math.max(remaining, 0) : -1;
+    }
+
+    /**
+     * Blocks the calling thread for the given amount of time
+     * @param nanos The amount of time to sleep in nanoseconds
+     */
+    protected void sleep(long nanos) {
+        Uninterruptibles.sleepUninterruptibly(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static long toNanos(double seconds) {
+        return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static Double parse(RestResponse response, String header) {
+        String value = response.getHeader(header);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            JrawUtils.logger().warn("Invalid value for header {}: \"{}\"", header, value);
+            return null;
+        }
+    }
+}
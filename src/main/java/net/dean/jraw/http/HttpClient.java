@@ -1,5 +1,7 @@
 package net.dean.jraw.http;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 /**
  * This interface provides a way to mark classes that can make HTTP requests
  * @param <U> The type of response returned by the RestClient
@@ -22,6 +24,15 @@ public interface HttpClient<U extends RestResponse> {
      */
     public U execute(RestRequest r) throws NetworkException;
 
+    /**
+     * Executes an HTTP request without blocking the calling thread
+     *
+     * @param r The request to execute
+     * @return A future which will contain the RestResponse from the resulting request. If the request was not
+     *         successful, the future will fail with a NetworkException.
+     */
+    public ListenableFuture<U> executeAsync(RestRequest r);
+
     /**
      * Executes an HTTP request with basic authentication. See <a href="http://tools.ietf.org/html/rfc2617">RFC 2617</a>
      * for more information.
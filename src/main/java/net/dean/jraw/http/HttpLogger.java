@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static net.dean.jraw.http.HttpLogger.Component.*;
 
@@ -19,8 +20,10 @@ public class HttpLogger {
     private static final String INDENT = "    ";
     private static final String ELLIPSIS = "...";
     private static final int RESPONSE_BODY_CUTOFF = 100 - ELLIPSIS.length();
+    /** Headers whose values are never logged since they contain credentials */
+    private static final String[] SENSITIVE_HEADERS = {"Authorization", "Proxy-Authorization", "Cookie"};
     private final Logger l;
-    private Map<Component, Boolean> components;
+    private final Map<Component, Boolean> components;
 
     /**
      * Instantiates a new HttpLogger
@@ -28,7 +31,7 @@ public class HttpLogger {
      */
     public HttpLogger(Logger logger) {
         this.l = logger;
-        this.components = new HashMap<>();
+        this.components = new ConcurrentHashMap<>();
         for (Component c : Component.values()) {
             components.put(c, true);
         }
@@ -74,7 +77,7 @@ public class HttpLogger {
     private boolean contains(String str, String[] arr) {
         if (arr == null || arr.length == 0) return false;
         for (String str2 : arr) {
-            if (str.equals(str2)) {
+            if (str.equalsIgnoreCase(str2)) {
                 return true;
             }
         }
@@ -125,6 +128,8 @@ public class HttpLogger {
      * }</pre>
      *
      * Where {@code $requestDescriptor} is the combination of the HTTP method and URL (ex: "POST http://www.example.com").
+     * The values of sensitive form arguments and of headers that carry credentials, such as Authorization and Cookie,
+     * are replaced with "&lt;sensitive&gt;".
      * @param r The request to log
      */
     public void log(RestRequest r) {
@@ -142,7 +147,7 @@ public class HttpLogger {
                     map.put(key, r.getOkHttpRequest().headers().get(key));
                 }
 
-                logMap("headers", map, null);
+                logMap("headers", map, SENSITIVE_HEADERS);
             }
         }
     }
@@ -0,0 +1,185 @@
+package net.dean.jraw.http;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.RequestBody;
+import okio.Buffer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * An immutable HTTP request as it is handed to an {@link HttpTransport}. Unlike {@link RestRequest}, this class only
+ * holds what goes over the wire, and it does not depend on any particular HTTP library.
+ *
+ * <p>Requests created by {@link RestClient} wrap the OkHttp request they were built from. Their headers and body are
+ * only copied out of it the first time they are asked for, so {@link OkHttpTransport} can send the OkHttp request as it
+ * is without converting it twice.
+ */
+public final class HttpRequest {
+    private final String method;
+    private final String url;
+    /** The OkHttp request this one wraps, or null if it was created by the public constructor */
+    private final Request okHttp;
+    /** The headers and body. Copied out of 'okHttp' once needed if this request wraps one. */
+    private volatile Contents contents;
+
+    /**
+     * Instantiates a new HttpRequest
+     *
+     * @param method The HTTP method, such as "GET" or "POST"
+     * @param url The absolute URL
+     * @param headers The headers, in the order they will be sent
+     * @param contentType The Content-Type of the body, or null if there is no body
+     * @param body The body, or null if there is none. Not copied, so it must not be modified afterwards.
+     */
+    public HttpRequest(String method, String url, ImmutableListMultimap<String, String> headers, String contentType,
+                       byte[] body) {
+        this.method = method;
+        this.url = url;
+        this.okHttp = null;
+        this.contents = new Contents(headers, contentType, body);
+    }
+
+    private HttpRequest(Request okHttp) {
+        this.method = okHttp.method();
+        this.url = okHttp.urlString();
+        this.okHttp = okHttp;
+    }
+
+    /** Wraps an OkHttp request after adding the given headers to it, without reading its body */
+    static HttpRequest from(Request r, Map<String, ? extends Iterable<String>> extraHeaders) {
+        Request.Builder b = null;
+        for (Map.Entry<String, ? extends Iterable<String>> header : extraHeaders.entrySet()) {
+            for (String value : header.getValue()) {
+                if (b == null) {
+                    b = r.newBuilder();
+                }
+                b.addHeader(header.getKey(), value);
+            }
+        }
+        return new HttpRequest(b != null ? b.build() : r);
+    }
+
+    /** Gets the wrapped OkHttp request, or creates an equivalent one if this request does not wrap one */
+    Request toOkHttp() {
+        if (okHttp != null) {
+            return okHttp;
+        }
+        Request.Builder b = new Request.Builder().url(url);
+        for (Map.Entry<String, String> header : getHeaders().entries()) {
+            b.addHeader(header.getKey(), header.getValue());
+        }
+        RequestBody requestBody = null;
+        byte[] body = getBody();
+        if (body != null) {
+            String contentType = getContentType();
+            requestBody = RequestBody.create(contentType != null ? MediaType.parse(contentType) : null, body);
+        }
+        return b.method(method, requestBody).build();
+    }
+
+    private Contents contents() {
+        Contents contents = this.contents;
+        if (contents == null) {
+            // Only happens for requests that wrap an OkHttp request. Copying twice in a race does no harm.
+            ImmutableListMultimap.Builder<String, String> headers = ImmutableListMultimap.builder();
+            for (int i = 0; i < okHttp.headers().size(); i++) {
+                headers.put(okHttp.headers().name(i), okHttp.headers().value(i));
+            }
+
+            RequestBody requestBody = okHttp.body();
+            String contentType = null;
+            byte[] body = null;
+            if (requestBody != null) {
+                Buffer buffer = new Buffer();
+                try {
+                    requestBody.writeTo(buffer);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not read the body of " + this, e);
+                }
+                body = buffer.readByteArray();
+                contentType = requestBody.contentType() != null ? requestBody.contentType().toString() : null;
+            }
+            contents = new Contents(headers.build(), contentType, body);
+            this.contents = contents;
+        }
+        return contents;
+    }
+
+    /**
+     * Gets the HTTP method
+     * @return The method, such as "GET" or "POST"
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the URL this request will be sent to
+     * @return The absolute URL
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the headers of this request, not including Content-Type and Content-Length
+     * @return The headers in the order they will be sent
+     */
+    public ImmutableListMultimap<String, String> getHeaders() {
+        return contents().headers;
+    }
+
+    /**
+     * Gets the first value of a header, ignoring the case of its name
+     * @param name The name of the header
+     * @return The value of the header, or null if there is none
+     */
+    public String getHeader(String name) {
+        if (okHttp != null) {
+            return okHttp.header(name);
+        }
+        for (Map.Entry<String, String> header : getHeaders().entries()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the Content-Type of the body
+     * @return The Content-Type, or null if there is no body
+     */
+    public String getContentType() {
+        return contents().contentType;
+    }
+
+    /**
+     * Gets the body of this request. The array must not be modified.
+     * @return The body, or null if there is none
+     * @throws IllegalStateException If the body of the wrapped OkHttp request could not be read
+     */
+    public byte[] getBody() {
+        return contents().body;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+
+    private static final class Contents {
+        private final ImmutableListMultimap<String, String> headers;
+        private final String contentType;
+        private final byte[] body;
+
+        private Contents(ImmutableListMultimap<String, String> headers, String contentType, byte[] body) {
+            this.headers = headers;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
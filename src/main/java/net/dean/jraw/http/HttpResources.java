@@ -0,0 +1,292 @@
+package net.dean.jraw.http;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.dean.jraw.JrawUtils;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parts of a {@link RestClient} that do not belong to any one user: the transport with its connection pool and
+ * timeout, the logger, request and circuit breaker listeners, circuit breakers and the threads used for asynchronous
+ * retries.
+ *
+ * <p>An application that acts on behalf of many users should create one instance of this class and pass it to a
+ * client for every user. Each of those clients then only keeps its own access token, modhash, cookies and rate limit,
+ * while connections, threads and circuit breakers are shared by all of them. This class is thread-safe.
+ */
+public final class HttpResources {
+    private final HttpTransport transport;
+    private final HttpLogger logger;
+    final RequestListeners requestListeners;
+    private final BreakerListeners breakerListeners;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers;
+    private volatile CircuitBreakerPolicy circuitBreakerPolicy;
+    /** Waits out the backoff of asynchronous retries. Created on first use. */
+    private ScheduledExecutorService retryTimer;
+    /** Serves asynchronous requests from a TrafficReplayer. Created on first use. */
+    private ExecutorService replayThreads;
+
+    /** Instantiates a new HttpResources that sends requests with a new {@link OkHttpTransport} */
+    public HttpResources() {
+        this(new OkHttpTransport());
+    }
+
+    /**
+     * Instantiates a new HttpResources
+     * @param transport Sends the HTTP requests of every client created with these resources
+     */
+    public HttpResources(HttpTransport transport) {
+        this.transport = transport;
+        this.logger = new HttpLogger(JrawUtils.logger());
+        this.requestListeners = new RequestListeners();
+        this.breakerListeners = new BreakerListeners();
+        this.circuitBreakers = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the transport requests are sent with
+     * @return The transport
+     */
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Sets how long the transport waits for a connection to be established
+     * @param timeout The timeout, or 0 to wait indefinitely
+     * @param unit The unit of the timeout
+     * @see RestClient#setTimeoutLength(long)
+     */
+    public void setConnectTimeout(long timeout, TimeUnit unit) {
+        transport.setConnectTimeout(timeout, unit);
+    }
+
+    /**
+     * Gets how long the transport waits for a connection to be established
+     * @param unit The unit to return the timeout in
+     * @return The timeout, or 0 if there is none
+     */
+    public long getConnectTimeout(TimeUnit unit) {
+        return transport.getConnectTimeout(unit);
+    }
+
+    /**
+     * Gets the logger requests and responses are logged with
+     * @return The logger
+     */
+    public HttpLogger getHttpLogger() {
+        return logger;
+    }
+
+    /**
+     * Sets the policy used to create a {@link CircuitBreaker} for every host. Setting a new policy resets all breakers.
+     * @param circuitBreakerPolicy The new policy, or null to disable circuit breakers
+     * @see RestClient#setCircuitBreakerPolicy(CircuitBreakerPolicy)
+     */
+    public void setCircuitBreakerPolicy(CircuitBreakerPolicy circuitBreakerPolicy) {
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+        circuitBreakers.clear();
+    }
+
+    /**
+     * Gets the policy used to create circuit breakers
+     * @return The current policy, or null if circuit breakers are disabled
+     */
+    public CircuitBreakerPolicy getCircuitBreakerPolicy() {
+        return circuitBreakerPolicy;
+    }
+
+    /**
+     * Gets the circuit breaker of the given host
+     * @param host The host, including the port if it is not the default one. For example, "www.reddit.com".
+     * @return The host's circuit breaker, or null if no request has been sent to it since the policy was set
+     */
+    public CircuitBreaker getCircuitBreaker(String host) {
+        return circuitBreakers.get(host);
+    }
+
+    /** Gets or creates the circuit breaker of the given host, or returns null if circuit breakers are disabled */
+    CircuitBreaker circuitBreaker(String host) {
+        CircuitBreakerPolicy policy = circuitBreakerPolicy;
+        if (policy == null)
+            return null;
+
+        CircuitBreaker breaker = circuitBreakers.get(host);
+        if (breaker == null) {
+            CircuitBreaker created = new CircuitBreaker(host, policy, Ticker.systemTicker(), breakerListeners);
+            breaker = circuitBreakers.putIfAbsent(host, created);
+            if (breaker == null)
+                breaker = created;
+        }
+        return breaker;
+    }
+
+    /**
+     * Adds a listener that will be notified whenever the circuit breaker of any host changes state
+     * @param listener The listener to add
+     */
+    public void addCircuitBreakerListener(CircuitBreakerListener listener) {
+        breakerListeners.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addCircuitBreakerListener(CircuitBreakerListener)}
+     * @param listener The listener to remove
+     */
+    public void removeCircuitBreakerListener(CircuitBreakerListener listener) {
+        breakerListeners.listeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener that will be notified about the lifecycle of every request sent by a client using these resources
+     * @param listener The listener to add
+     */
+    public void addRequestListener(RequestListener listener) {
+        requestListeners.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addRequestListener(RequestListener)}
+     * @param listener The listener to remove
+     */
+    public void removeRequestListener(RequestListener listener) {
+        requestListeners.listeners.remove(listener);
+    }
+
+    synchronized ScheduledExecutorService retryTimer() {
+        if (retryTimer == null) {
+            retryTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("jraw-retry-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return retryTimer;
+    }
+
+    synchronized ExecutorService replayThreads() {
+        if (replayThreads == null) {
+            replayThreads = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setNameFormat("jraw-replay-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return replayThreads;
+    }
+
+    /** Passes state changes on to every registered CircuitBreakerListener */
+    static final class BreakerListeners implements CircuitBreakerListener {
+        private final List<CircuitBreakerListener> listeners = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onStateChange(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+            for (CircuitBreakerListener listener : listeners) {
+                listener.onStateChange(breaker, from, to);
+            }
+        }
+    }
+
+    /** Passes events on to every registered RequestListener, logging any exception they throw */
+    static final class RequestListeners implements RequestListener {
+        private final List<RequestListener> listeners = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onQueued(RestRequest request) {
+            for (RequestListener listener : listeners) {
+                try {
+                    listener.onQueued(request);
+                } catch (RuntimeException e) {
+                    logListenerError(e);
+                }
+            }
+        }
+
+        @Override
+        public void onRateLimitWait(RestRequest request, long waitNanos) {
+            for (RequestListener listener : listeners) {
+                try {
+                    listener.onRateLimitWait(request, waitNanos);
+                } catch (RuntimeException e) {
+                    logListenerError(e);
+                }
+            }
+        }
+
+        @Override
+        public void onSent(RestRequest request, int attempt) {
+            for (RequestListener listener : listeners) {
+                try {
+                    listener.onSent(request, attempt);
+                } catch (RuntimeException e) {
+                    logListenerError(e);
+                }
+            }
+        }
+
+        @Override
+        public void onFirstByte(RestRequest request, long latencyNanos) {
+            for (RequestListener listener : listeners) {
+                try {
+                    listener.onFirstByte(request, latencyNanos);
+                } catch (RuntimeException e) {
+                    logListenerError(e);
+                }
+            }
+        }
+
+        @Override
+        public void onBodyRead(RestRequest request, long readNanos) {
+            for (RequestListener listener : listeners) {
+                try {
+                    listener.onBodyRead(request, readNanos);
+                } catch (RuntimeException e) {
+                    logListenerError(e);
+                }
+            }
+        }
+
+        @Override
+        public void onJsonParsed(RestRequest request, long parseNanos) {
+            for (RequestListener listener : listeners) {
+                try {
+                    listener.onJsonParsed(request, parseNanos);
+                } catch (RuntimeException e) {
+                    logListenerError(e);
+                }
+            }
+        }
+
+        @Override
+        public void onCompleted(RestRequest request, RestResponse response, long totalNanos) {
+            for (RequestListener listener : listeners) {
+                try {
+                    listener.onCompleted(request, response, totalNanos);
+                } catch (RuntimeException e) {
+                    logListenerError(e);
+                }
+            }
+        }
+
+        @Override
+        public void onFailed(RestRequest request, NetworkException e, long totalNanos) {
+            for (RequestListener listener : listeners) {
+                try {
+                    listener.onFailed(request, e, totalNanos);
+                } catch (RuntimeException re) {
+                    logListenerError(re);
+                }
+            }
+        }
+
+        private static void logListenerError(RuntimeException e) {
+            JrawUtils.logger().error("RequestListener threw an exception", e);
+        }
+    }
+}
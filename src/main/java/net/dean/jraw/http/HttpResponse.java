@@ -0,0 +1,181 @@
+package net.dean.jraw.http;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.squareup.okhttp.Headers;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+import okio.Okio;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * An HTTP response as it is returned by an {@link HttpTransport}. The body is a stream that has not been read yet, so
+ * the response must be closed once it is no longer needed. Like {@link HttpRequest}, this class does not depend on any
+ * particular HTTP library.
+ *
+ * <p>Responses returned by {@link OkHttpTransport} wrap the OkHttp response, which {@link RestClient} then uses as it
+ * is. Their headers are only copied out of it the first time they are asked for.
+ */
+public final class HttpResponse implements Closeable {
+    private final int code;
+    private final String message;
+    private final String protocol;
+    private final InputStream body;
+    private final long contentLength;
+    /** The OkHttp response this one wraps, or null if it was created by the public constructor */
+    private final Response okHttp;
+    /** Copied out of 'okHttp' once needed if this response wraps one */
+    private volatile ImmutableListMultimap<String, String> headers;
+
+    /**
+     * Instantiates a new HttpResponse
+     *
+     * @param code The status code
+     * @param message The status message, or null if there was none
+     * @param protocol The protocol the response was received with, such as "http/1.1" or "h2"
+     * @param headers The headers, in the order they were received
+     * @param body The body, or null if there is none
+     * @param contentLength The length of the body in bytes, or -1 if it is unknown
+     */
+    public HttpResponse(int code, String message, String protocol, ImmutableListMultimap<String, String> headers,
+                        InputStream body, long contentLength) {
+        this.code = code;
+        this.message = message;
+        this.protocol = protocol;
+        this.headers = headers;
+        this.body = body != null ? body : new ByteArrayInputStream(new byte[0]);
+        this.contentLength = body != null ? contentLength : 0;
+        this.okHttp = null;
+    }
+
+    private HttpResponse(Response okHttp) {
+        ResponseBody body = okHttp.body();
+        this.code = okHttp.code();
+        this.message = okHttp.message();
+        this.protocol = okHttp.protocol().toString();
+        this.body = body != null ? body.byteStream() : new ByteArrayInputStream(new byte[0]);
+        this.contentLength = body != null ? body.contentLength() : 0;
+        this.okHttp = okHttp;
+    }
+
+    /** Wraps an OkHttp response without reading its body */
+    static HttpResponse from(Response response) {
+        return new HttpResponse(response);
+    }
+
+    /**
+     * Gets the wrapped OkHttp response, or creates one for the given request whose body reads from this response if
+     * this response does not wrap one
+     */
+    Response toOkHttp(Request request) {
+        if (okHttp != null) {
+            return okHttp;
+        }
+        Headers.Builder okHeaders = new Headers.Builder();
+        for (Map.Entry<String, String> header : headers.entries()) {
+            okHeaders.add(header.getKey(), header.getValue());
+        }
+        Protocol okProtocol;
+        try {
+            okProtocol = Protocol.get(protocol);
+        } catch (IOException | RuntimeException e) {
+            okProtocol = Protocol.HTTP_1_1;
+        }
+
+        return new Response.Builder()
+                .request(request)
+                .protocol(okProtocol)
+                .code(code)
+                .message(message)
+                .headers(okHeaders.build())
+                .body(new BufferedResponseBody(getHeader("Content-Type"), contentLength,
+                        Okio.buffer(Okio.source(body))))
+                .build();
+    }
+
+    /**
+     * Gets the status code
+     * @return The status code, such as 200
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the status message
+     * @return The status message, such as "OK", or null if there was none
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the protocol this response was received with
+     * @return The protocol, such as "http/1.1" or "h2"
+     */
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Gets the headers of this response
+     * @return The headers in the order they were received
+     */
+    public ImmutableListMultimap<String, String> getHeaders() {
+        ImmutableListMultimap<String, String> headers = this.headers;
+        if (headers == null) {
+            // Only happens for responses that wrap an OkHttp response. Copying twice in a race does no harm.
+            ImmutableListMultimap.Builder<String, String> builder = ImmutableListMultimap.builder();
+            for (int i = 0; i < okHttp.headers().size(); i++) {
+                builder.put(okHttp.headers().name(i), okHttp.headers().value(i));
+            }
+            headers = builder.build();
+            this.headers = headers;
+        }
+        return headers;
+    }
+
+    /**
+     * Gets the first value of a header, ignoring the case of its name
+     * @param name The name of the header
+     * @return The value of the header, or null if there is none
+     */
+    public String getHeader(String name) {
+        if (okHttp != null) {
+            return okHttp.header(name);
+        }
+        for (Map.Entry<String, String> header : headers.entries()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the body of this response. It can only be read once.
+     * @return The body, which is empty if the response had none
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Gets the length of the body
+     * @return The length in bytes, or -1 if it is unknown
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
@@ -0,0 +1,48 @@
+package net.dean.jraw.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends HTTP requests for a {@link RestClient}. Everything above the network, such as rate limiting, retries, caching
+ * and cookies, is handled by the RestClient, so a transport only has to move bytes. Implementations must be
+ * thread-safe, and one transport may be shared by any number of clients.
+ *
+ * @see OkHttpTransport
+ * @see UrlConnectionTransport
+ */
+public interface HttpTransport {
+    /**
+     * Sends a request and waits for the response headers
+     *
+     * @param request The request to send
+     * @return The response, whose body has not been read yet
+     * @throws IOException If the request could not be sent or no response was received
+     */
+    public HttpResponse execute(HttpRequest request) throws IOException;
+
+    /**
+     * Sends a request without blocking the calling thread. Cancelling the returned future should cancel the request if
+     * it has not completed yet.
+     *
+     * @param request The request to send
+     * @return A future that will either contain the response or fail with an {@link IOException}
+     */
+    public ListenableFuture<HttpResponse> executeAsync(HttpRequest request);
+
+    /**
+     * Sets how long to wait for a connection to be established
+     * @param timeout The timeout, or 0 to wait indefinitely
+     * @param unit The unit of the timeout
+     */
+    public void setConnectTimeout(long timeout, TimeUnit unit);
+
+    /**
+     * Gets how long to wait for a connection to be established
+     * @param unit The unit to return the timeout in
+     * @return The timeout, or 0 if there is none
+     */
+    public long getConnectTimeout(TimeUnit unit);
+}
@@ -0,0 +1,138 @@
+package net.dean.jraw.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations. Like an HdrHistogram, values are counted in buckets whose width grows with their
+ * magnitude: every power of two is split into {@value #SUB_BUCKETS} linear buckets, so any recorded value can be
+ * reported with a relative error of about 3%, from a nanosecond up to several centuries, using a fixed amount of
+ * memory.
+ *
+ * <p>Recording a value only performs a few atomic increments, so a single histogram can be shared by many threads.
+ * Reads are not atomic with respect to concurrent writes, which may cause values recorded at the same time to be
+ * reflected in some statistics but not in others.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Enough buckets for every positive long */
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count;
+    private final AtomicLong sum;
+    private final AtomicLong max;
+
+    /** Instantiates a new, empty LatencyHistogram */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new AtomicLong();
+        this.sum = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a duration
+     * @param nanos The duration in nanoseconds. Negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+
+        long current;
+        while (nanos > (current = max.get())) {
+            if (max.compareAndSet(current, nanos))
+                break;
+        }
+    }
+
+    /**
+     * Gets the amount of recorded values
+     * @return The amount of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Gets the largest recorded value
+     * @param unit The unit of the returned value
+     * @return The largest value, or 0 if nothing has been recorded
+     */
+    public long getMax(TimeUnit unit) {
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the mean of all recorded values
+     * @param unit The unit of the returned value
+     * @return The mean, or 0 if nothing has been recorded
+     */
+    public double getMean(TimeUnit unit) {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n / unit.toNanos(1);
+    }
+
+    /**
+     * Gets the value below which the given percentage of recorded values fall. The result is the highest value that
+     * falls into the same bucket as the actual percentile, so it may overestimate it by about 3%.
+     *
+     * @param percentile The percentile, between 0 and 100. For example, 99 for the 99th percentile.
+     * @param unit The unit of the returned value
+     * @return The value at the given percentile, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+
+        long total = count.get();
+        if (total == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                // Never report more than was actually recorded
+                return unit.convert(Math.min(highestValueIn(i), max.get()), TimeUnit.NANOSECONDS);
+            }
+        }
+        // Values recorded while iterating
+        return getMax(unit);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        // (value >>> shift) is in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long sub = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long highest = ((sub + 1) << shift) - 1;
+        // The last bucket ends at Long.MAX_VALUE
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram {" +
+                "count=" + getCount() +
+                ", mean=" + getMean(TimeUnit.MILLISECONDS) + "ms" +
+                ", p50=" + getPercentile(50, TimeUnit.MILLISECONDS) + "ms" +
+                ", p99=" + getPercentile(99, TimeUnit.MILLISECONDS) + "ms" +
+                ", max=" + getMax(TimeUnit.MILLISECONDS) + "ms" +
+                '}';
+    }
+}
@@ -0,0 +1,116 @@
+package net.dean.jraw.http;
+
+import net.dean.jraw.Endpoints;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A RequestListener that keeps a {@link LatencyHistogram} for every phase of every {@link Endpoints endpoint}. This
+ * shows where the time of a request is spent: waiting for the rate limit, on the network, or reading and parsing the
+ * response. Requests that were not created from an endpoint (see {@link RestRequest#getEndpoint()}) are recorded
+ * together under a null endpoint.
+ *
+ * <p>Histograms are created the first time they are needed, and recording a value never takes a lock.
+ *
+ * @see RestClient#addRequestListener(RequestListener)
+ */
+public class LatencyRecorder extends RequestListener.Adapter {
+    /** The phases of a request that are measured */
+    public static enum Phase {
+        /** Waiting in the {@link RequestScheduler}. Recorded once per attempt. */
+        RATE_LIMIT,
+        /** From sending the request until its headers are received. Recorded once per attempt. */
+        FIRST_BYTE,
+        /** Reading the body of the response into memory */
+        BODY_READ,
+        /** Parsing the body into JsonNodes */
+        JSON_PARSE,
+        /** The total time of requests that completed successfully */
+        COMPLETED,
+        /** The total time of requests that failed */
+        FAILED
+    }
+
+    private static final int ENDPOINTS = Endpoints.values().length;
+    private static final int PHASES = Phase.values().length;
+
+    /** Indexed by {@link #indexOf(Endpoints, Phase)} */
+    private final AtomicReferenceArray<LatencyHistogram> histograms;
+
+    /** Instantiates a new LatencyRecorder */
+    public LatencyRecorder() {
+        // One extra row for requests without an endpoint
+        this.histograms = new AtomicReferenceArray<>((ENDPOINTS + 1) * PHASES);
+    }
+
+    @Override
+    public void onRateLimitWait(RestRequest request, long waitNanos) {
+        record(request, Phase.RATE_LIMIT, waitNanos);
+    }
+
+    @Override
+    public void onFirstByte(RestRequest request, long latencyNanos) {
+        record(request, Phase.FIRST_BYTE, latencyNanos);
+    }
+
+    @Override
+    public void onBodyRead(RestRequest request, long readNanos) {
+        record(request, Phase.BODY_READ, readNanos);
+    }
+
+    @Override
+    public void onJsonParsed(RestRequest request, long parseNanos) {
+        record(request, Phase.JSON_PARSE, parseNanos);
+    }
+
+    @Override
+    public void onCompleted(RestRequest request, RestResponse response, long totalNanos) {
+        record(request, Phase.COMPLETED, totalNanos);
+    }
+
+    @Override
+    public void onFailed(RestRequest request, NetworkException e, long totalNanos) {
+        record(request, Phase.FAILED, totalNanos);
+    }
+
+    private void record(RestRequest request, Phase phase, long nanos) {
+        getHistogram(request.getEndpoint(), phase).record(nanos);
+    }
+
+    /**
+     * Gets the histogram of a phase of an endpoint
+     *
+     * @param endpoint The endpoint, or null for requests that were not created from an endpoint
+     * @param phase The phase of the request
+     * @return The histogram, which is empty if nothing has been recorded yet
+     */
+    public LatencyHistogram getHistogram(Endpoints endpoint, Phase phase) {
+        int index = indexOf(endpoint, phase);
+        LatencyHistogram histogram = histograms.get(index);
+        if (histogram == null) {
+            histograms.compareAndSet(index, null, new LatencyHistogram());
+            histogram = histograms.get(index);
+        }
+        return histogram;
+    }
+
+    /**
+     * Gets the histograms of every phase of an endpoint
+     * @param endpoint The endpoint, or null for requests that were not created from an endpoint
+     * @return A map of phases to their histograms
+     */
+    public Map<Phase, LatencyHistogram> getHistograms(Endpoints endpoint) {
+        Map<Phase, LatencyHistogram> map = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            map.put(phase, getHistogram(endpoint, phase));
+        }
+        return map;
+    }
+
+    private static int indexOf(Endpoints endpoint, Phase phase) {
+        int row = endpoint == null ? ENDPOINTS : endpoint.ordinal();
+        return row * PHASES + phase.ordinal();
+    }
+}
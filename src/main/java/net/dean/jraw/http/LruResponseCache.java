@@ -0,0 +1,233 @@
+package net.dean.jraw.http;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+import net.dean.jraw.JrawUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A {@link ResponseCache} that keeps the most recently used responses in memory, up to a maximum amount of bytes. If a
+ * directory is given, every response is also written to disk, and responses evicted from memory will be read back from
+ * there. The disk tier is bounded separately and evicts the files that were used least recently.
+ *
+ * <p>Responses are written to disk in plain text, so {@link CachedResponse#isAuthenticated() authenticated} responses,
+ * which may contain private data, are only kept in memory.
+ */
+public class LruResponseCache implements ResponseCache {
+    private static final String FILE_SUFFIX = ".response";
+    /** Responses are written to a temporary file first, which is then renamed */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Cache<String, CachedResponse> memory;
+    private final File directory;
+    private final long maxDiskBytes;
+    /** Guarded by 'this', like all changes to the files in the directory other than writing temporary files */
+    private long diskBytes;
+
+    /**
+     * Instantiates a new LruResponseCache that only keeps responses in memory
+     *
+     * @param maxMemoryBytes The maximum amount of bytes to keep in memory
+     */
+    public LruResponseCache(long maxMemoryBytes) {
+        this(maxMemoryBytes, null, 0);
+    }
+
+    /**
+     * Instantiates a new LruResponseCache
+     *
+     * @param maxMemoryBytes The maximum amount of bytes to keep in memory
+     * @param directory The directory in which to store responses, or null to only keep responses in memory. Will be
+     *                  created if it does not exist.
+     * @param maxDiskBytes The maximum amount of bytes to keep on disk
+     */
+    public LruResponseCache(long maxMemoryBytes, File directory, long maxDiskBytes) {
+        this.memory = CacheBuilder.newBuilder()
+                .maximumWeight(maxMemoryBytes)
+                .weigher(new Weigher<String, CachedResponse>() {
+                    @Override
+                    public int weigh(String key, CachedResponse value) {
+                        return key.length() + value.getWeight();
+                    }
+                })
+                .build();
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        if (directory != null) {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IllegalArgumentException("Could not create the cache directory: " + directory);
+            }
+            for (File f : listFiles()) {
+                diskBytes += f.length();
+            }
+            // Left behind if the process ended during a write
+            for (File f : listFiles(TEMP_SUFFIX)) {
+                f.delete();
+            }
+        }
+    }
+
+    @Override
+    public CachedResponse get(String key) {
+        CachedResponse response = memory.getIfPresent(key);
+        if (response == null && directory != null) {
+            response = read(file(key));
+            if (response != null) {
+                memory.put(key, response);
+            }
+        }
+        return response;
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        memory.put(key, response);
+        if (directory != null && !response.isAuthenticated()) {
+            write(file(key), response);
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        memory.invalidate(key);
+        if (directory != null) {
+            delete(file(key));
+        }
+    }
+
+    /**
+     * Removes all responses from memory and disk
+     */
+    public void clear() {
+        memory.invalidateAll();
+        if (directory != null) {
+            for (File f : listFiles()) {
+                delete(f);
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of responses currently kept in memory
+     * @return The amount of responses in memory
+     */
+    public long getMemoryCount() {
+        return memory.size();
+    }
+
+    /**
+     * Gets the amount of bytes currently used by the disk tier
+     * @return The size of the disk tier in bytes, or 0 if there is none
+     */
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    private File file(String key) {
+        return new File(directory, Hashing.sha1().hashString(key, StandardCharsets.UTF_8).toString() + FILE_SUFFIX);
+    }
+
+    private CachedResponse read(File f) {
+        if (!f.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+            CachedResponse response = CachedResponse.readFrom(in);
+            // Keep track of when the file was last used so that the least recently used files are trimmed first
+            f.setLastModified(System.currentTimeMillis());
+            return response;
+        } catch (FileNotFoundException e) {
+            // Removed by another thread since it was checked
+            return null;
+        } catch (IOException e) {
+            JrawUtils.logger().warn("Unable to read cached response from " + f, e);
+            delete(f);
+            return null;
+        }
+    }
+
+    private void write(File f, CachedResponse response) {
+        // Write without holding the lock so that reading other responses does not wait for the disk
+        File temp;
+        try {
+            temp = File.createTempFile("response", TEMP_SUFFIX, directory);
+        } catch (IOException e) {
+            JrawUtils.logger().warn("Unable to write cached response to " + f, e);
+            return;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            response.writeTo(out);
+        } catch (IOException e) {
+            JrawUtils.logger().warn("Unable to write cached response to " + f, e);
+            temp.delete();
+            return;
+        }
+        replace(f, temp);
+    }
+
+    private synchronized void replace(File f, File temp) {
+        delete(f);
+        if (!temp.renameTo(f)) {
+            JrawUtils.logger().warn("Unable to move cached response to " + f);
+            temp.delete();
+            return;
+        }
+        diskBytes += f.length();
+        trimDisk();
+    }
+
+    private synchronized void delete(File f) {
+        long length = f.length();
+        if (f.delete()) {
+            diskBytes -= length;
+        }
+    }
+
+    private synchronized void trimDisk() {
+        if (diskBytes <= maxDiskBytes) {
+            return;
+        }
+        File[] files = listFiles();
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (int i = 0; i < files.length && diskBytes > maxDiskBytes; i++) {
+            delete(files[i]);
+        }
+    }
+
+    private File[] listFiles() {
+        return listFiles(FILE_SUFFIX);
+    }
+
+    private File[] listFiles(String suffix) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+        int count = 0;
+        for (File f : files) {
+            if (f.getName().endsWith(suffix)) {
+                files[count++] = f;
+            }
+        }
+        return Arrays.copyOf(files, count);
+    }
+}
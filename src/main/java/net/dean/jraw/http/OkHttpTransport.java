@@ -0,0 +1,84 @@
+package net.dean.jraw.http;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.squareup.okhttp.Call;
+import com.squareup.okhttp.Callback;
+import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link HttpTransport} backed by OkHttp, which pools connections and supports SPDY and HTTP/2. This is the
+ * transport used by default. Asynchronous requests complete on the threads of OkHttp's dispatcher.
+ */
+public final class OkHttpTransport implements HttpTransport {
+    private final OkHttpClient http;
+
+    /** Instantiates a new OkHttpTransport with a new OkHttpClient */
+    public OkHttpTransport() {
+        this(new OkHttpClient());
+    }
+
+    /**
+     * Instantiates a new OkHttpTransport. Cookies are managed by {@link RestClient}, so the OkHttpClient should not
+     * have a CookieHandler of its own.
+     *
+     * @param http The client to send requests with
+     */
+    public OkHttpTransport(OkHttpClient http) {
+        this.http = http;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        return HttpResponse.from(http.newCall(request.toOkHttp()).execute());
+    }
+
+    @Override
+    public ListenableFuture<HttpResponse> executeAsync(HttpRequest request) {
+        final SettableFuture<HttpResponse> future = SettableFuture.create();
+        final Call call = http.newCall(request.toOkHttp());
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Request request, IOException e) {
+                future.setException(e);
+            }
+
+            @Override
+            public void onResponse(Response response) {
+                future.set(HttpResponse.from(response));
+            }
+        });
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isCancelled())
+                    call.cancel();
+            }
+        }, MoreExecutors.directExecutor());
+        return future;
+    }
+
+    @Override
+    public void setConnectTimeout(long timeout, TimeUnit unit) {
+        http.setConnectTimeout(timeout, unit);
+    }
+
+    @Override
+    public long getConnectTimeout(TimeUnit unit) {
+        return unit.convert(http.getConnectTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the OkHttpClient requests are sent with
+     * @return The OkHttpClient
+     */
+    public OkHttpClient getOkHttpClient() {
+        return http;
+    }
+}
@@ -0,0 +1,30 @@
+package net.dean.jraw.http;
+
+/**
+ * This interface decides when a {@link RestClient} may send its next request. Every request is preceded by a call to
+ * {@link #acquire()}, and every response (successful or not) is passed to {@link #onResponse(RestResponse)} so that
+ * implementations can adapt to what the server reports.
+ *
+ * @see RestClient#setRateLimitPolicy(RateLimitPolicy)
+ */
+public interface RateLimitPolicy {
+    /**
+     * Blocks the calling thread until another request may be sent
+     *
+     * @return The amount of time spent waiting, in seconds
+     */
+    public double acquire();
+
+    /**
+     * Notifies this policy that a response has been received
+     *
+     * @param response The response
+     */
+    public void onResponse(RestResponse response);
+
+    /**
+     * Gives back the permit acquired for a request that should not count against the local budget, such as a
+     * conditional request that was answered with 304 Not Modified by the server
+     */
+    public void refund();
+}
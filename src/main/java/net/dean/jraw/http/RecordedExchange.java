@@ -0,0 +1,132 @@
+package net.dean.jraw.http;
+
+import com.squareup.okhttp.Headers;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A request and the response it received, as stored by a {@link TrafficRecorder} and served by a
+ * {@link TrafficReplayer}.
+ *
+ * <p>A recording starts with {@link #MAGIC} and {@link #VERSION}, followed by any amount of exchanges. Strings are
+ * written as their length followed by their UTF-8 bytes, since {@link DataOutput#writeUTF(String)} is limited to 64 KB.
+ */
+final class RecordedExchange {
+    /** "JRWR" */
+    static final int MAGIC = 0x4A525752;
+    static final int VERSION = 1;
+    /** Replaces the values of sensitive form arguments, which are never written to disk */
+    private static final String SENSITIVE = "<sensitive>";
+    /** Response headers that are never written to disk, since they may hold the session of a user */
+    private static final String[] UNRECORDED_HEADERS = {"Set-Cookie", "Set-Cookie2"};
+
+    /** Identifies the request. See {@link #key(RestRequest)}. */
+    final String key;
+    final long latencyNanos;
+    final int code;
+    final String message;
+    final Headers headers;
+    final byte[] body;
+
+    RecordedExchange(String key, long latencyNanos, int code, String message, Headers headers, byte[] body) {
+        this.key = key;
+        this.latencyNanos = latencyNanos;
+        this.code = code;
+        this.message = message;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Creates a string that identifies the given request within a recording: its method, its URL and its form data
+     * sorted by name, with the values of sensitive arguments concealed. Headers are not included, so a recording can be
+     * replayed regardless of who is logged in.
+     */
+    static String key(RestRequest request) {
+        StringBuilder key = new StringBuilder(request.getMethod()).append(' ').append(request.getUrl());
+        Map<String, String> form = request.getFormArgs();
+        if (form != null) {
+            for (Map.Entry<String, String> arg : new TreeMap<>(form).entrySet()) {
+                key.append('\n').append(arg.getKey()).append('=')
+                        .append(request.isSensitive(arg.getKey()) ? SENSITIVE : arg.getValue());
+            }
+        }
+        return key.toString();
+    }
+
+    /** Creates a new OkHttp response for the given request using the recorded data */
+    Response toResponse(Request request) {
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message(message)
+                .headers(headers)
+                .body(BufferedResponseBody.of(headers.get("Content-Type"), body))
+                .build();
+    }
+
+    /** Writes this exchange without its {@link #UNRECORDED_HEADERS} */
+    void writeTo(DataOutput out) throws IOException {
+        writeString(out, key);
+        out.writeLong(latencyNanos);
+        out.writeInt(code);
+        writeString(out, message != null ? message : "");
+        Headers recorded = withoutUnrecorded(headers);
+        out.writeInt(recorded.size());
+        for (int i = 0; i < recorded.size(); i++) {
+            writeString(out, recorded.name(i));
+            writeString(out, recorded.value(i));
+        }
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    static RecordedExchange readFrom(DataInput in) throws IOException {
+        String key = readString(in);
+        long latencyNanos = in.readLong();
+        int code = in.readInt();
+        String message = readString(in);
+        int headerCount = in.readInt();
+        Headers.Builder headers = new Headers.Builder();
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(readString(in), readString(in));
+        }
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new RecordedExchange(key, latencyNanos, code, message, headers.build(), body);
+    }
+
+    private static Headers withoutUnrecorded(Headers headers) {
+        Headers.Builder recorded = null;
+        for (String name : UNRECORDED_HEADERS) {
+            if (headers.get(name) != null) {
+                if (recorded == null) {
+                    recorded = headers.newBuilder();
+                }
+                recorded.removeAll(name);
+            }
+        }
+        return recorded != null ? recorded.build() : headers;
+    }
+
+    private static void writeString(DataOutput out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -24,10 +24,21 @@ public class RedditResponse extends RestResponse {
      * @param response The Response that will be encapsulated by this object
      */
     public RedditResponse(Response response) {
-        super(response);
+        this(response, false);
+    }
+
+    /**
+     * Instantiates a new RedditResponse
+     *
+     * @param response The Response that will be encapsulated by this object
+     * @param streamJson Whether to parse JSON directly from the response body. See
+     *                   {@link RestResponse#RestResponse(Response, boolean)}.
+     */
+    public RedditResponse(Response response, boolean streamJson) {
+        super(response, streamJson);
 
         ApiException[] errors = new ApiException[0];
-        if (JrawUtils.typeComparison(type, MediaTypes.JSON.type()) && !raw.isEmpty()) {
+        if (JrawUtils.typeComparison(type, MediaTypes.JSON.type()) && rootNode != null) {
             // Parse the errors into ApiExceptions
             JsonNode errorsNode = rootNode.get("json");
             if (errorsNode != null) {
@@ -84,7 +95,19 @@ public class RedditResponse extends RestResponse {
      * @return A new Listing
      */
     public <T extends RedditObject> Listing<T> asListing(Class<T> thingClass) {
-        return new Listing<>(rootNode.get("data"), thingClass);
+        return asListing(thingClass, false);
+    }
+
+    /**
+     * This method will return a Listing that represents this JSON response
+     *
+     * @param thingClass The class of T
+     * @param lazy If true, the children of the listing will not be created until they are first accessed
+     * @param <T> The type of object that the listing will contain
+     * @return A new Listing
+     */
+    public <T extends RedditObject> Listing<T> asListing(Class<T> thingClass, boolean lazy) {
+        return new Listing<>(rootNode.get("data"), thingClass, lazy);
     }
 
     /**
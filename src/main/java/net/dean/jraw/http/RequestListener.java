@@ -0,0 +1,114 @@
+package net.dean.jraw.http;
+
+/**
+ * Receives events about the lifecycle of every request sent by a {@link RestClient}. All times are measured with
+ * {@link System#nanoTime()} and given in nanoseconds.
+ *
+ * <p>A request that is retried goes through {@link #onQueued(RestRequest) queued}, {@link #onRateLimitWait(RestRequest,
+ * long) rate limit wait}, {@link #onSent(RestRequest, int) sent} and {@link #onFirstByte(RestRequest, long) first
+ * byte} once per attempt, but is only reported as {@link #onCompleted(RestRequest, RestResponse, long) completed} or
+ * {@link #onFailed(RestRequest, NetworkException, long) failed} once. Responses served from the response cache skip
+ * straight to reading the body. Requests that were coalesced into an identical request that was already in flight are
+ * not reported at all.
+ *
+ * <p>Methods may be called from any thread, including OkHttp's callback threads, so they should be fast and
+ * thread-safe. Exceptions thrown by a listener are logged and otherwise ignored.
+ *
+ * @see RestClient#addRequestListener(RequestListener)
+ * @see LatencyRecorder
+ */
+public interface RequestListener {
+    /**
+     * Called when a request starts waiting for its turn in the {@link RequestScheduler}
+     * @param request The request
+     */
+    public void onQueued(RestRequest request);
+
+    /**
+     * Called when a request has been admitted by the {@link RequestScheduler}
+     *
+     * @param request The request
+     * @param waitNanos The time spent waiting for the rate limit and for requests with a higher priority
+     */
+    public void onRateLimitWait(RestRequest request, long waitNanos);
+
+    /**
+     * Called right before a request is handed to the HTTP client
+     *
+     * @param request The request
+     * @param attempt The number of this attempt, starting at 1
+     */
+    public void onSent(RestRequest request, int attempt);
+
+    /**
+     * Called when the status line and headers of the response have been received
+     *
+     * @param request The request
+     * @param latencyNanos The time since the request was sent
+     */
+    public void onFirstByte(RestRequest request, long latencyNanos);
+
+    /**
+     * Called when the body of the response has been read into memory. Not called when responses are
+     * {@link RestClient#setStreamingResponses(boolean) streamed}, since the body is then read while it is being parsed.
+     *
+     * @param request The request
+     * @param readNanos The time spent reading the body
+     */
+    public void onBodyRead(RestRequest request, long readNanos);
+
+    /**
+     * Called when the body of the response has been parsed into a tree of JsonNodes
+     *
+     * @param request The request
+     * @param parseNanos The time spent parsing. Includes reading the body if the response was streamed.
+     */
+    public void onJsonParsed(RestRequest request, long parseNanos);
+
+    /**
+     * Called when a request has completed successfully
+     *
+     * @param request The request
+     * @param response The response
+     * @param totalNanos The time since the request was executed, including every attempt and backoff
+     */
+    public void onCompleted(RestRequest request, RestResponse response, long totalNanos);
+
+    /**
+     * Called when a request has failed and will not be retried
+     *
+     * @param request The request
+     * @param e The reason the request failed
+     * @param totalNanos The time since the request was executed, including every attempt and backoff
+     */
+    public void onFailed(RestRequest request, NetworkException e, long totalNanos);
+
+    /**
+     * An implementation of RequestListener whose methods do nothing. Extend this class to only handle some events.
+     */
+    public static abstract class Adapter implements RequestListener {
+        @Override
+        public void onQueued(RestRequest request) {}
+
+        @Override
+        public void onRateLimitWait(RestRequest request, long waitNanos) {}
+
+        @Override
+        public void onSent(RestRequest request, int attempt) {}
+
+        @Override
+        public void onFirstByte(RestRequest request, long latencyNanos) {}
+
+        @Override
+        public void onBodyRead(RestRequest request, long readNanos) {}
+
+        @Override
+        public void onJsonParsed(RestRequest request, long parseNanos) {}
+
+        @Override
+        public void onCompleted(RestRequest request, RestResponse response, long totalNanos) {}
+
+        @Override
+        public void onFailed(RestRequest request, NetworkException e, long totalNanos) {}
+    }
+}
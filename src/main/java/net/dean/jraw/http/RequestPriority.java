@@ -0,0 +1,14 @@
+package net.dean.jraw.http;
+
+/**
+ * A list of priority classes used by the {@link RequestScheduler} to decide which request may be sent next. Requests
+ * in a higher class are always sent before any waiting request in a lower class.
+ */
+public enum RequestPriority {
+    /** Requests that a user is actively waiting on, such as replying to a comment */
+    INTERACTIVE,
+    /** The default priority */
+    NORMAL,
+    /** Background work such as walking through many pages of a listing. Used by paginators by default. */
+    BULK
+}
@@ -0,0 +1,316 @@
+package net.dean.jraw.http;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.dean.jraw.JrawUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class sits between the submission of a {@link RestRequest} and the {@link RateLimitPolicy}. Every request is
+ * put in a queue for its {@link RequestPriority}, and a single admission thread hands out permits from the policy to
+ * the oldest request of the highest priority that is waiting at the time the permit becomes available. This way, an
+ * interactive request will never wait behind more than one bulk request, no matter how many are queued.
+ *
+ * <p>If no policy is set, requests are admitted immediately on the thread that submitted them. The admission thread is
+ * only started once a request has to wait, and ends after no request has been submitted for {@link #IDLE_SECONDS}, so
+ * an idle scheduler does not hold on to a thread.
+ */
+public class RequestScheduler {
+    /** How long the admission thread waits for another request before it ends */
+    public static final long IDLE_SECONDS = 10;
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    /** One queue per priority, indexed by ordinal. Guarded by 'lock'. */
+    private final List<Deque<Ticket>> queues;
+    private final AtomicLongArray admitted;
+    private final AtomicLongArray totalWaitNanos;
+    private final AtomicLongArray maxWaitNanos;
+    private volatile RateLimitPolicy policy;
+    /** Guarded by 'lock' */
+    private Thread admissionThread;
+
+    /**
+     * Instantiates a new RequestScheduler
+     *
+     * @param policy The policy that decides when the next request may be sent, or null to admit all requests
+     *               immediately
+     */
+    public RequestScheduler(RateLimitPolicy policy) {
+        this.policy = policy;
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        List<Deque<Ticket>> queues = new ArrayList<>(PRIORITIES.length);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            // Most clients rarely have more than a few requests waiting, so start small
+            queues.add(new ArrayDeque<Ticket>(4));
+        }
+        this.queues = Collections.unmodifiableList(queues);
+        this.admitted = new AtomicLongArray(PRIORITIES.length);
+        this.totalWaitNanos = new AtomicLongArray(PRIORITIES.length);
+        this.maxWaitNanos = new AtomicLongArray(PRIORITIES.length);
+    }
+
+    /**
+     * Blocks the calling thread until the given request is allowed to be sent
+     *
+     * @param request The request that will be sent
+     * @return The time in seconds the rate limit policy spent waiting on behalf of this request
+     */
+    public double admit(RestRequest request) {
+        if (policy == null) {
+            return 0;
+        }
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final double[] waited = new double[1];
+        submit(request, new Admission() {
+            @Override
+            public void onAdmitted(double seconds) {
+                waited[0] = seconds;
+                latch.countDown();
+            }
+        });
+        Uninterruptibles.awaitUninterruptibly(latch);
+        return waited[0];
+    }
+
+    /**
+     * Queues the given request without blocking. Once the request is allowed to be sent, the given Admission will be
+     * notified on the admission thread, so it should return quickly.
+     *
+     * @param request The request that will be sent
+     * @param admission What to do once the request has been admitted
+     */
+    public void submit(RestRequest request, Admission admission) {
+        if (policy == null) {
+            admission.onAdmitted(0);
+            return;
+        }
+
+        lock.lock();
+        try {
+            queues.get(request.getPriority().ordinal()).add(new Ticket(request.getPriority(), admission));
+            notEmpty.signal();
+            if (admissionThread == null) {
+                admissionThread = new ThreadFactoryBuilder()
+                        .setNameFormat("jraw-scheduler-%d")
+                        .setDaemon(true)
+                        .build()
+                        .newThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                admitForever();
+                            }
+                        });
+                admissionThread.start();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admitForever() {
+        while (awaitTicket()) {
+
+            // Acquire the permit first so that it goes to the highest priority request waiting once it is available
+            RateLimitPolicy current = policy;
+            double waited = current != null ? current.acquire() : 0;
+
+            Ticket ticket = poll();
+            if (ticket == null) {
+                // The queues were drained by setRateLimitPolicy(null) while we were waiting
+                continue;
+            }
+            long waitNanos = System.nanoTime() - ticket.enqueued;
+            int index = ticket.priority.ordinal();
+            admitted.incrementAndGet(index);
+            totalWaitNanos.addAndGet(index, waitNanos);
+            updateMax(index, waitNanos);
+
+            try {
+                ticket.admission.onAdmitted(waited);
+            } catch (RuntimeException e) {
+                JrawUtils.logger().error("Unable to send an admitted request", e);
+            }
+        }
+    }
+
+    /**
+     * Waits until a request is queued
+     * @return False if no request was queued for {@link #IDLE_SECONDS}, in which case the admission thread must end
+     */
+    private boolean awaitTicket() {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.SECONDS.toNanos(IDLE_SECONDS);
+            while (depth() == 0) {
+                if (remaining <= 0) {
+                    // The next call to submit() will start a new thread
+                    admissionThread = null;
+                    return false;
+                }
+                try {
+                    remaining = notEmpty.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    // Like awaitUninterruptibly(), keep waiting
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Ticket poll() {
+        lock.lock();
+        try {
+            for (Deque<Ticket> queue : queues) {
+                if (!queue.isEmpty()) {
+                    return queue.poll();
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int depth() {
+        int depth = 0;
+        for (Deque<Ticket> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    private void updateMax(int index, long waitNanos) {
+        long max;
+        do {
+            max = maxWaitNanos.get(index);
+        } while (waitNanos > max && !maxWaitNanos.compareAndSet(index, max, waitNanos));
+    }
+
+    /**
+     * Sets the policy that decides when the next request may be sent. Requests that are already queued will be admitted
+     * according to the new policy.
+     *
+     * @param policy The new policy, or null to admit all requests immediately
+     */
+    public void setRateLimitPolicy(RateLimitPolicy policy) {
+        this.policy = policy;
+        if (policy == null) {
+            // Nothing left to wait for, release everything that is still queued
+            List<Ticket> released = new ArrayList<>();
+            lock.lock();
+            try {
+                for (Deque<Ticket> queue : queues) {
+                    released.addAll(queue);
+                    queue.clear();
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Admissions start requests and call listeners, which must not happen under the lock
+            for (Ticket ticket : released) {
+                try {
+                    ticket.admission.onAdmitted(0);
+                } catch (RuntimeException e) {
+                    JrawUtils.logger().error("Unable to send an admitted request", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the policy that decides when the next request may be sent
+     * @return The current policy, or null if all requests are admitted immediately
+     */
+    public RateLimitPolicy getRateLimitPolicy() {
+        return policy;
+    }
+
+    /**
+     * Gets the amount of requests of the given priority that are currently waiting to be admitted
+     * @param priority The priority class
+     * @return The queue depth of the given priority class
+     */
+    public int getQueueDepth(RequestPriority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority.ordinal()).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the amount of requests of the given priority that have been admitted by the admission thread. Requests
+     * admitted while no policy was set are not counted.
+     *
+     * @param priority The priority class
+     * @return The amount of requests admitted
+     */
+    public long getAdmittedCount(RequestPriority priority) {
+        return admitted.get(priority.ordinal());
+    }
+
+    /**
+     * Gets the average time requests of the given priority have spent between submission and admission
+     * @param priority The priority class
+     * @param unit The unit of the returned value
+     * @return The average wait time, or 0 if no requests have been admitted yet
+     */
+    public long getAverageWaitTime(RequestPriority priority, TimeUnit unit) {
+        long count = admitted.get(priority.ordinal());
+        if (count == 0) {
+            return 0;
+        }
+        return unit.convert(totalWaitNanos.get(priority.ordinal()) / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time a request of the given priority has spent between submission and admission
+     * @param priority The priority class
+     * @param unit The unit of the returned value
+     * @return The maximum wait time
+     */
+    public long getMaxWaitTime(RequestPriority priority, TimeUnit unit) {
+        return unit.convert(maxWaitNanos.get(priority.ordinal()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Notified when a request has been admitted by a RequestScheduler
+     */
+    public static interface Admission {
+        /**
+         * Called once the request may be sent
+         * @param waited The time in seconds the rate limit policy spent waiting on behalf of this request
+         */
+        public void onAdmitted(double waited);
+    }
+
+    private static final class Ticket {
+        private final RequestPriority priority;
+        private final Admission admission;
+        private final long enqueued;
+
+        private Ticket(RequestPriority priority, Admission admission) {
+            this.priority = priority;
+            this.admission = admission;
+            this.enqueued = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package net.dean.jraw.http;
+
+/**
+ * Stores responses so that a {@link RestClient} can avoid sending requests whose responses have not changed. Keys are
+ * created by the RestClient from the URL of the request and the user it was sent on behalf of. Implementations must be
+ * thread-safe.
+ *
+ * @see RestClient#setResponseCache(ResponseCache)
+ * @see LruResponseCache
+ */
+public interface ResponseCache {
+    /**
+     * Gets the response stored under the given key
+     *
+     * @param key The key
+     * @return The stored response, or null if there is none
+     */
+    public CachedResponse get(String key);
+
+    /**
+     * Stores a response, replacing any response previously stored under the same key
+     *
+     * @param key The key
+     * @param response The response to store
+     */
+    public void put(String key, CachedResponse response);
+
+    /**
+     * Removes the response stored under the given key, if any
+     *
+     * @param key The key
+     */
+    public void remove(String key);
+}
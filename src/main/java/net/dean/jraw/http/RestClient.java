@@ -1,8 +1,15 @@
 package net.dean.jraw.http;
 
-import com.google.common.util.concurrent.RateLimiter;
-import com.squareup.okhttp.Authenticator;
-import com.squareup.okhttp.OkHttpClient;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.squareup.okhttp.Callback;
+import com.squareup.okhttp.Credentials;
 import com.squareup.okhttp.Request;
 import com.squareup.okhttp.Response;
 import net.dean.jraw.JrawUtils;
@@ -11,31 +18,59 @@ import java.io.IOException;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
 import java.net.CookieStore;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class provides a high-level API to send REST-oriented HTTP requests with.
+ *
+ * <p>A RestClient can be shared by any number of threads. Requests never modify state that is shared with other
+ * requests: default headers are copied into each request from an immutable snapshot, credentials for basic
+ * authentication are attached to the request they belong to, and the response history is stored in a lock-free queue.
+ * Configuration methods (such as {@link #setTimeoutLength(long)}) may also be called at any time, but only affect
+ * requests sent after they return.
  */
 public abstract class RestClient<T extends RestResponse> implements HttpClient<T>, NetworkAccessible<T, RestClient<T>> {
     private final String defaultHost;
-    /** The OkHttpClient used to execute HTTP requests */
-    protected final OkHttpClient http;
-    /** The CookieStore that will contain all the cookies saved by {@link #http} */
-    protected final CookieStore cookieJar;
+    /** The parts of this client that may be shared with other clients */
+    private final HttpResources resources;
+    /** Sends the HTTP requests of this client */
+    protected final HttpTransport transport;
+    /** Adds cookies to requests and stores the ones set by responses. Created once the first cookie is received. */
+    private volatile CookieManager cookies;
     protected final HttpLogger logger;
-    /** A list of Requests sent in the past */
-    protected final LinkedHashMap<T, Date> history;
-    /** A list of headers to be sent for request */
-    protected final Map<String, String> defaultHeaders;
-    private RateLimiter rateLimiter;
-    private boolean useHttpsDefault;
-    private boolean enforceRatelimit;
-    private boolean saveResponseHistory;
-    private boolean requestLogging;
+    /** Responses received in the past, along with the time they were received */
+    private final ConcurrentLinkedQueue<Map.Entry<T, Date>> history;
+    /** The headers to be sent with every request. Replaced as a whole whenever a header changes. */
+    private volatile ImmutableMap<String, String> defaultHeaders;
+    /** Decides which request is sent next when the rate limit is being enforced */
+    private final RequestScheduler scheduler;
+    /** Coalescing requests that are currently in flight, keyed by {@link RestRequest#getCoalescingKey()} */
+    private final ConcurrentMap<String, ListenableFuture<T>> inFlight;
+    private final AtomicLong coalescedRequests;
+    private volatile ResponseCache responseCache;
+    private volatile RetryPolicy retryPolicy;
+    /** Notified about the lifecycle of every request */
+    private final HttpResources.RequestListeners requestListeners;
+    private volatile TrafficRecorder trafficRecorder;
+    private volatile TrafficReplayer trafficReplayer;
+    private volatile boolean useHttpsDefault;
+    private volatile boolean saveResponseHistory;
+    private volatile boolean requestLogging;
+    private volatile boolean streamingResponses;
 
     /**
      * Instantiates a new RestClient
@@ -46,18 +81,47 @@ public abstract class RestClient<T extends RestResponse> implements HttpClient<T
      *                          enable rate limit enforcing, one less than or equal to 0 will disable it.
      */
     public RestClient(String defaultHost, String userAgent, int requestsPerMinute) {
+        this(new OkHttpTransport(), defaultHost, userAgent, requestsPerMinute);
+    }
+
+    /**
+     * Instantiates a new RestClient that sends its requests with the given transport
+     *
+     * @param transport Sends the HTTP requests. May be shared with other clients.
+     * @param defaultHost The host on which to operate
+     * @param userAgent The User-Agent header which will be sent with all requests
+     * @param requestsPerMinute The amount of HTTP requests that can be sent in one minute. A value greater than 0 will
+     *                          enable rate limit enforcing, one less than or equal to 0 will disable it.
+     */
+    public RestClient(HttpTransport transport, String defaultHost, String userAgent, int requestsPerMinute) {
+        this(new HttpResources(transport), defaultHost, userAgent, requestsPerMinute);
+    }
+
+    /**
+     * Instantiates a new RestClient on top of resources that may be shared with other clients. Such a client only holds
+     * what belongs to a single user, such as its default headers, cookies and rate limit, which makes it cheap to have
+     * one for every user of an application.
+     *
+     * @param resources The transport, logger, listeners and circuit breakers to use
+     * @param defaultHost The host on which to operate
+     * @param userAgent The User-Agent header which will be sent with all requests
+     * @param requestsPerMinute The amount of HTTP requests that can be sent in one minute. A value greater than 0 will
+     *                          enable rate limit enforcing, one less than or equal to 0 will disable it.
+     */
+    public RestClient(HttpResources resources, String defaultHost, String userAgent, int requestsPerMinute) {
         this.defaultHost = defaultHost;
-        this.http = new OkHttpClient();
+        this.resources = resources;
+        this.transport = resources.getTransport();
         this.saveResponseHistory = false;
-        this.logger = new HttpLogger(JrawUtils.logger());
+        this.logger = resources.getHttpLogger();
         this.requestLogging = true;
-        CookieManager manager = new CookieManager();
-        manager.setCookiePolicy(CookiePolicy.ACCEPT_ALL);
-        http.setCookieHandler(manager);
-        this.cookieJar = manager.getCookieStore();
-        this.history = new LinkedHashMap<>();
+        this.history = new ConcurrentLinkedQueue<>();
         this.useHttpsDefault = false;
-        this.defaultHeaders = new HashMap<>();
+        this.defaultHeaders = ImmutableMap.of();
+        this.scheduler = new RequestScheduler(null);
+        this.inFlight = new ConcurrentHashMap<>();
+        this.coalescedRequests = new AtomicLong();
+        this.requestListeners = resources.requestListeners;
         setUserAgent(userAgent);
         setEnforceRatelimit(requestsPerMinute);
     }
@@ -103,11 +167,14 @@ public abstract class RestClient<T extends RestResponse> implements HttpClient<T
     }
 
     /**
-     * Sets the time in milliseconds the HTTP client will wait before timing out
+     * Sets the time in milliseconds the HTTP client will wait before timing out. The timeout belongs to the transport in
+     * this client's {@link HttpResources}, so it applies to every client created from the same resources.
+     *
      * @param milliseconds Timeout length in milliseconds
+     * @see HttpResources#setConnectTimeout(long, TimeUnit)
      */
     public void setTimeoutLength(long milliseconds) {
-        http.setConnectTimeout(milliseconds, TimeUnit.MILLISECONDS);
+        resources.setConnectTimeout(milliseconds, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -115,30 +182,58 @@ public abstract class RestClient<T extends RestResponse> implements HttpClient<T
      * @return Timeout length in milliseconds
      */
     public long getTimeoutLength() {
-        return http.getConnectTimeout();
+        return resources.getConnectTimeout(TimeUnit.MILLISECONDS);
     }
 
     /**
      * Whether to automatically manage the execution of HTTP requests based on time (enabled by default). If there has
      * been more than a certain amount of requests in the last minute (30 for normal API, 60 for OAuth), this class will
      * wait to execute the next request in order to minimize the chance of Reddit IP banning this client or simply
-     * returning a 403 Forbidden.
+     * returning a 403 Forbidden. This will replace the current RateLimitPolicy with a {@link FixedRateLimitPolicy}.
      *
      * @param requestsPerMinute The amount of HTTP requests that can be sent in one minute. A value greater than 0 will
      *                          enable rate limit enforcing, one less than or equal to 0 will disable it.
+     * @see #setRateLimitPolicy(RateLimitPolicy)
      */
     public void setEnforceRatelimit(int requestsPerMinute) {
-        this.enforceRatelimit = requestsPerMinute > 0;
-        this.rateLimiter = enforceRatelimit ? RateLimiter.create((double) requestsPerMinute / 60) : null;
+        setRateLimitPolicy(requestsPerMinute > 0 ? new FixedRateLimitPolicy(requestsPerMinute) : null);
+    }
+
+    /**
+     * Sets the policy that decides when the next request may be sent. For example, a {@link HeaderRateLimitPolicy} will
+     * adapt to the rate limit headers sent by Reddit instead of sending requests at a fixed rate.
+     *
+     * @param rateLimitPolicy The new policy, or null to disable rate limit enforcing
+     */
+    public void setRateLimitPolicy(RateLimitPolicy rateLimitPolicy) {
+        scheduler.setRateLimitPolicy(rateLimitPolicy);
+    }
+
+    /**
+     * Gets the policy that decides when the next request may be sent
+     * @return The current policy, or null if the rate limit is not being enforced
+     */
+    public RateLimitPolicy getRateLimitPolicy() {
+        return scheduler.getRateLimitPolicy();
+    }
+
+    /**
+     * Gets the RequestScheduler that decides the order in which requests are sent when the rate limit is being enforced.
+     * Requests with a higher {@link RequestPriority} are always sent before waiting requests with a lower one.
+     *
+     * @return This client's RequestScheduler
+     */
+    public RequestScheduler getScheduler() {
+        return scheduler;
     }
 
     /**
      * Checks if the rate limit is being enforced. If true, then thread that {@link #execute(RestRequest)} is called on
-     * will block until enough time has passed
+     * will block until enough time has passed and no request with a higher priority is waiting
      * @return If the rate limit is being enforced.
      */
     public boolean isEnforcingRatelimit() {
-        return enforceRatelimit;
+        return scheduler.getRateLimitPolicy() != null;
     }
 
     @Override
@@ -146,52 +241,562 @@ public abstract class RestClient<T extends RestResponse> implements HttpClient<T
         if (!request.getUrl().startsWith("https://")) {
             throw new IllegalArgumentException("Credentials sent over basic auth must use HTTPS");
         }
-        Authenticator prevAuthenticator = http.getAuthenticator();
-        // Create a BasicAuthenticator for this request
-        http.setAuthenticator(new BasicAuthenticator(username, password));
-        T response = execute(request);
-        // Reset the Authenticator
-        http.setAuthenticator(prevAuthenticator);
-        return response;
+        // Attach the credentials to this request only instead of changing the client's Authenticator, which would
+        // affect every other request sent at the same time
+        return execute(request.withHeader("Authorization", Credentials.basic(username, password)));
     }
 
+    /**
+     * Executes an HTTP request. If the request is {@link RestRequest#isCoalescing() coalescing} and an identical request
+     * is already in flight, this method will wait for that request's response instead of sending a new one.
+     *
+     * @param request The request to execute
+     * @return The response
+     * @throws NetworkException If the request was not successful
+     */
     @Override
     public T execute(RestRequest request) throws NetworkException {
-        if (enforceRatelimit) {
-            if (!rateLimiter.tryAcquire()) {
-                double time = rateLimiter.acquire();
-                if (requestLogging) {
-                    JrawUtils.logger().info("Slept for {} seconds", time);
-                    JrawUtils.logger().info("");
-                }
+        String key = request.getCoalescingKey();
+        if (key == null)
+            return send(request);
+
+        SettableFuture<T> future = SettableFuture.create();
+        ListenableFuture<T> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedRequests.incrementAndGet();
+            return await(existing);
+        }
+
+        try {
+            T response = send(request);
+            future.set(response);
+            return response;
+        } catch (Throwable t) {
+            // Errors too, or the callers waiting for this request would wait forever
+            future.setException(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Waits for a coalesced request to complete
+     *
+     * @param future The future of the request that is already in flight
+     * @return The response
+     * @throws NetworkException If the request was not successful
+     */
+    private T await(ListenableFuture<T> future) throws NetworkException {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NetworkException)
+                throw (NetworkException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new NetworkException("Could not execute the request", cause);
+        }
+    }
+
+    private T send(RestRequest request) throws NetworkException {
+        long start = System.nanoTime();
+        try {
+            T response = sendWithRetries(request);
+            requestListeners.onCompleted(request, response, System.nanoTime() - start);
+            return response;
+        } catch (NetworkException e) {
+            requestListeners.onFailed(request, e, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    private T sendWithRetries(RestRequest request) throws NetworkException {
+        CacheLookup lookup = lookup(request);
+        if (lookup != null && lookup.isFresh())
+            return handleResponse(request, lookup.cached.toResponse(request.getRequest()), true);
+
+        RetryPolicy retry = retryPolicy;
+        if (retry != null)
+            retry.onRequest();
+
+        for (int attempts = 1; ; attempts++) {
+            try {
+                return sendOnce(request, lookup, attempts);
+            } catch (NetworkException e) {
+                if (retry == null || !retry.shouldRetry(request, e, attempts))
+                    throw e;
+                long backoff = retry.getBackoff(attempts, TimeUnit.MILLISECONDS);
+                logRetry(request, e, backoff);
+                Uninterruptibles.sleepUninterruptibly(backoff, TimeUnit.MILLISECONDS);
             }
         }
+    }
 
-        Request r = request.getRequest();
+    private T sendOnce(RestRequest request, CacheLookup lookup, int attempt) throws NetworkException {
+        CircuitBreaker breaker = circuitBreaker(request);
+        if (breaker != null && !breaker.tryAcquire())
+            throw new CircuitBreakerOpenException(breaker.getHost());
+
+        Request r;
+        Response response;
+        long latency;
+        boolean reported = false;
         try {
+            requestListeners.onQueued(request);
+            long queued = System.nanoTime();
+            logSleep(scheduler.admit(request));
+
+            r = lookup != null ? lookup.conditional(request.getRequest()) : request.getRequest();
             if (requestLogging)
                 logger.log(request);
 
-            Response response = http.newCall(r).execute();
-            T genericResponse = initResponse(response);
-            if (requestLogging)
-                logger.log(genericResponse);
+            long start = System.nanoTime();
+            requestListeners.onRateLimitWait(request, start - queued);
+            requestListeners.onSent(request, attempt);
+            try {
+                TrafficReplayer replayer = trafficReplayer;
+                if (replayer != null)
+                    response = replayer.replay(request, r);
+                else
+                    response = fromTransport(r, transport.execute(toTransport(r)));
+            } catch (IOException e) {
+                reported = true;
+                if (breaker != null)
+                    breaker.onResult(true, System.nanoTime() - start);
+                throw new NetworkException("Could not execute the request: " + r, e);
+            }
+            latency = System.nanoTime() - start;
+            reported = true;
+            if (breaker != null)
+                breaker.onResult(isServerError(response), latency);
+        } finally {
+            // Anything else that went wrong says nothing about the host, but the permit must not be kept
+            if (!reported && breaker != null)
+                breaker.release();
+        }
+        requestListeners.onFirstByte(request, latency);
+
+        try {
+            response = record(request, response, latency);
+            if (lookup != null)
+                response = lookup.update(response);
+        } catch (IOException e) {
+            throw new NetworkException("Could not read the response: " + r, e);
+        }
+        return handleResponse(request, response, false);
+    }
+
+    /**
+     * Passes a response received from the server on to the TrafficRecorder, if there is one
+     * @return The response to use from now on
+     */
+    private Response record(RestRequest request, Response response, long latencyNanos) throws IOException {
+        TrafficRecorder recorder = trafficRecorder;
+        if (recorder == null || trafficReplayer != null)
+            return response;
+        return recorder.record(request, response, latencyNanos);
+    }
+
+    /**
+     * Creates the request handed to the transport, including the cookies of this client
+     */
+    private HttpRequest toTransport(Request r) throws IOException {
+        CookieManager cookies = this.cookies;
+        if (cookies == null)
+            return HttpRequest.from(r, Collections.<String, List<String>>emptyMap());
+        return HttpRequest.from(r, cookies.get(uri(r), Collections.<String, List<String>>emptyMap()));
+    }
 
-            if (!response.isSuccessful())
-                throw new NetworkException(response.code());
+    /**
+     * Stores the cookies set by a response received from the transport and turns it into an OkHttp response
+     */
+    private Response fromTransport(Request r, HttpResponse response) throws IOException {
+        if (cookies != null || response.getHeader("Set-Cookie") != null || response.getHeader("Set-Cookie2") != null)
+            cookies().put(uri(r), Multimaps.asMap(response.getHeaders()));
+        return response.toOkHttp(r);
+    }
+
+    private synchronized CookieManager cookies() {
+        if (cookies == null) {
+            CookieManager manager = new CookieManager();
+            manager.setCookiePolicy(CookiePolicy.ACCEPT_ALL);
+            cookies = manager;
+        }
+        return cookies;
+    }
+
+    /**
+     * Gets the cookies this client has received
+     * @return The cookies, or an empty store if none were received yet
+     */
+    protected CookieStore getCookieStore() {
+        return cookies().getCookieStore();
+    }
 
-            if (!JrawUtils.typeComparison(genericResponse.getType(), request.getExpectedType())) {
-                throw new NetworkException(String.format("Expected Content-Type ('%s/%s') did not match actual Content-Type ('%s/%s')",
-                        request.getExpectedType().type(), request.getExpectedType().subtype(),
-                        genericResponse.getType().type(), genericResponse.getType().subtype()));
+    private static URI uri(Request r) throws IOException {
+        try {
+            return r.url().toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URL: " + r.urlString(), e);
+        }
+    }
+
+    /**
+     * Checks if the given response indicates that the server is failing, which counts against its circuit breaker
+     */
+    private static boolean isServerError(Response response) {
+        return response.code() >= 500;
+    }
+
+    /**
+     * Gets the circuit breaker for the host of the given request, creating it if necessary
+     *
+     * @param request The request about to be sent
+     * @return The host's circuit breaker, or null if there is no CircuitBreakerPolicy
+     */
+    private CircuitBreaker circuitBreaker(RestRequest request) {
+        if (resources.getCircuitBreakerPolicy() == null)
+            return null;
+
+        URL url = request.getRequest().url();
+        return resources.circuitBreaker(url.getPort() == -1 ? url.getHost() : url.getHost() + ':' + url.getPort());
+    }
+
+    /**
+     * Executes an HTTP request without blocking the calling thread. If the rate limit is being enforced, the request
+     * will wait for its turn in this client's {@link RequestScheduler}, just like synchronous requests do.
+     * Once the request is sent, the returned future will be completed on one of OkHttp's callback threads.
+     * Cancelling the future will also cancel the underlying HTTP call if it has not finished yet, unless the request
+     * is {@link RestRequest#isCoalescing() coalescing}, in which case the call is shared with other callers and will
+     * always run to completion.
+     *
+     * @param request The request to execute
+     * @return A future that will either contain the response or fail with a {@link NetworkException}
+     */
+    @Override
+    public ListenableFuture<T> executeAsync(RestRequest request) {
+        final String key = request.getCoalescingKey();
+        if (key == null)
+            return sendAsync(request);
+
+        final SettableFuture<T> future = SettableFuture.create();
+        ListenableFuture<T> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedRequests.incrementAndGet();
+            return share(existing);
+        }
+
+        future.addListener(new Runnable() {
+            @Override
+            public void run() {
+                inFlight.remove(key, future);
             }
+        }, MoreExecutors.directExecutor());
+        try {
+            Futures.addCallback(sendAsync(request), new Forwarder<>(future));
+        } catch (Throwable t) {
+            // Callers that joined this request in the meantime must not wait forever
+            future.setException(t);
+            throw t;
+        }
+        return share(future);
+    }
 
-            if (saveResponseHistory)
-                history.put(genericResponse, new Date());
-            return genericResponse;
-        } catch (IOException e) {
-            throw new NetworkException("Could not execute the request: " + r, e);
+    /**
+     * Creates a new future that completes along with the given one, but which can be cancelled without affecting it
+     *
+     * @param shared The future to follow
+     * @return A new future
+     */
+    private ListenableFuture<T> share(ListenableFuture<T> shared) {
+        SettableFuture<T> view = SettableFuture.create();
+        Futures.addCallback(shared, new Forwarder<>(view));
+        return view;
+    }
+
+    private ListenableFuture<T> sendAsync(final RestRequest request) {
+        final SettableFuture<T> future = SettableFuture.create();
+        final long start = System.nanoTime();
+        Futures.addCallback(future, new FutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                requestListeners.onCompleted(request, result, System.nanoTime() - start);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof NetworkException)
+                    requestListeners.onFailed(request, (NetworkException) t, System.nanoTime() - start);
+            }
+        });
+
+        final CacheLookup lookup = lookup(request);
+        if (lookup != null && lookup.isFresh()) {
+            try {
+                future.set(handleResponse(request, lookup.cached.toResponse(request.getRequest()), true));
+            } catch (NetworkException | RuntimeException e) {
+                future.setException(e);
+            }
+            return future;
+        }
+
+        RetryPolicy retry = retryPolicy;
+        if (retry != null)
+            retry.onRequest();
+        new AsyncExecution(request, lookup, retry, future).attempt();
+        return future;
+    }
+
+    private void logRetry(RestRequest request, NetworkException e, long backoffMillis) {
+        if (requestLogging)
+            JrawUtils.logger().warn("Retrying {} in {} ms: {}", request.getUrl(), backoffMillis, e.getMessage());
+    }
+
+    /**
+     * Finds the cached response for the given request
+     *
+     * @param request The request about to be sent
+     * @return A CacheLookup, or null if there is no cache or the request cannot be cached
+     */
+    private CacheLookup lookup(RestRequest request) {
+        ResponseCache cache = responseCache;
+        if (cache == null || !request.getMethod().equals("GET"))
+            return null;
+
+        Request r = request.getRequest();
+        String identity = getCacheIdentity();
+        if (identity == null && (r.header("Authorization") != null || r.header("X-Modhash") != null))
+            // Authenticated, but we don't know as whom yet
+            return null;
+
+        String key = (identity != null ? identity : "") + ' ' + request.getUrl();
+        CachedResponse cached = cache.get(key);
+        String cacheControl = r.header("Cache-Control");
+        boolean noCache = cacheControl != null && cacheControl.toLowerCase().contains("no-cache");
+        return new CacheLookup(cache, key, identity != null, cached, noCache);
+    }
+
+    /**
+     * Gets a string that identifies the user on whose behalf requests are sent. Cached responses are only shared between
+     * requests with the same identity.
+     *
+     * @return The identity of the current user, or null if no user is authenticated
+     */
+    protected String getCacheIdentity() {
+        return null;
+    }
+
+    /**
+     * Logs the time spent waiting for the rate limiter, if any
+     * @param time The time in seconds
+     */
+    private void logSleep(double time) {
+        if (time > 0 && requestLogging) {
+            JrawUtils.logger().info("Slept for {} seconds", time);
+            JrawUtils.logger().info("");
+        }
+    }
+
+    /**
+     * Turns the OkHttp response into a RestResponse (or one of its subclasses) and makes sure it was successful
+     *
+     * @param request The request that was sent
+     * @param response The response that was received
+     * @param fromCache If the response was taken from the cache without contacting the server
+     * @return A new response
+     * @throws NetworkException If the response was not successful or did not have the expected Content-Type
+     */
+    private T handleResponse(RestRequest request, Response response, boolean fromCache) throws NetworkException {
+        T genericResponse = initResponse(response);
+        if (genericResponse.getReadNanos() >= 0)
+            requestListeners.onBodyRead(request, genericResponse.getReadNanos());
+        if (genericResponse.getParseNanos() >= 0)
+            requestListeners.onJsonParsed(request, genericResponse.getParseNanos());
+        if (requestLogging) {
+            if (fromCache)
+                JrawUtils.logger().info("Using cached response for {}", request.getUrl());
+            else
+                logger.log(genericResponse);
+        }
+
+        RateLimitPolicy policy = scheduler.getRateLimitPolicy();
+        // The rate limit headers of a cached response are stale
+        if (policy != null && !fromCache)
+            policy.onResponse(genericResponse);
+
+        if (!response.isSuccessful())
+            throw new NetworkException(response.code());
+
+        if (!JrawUtils.typeComparison(genericResponse.getType(), request.getExpectedType())) {
+            throw new NetworkException(String.format("Expected Content-Type ('%s/%s') did not match actual Content-Type ('%s/%s')",
+                    request.getExpectedType().type(), request.getExpectedType().subtype(),
+                    genericResponse.getType().type(), genericResponse.getType().subtype()));
         }
+
+        if (saveResponseHistory)
+            history.add(new AbstractMap.SimpleImmutableEntry<>(genericResponse, new Date()));
+        return genericResponse;
+    }
+
+    /**
+     * Sets the policy that decides whether failed requests are sent again. Retries wait for their turn in the
+     * {@link RequestScheduler} like any other request, so they count against the rate limit. Disabled by default.
+     *
+     * @param retryPolicy The new policy, or null to never retry
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Gets the policy that decides whether failed requests are sent again
+     * @return The current policy, or null if failed requests are never retried
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Gets the resources this client shares with other clients
+     * @return The resources this client was created with
+     */
+    public HttpResources getResources() {
+        return resources;
+    }
+
+    /**
+     * Sets the policy used to create a {@link CircuitBreaker} for every host this client sends requests to. While the
+     * breaker of a host is open, requests to that host fail immediately with a {@link CircuitBreakerOpenException}
+     * instead of waiting for the rate limit and a timeout. Responses served from the response cache are not affected.
+     * Setting a new policy resets all breakers. Disabled by default. The policy and the breakers are part of this
+     * client's {@link HttpResources}, so they apply to every client created from the same resources.
+     *
+     * @param circuitBreakerPolicy The new policy, or null to disable circuit breakers
+     */
+    public void setCircuitBreakerPolicy(CircuitBreakerPolicy circuitBreakerPolicy) {
+        resources.setCircuitBreakerPolicy(circuitBreakerPolicy);
+    }
+
+    /**
+     * Gets the policy used to create circuit breakers
+     * @return The current policy, or null if circuit breakers are disabled
+     */
+    public CircuitBreakerPolicy getCircuitBreakerPolicy() {
+        return resources.getCircuitBreakerPolicy();
+    }
+
+    /**
+     * Gets the circuit breaker of the given host
+     * @param host The host, including the port if it is not the default one. For example, "www.reddit.com".
+     * @return The host's circuit breaker, or null if no request has been sent to it since the policy was set
+     */
+    public CircuitBreaker getCircuitBreaker(String host) {
+        return resources.getCircuitBreaker(host);
+    }
+
+    /**
+     * Adds a listener that will be notified whenever the circuit breaker of any host changes state
+     * @param listener The listener to add
+     */
+    public void addCircuitBreakerListener(CircuitBreakerListener listener) {
+        resources.addCircuitBreakerListener(listener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addCircuitBreakerListener(CircuitBreakerListener)}
+     * @param listener The listener to remove
+     */
+    public void removeCircuitBreakerListener(CircuitBreakerListener listener) {
+        resources.removeCircuitBreakerListener(listener);
+    }
+
+    /**
+     * Adds a listener that will be notified about the lifecycle of every request sent by this client, as well as by
+     * every other client that shares its {@link HttpResources}
+     * @param listener The listener to add
+     * @see LatencyRecorder
+     */
+    public void addRequestListener(RequestListener listener) {
+        resources.addRequestListener(listener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addRequestListener(RequestListener)}
+     * @param listener The listener to remove
+     */
+    public void removeRequestListener(RequestListener listener) {
+        resources.removeRequestListener(listener);
+    }
+
+    /**
+     * Sets the recorder that every response received from the server will be written to. Disabled by default.
+     *
+     * @param trafficRecorder The new recorder, or null to stop recording
+     */
+    public void setTrafficRecorder(TrafficRecorder trafficRecorder) {
+        this.trafficRecorder = trafficRecorder;
+    }
+
+    /**
+     * Gets the recorder that responses are being written to
+     * @return The current recorder, or null if responses are not being recorded
+     */
+    public TrafficRecorder getTrafficRecorder() {
+        return trafficRecorder;
+    }
+
+    /**
+     * Sets the replayer that will provide the responses to requests instead of the server. While a replayer is set, no
+     * request is sent over the network and nothing is recorded. Disabled by default.
+     *
+     * @param trafficReplayer The new replayer, or null to send requests over the network again
+     */
+    public void setTrafficReplayer(TrafficReplayer trafficReplayer) {
+        this.trafficReplayer = trafficReplayer;
+    }
+
+    /**
+     * Gets the replayer that provides the responses to requests
+     * @return The current replayer, or null if requests are sent over the network
+     */
+    public TrafficReplayer getTrafficReplayer() {
+        return trafficReplayer;
+    }
+
+    /**
+     * Sets the cache used to store responses to GET requests. When a fresh response is found, it is returned without
+     * contacting the server or waiting for the rate limit. Stale responses with an ETag or Last-Modified header are
+     * revalidated using a conditional request, and a 304 Not Modified response does not count against the local rate
+     * limit. Disabled by default.
+     *
+     * @param responseCache The new cache, or null to disable caching
+     * @see LruResponseCache
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Gets the cache used to store responses to GET requests
+     * @return The current cache, or null if caching is disabled
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Gets the amount of requests that did not need to be sent because an identical coalescing request was already in
+     * flight
+     *
+     * @return The amount of deduplicated requests
+     * @see RestRequest.Builder#coalesce(boolean)
+     */
+    public long getCoalescedRequestCount() {
+        return coalescedRequests.get();
     }
 
     @Override
@@ -204,7 +809,7 @@ public abstract class RestClient<T extends RestResponse> implements HttpClient<T
      * @return The value of the User-Agent header
      */
     public String getUserAgent() {
-        return defaultHeaders.get("User-Agent");
+        return getDefaultHeaders().get("User-Agent");
     }
 
     /**
@@ -212,7 +817,38 @@ public abstract class RestClient<T extends RestResponse> implements HttpClient<T
      * @param userAgent The new User-Agent header
      */
     public void setUserAgent(String userAgent) {
-        defaultHeaders.put("User-Agent", userAgent);
+        setDefaultHeader("User-Agent", userAgent);
+    }
+
+    /**
+     * Gets the headers that will be sent with every request
+     * @return An immutable snapshot of the default headers
+     */
+    public Map<String, String> getDefaultHeaders() {
+        return defaultHeaders;
+    }
+
+    /**
+     * Sets a header that will be sent with every request created by {@link #request()} after this method returns.
+     * Requests that have already been created are not affected.
+     *
+     * @param name The name of the header
+     * @param value The value of the header
+     */
+    protected synchronized void setDefaultHeader(String name, String value) {
+        Map<String, String> copy = new LinkedHashMap<>(defaultHeaders);
+        copy.put(name, value);
+        defaultHeaders = ImmutableMap.copyOf(copy);
+    }
+
+    /**
+     * Stops a header from being sent with every request
+     * @param name The name of the header
+     */
+    protected synchronized void removeDefaultHeader(String name) {
+        Map<String, String> copy = new LinkedHashMap<>(defaultHeaders);
+        copy.remove(name);
+        defaultHeaders = ImmutableMap.copyOf(copy);
     }
 
     /**
@@ -256,16 +892,300 @@ public abstract class RestClient<T extends RestResponse> implements HttpClient<T
     }
 
     /**
-     * Gets a map of responses to LocalDateTimes, in which the LocalDateTime refers to the time that the response was
-     * received. Will be empty unless changed using {@link #setSaveResponseHistory(boolean)}.
-     * @return The response history
+     * Gets the HttpLogger used to log requests and responses when {@link #isLoggingRequests()} is true
+     * @return The HttpLogger
+     */
+    public HttpLogger getHttpLogger() {
+        return logger;
+    }
+
+    /**
+     * Checks if JSON responses are being parsed directly from the response body. See
+     * {@link #setStreamingResponses(boolean)} for more. Disabled by default.
+     *
+     * @return If JSON responses are being parsed directly from the response body
+     */
+    public boolean isStreamingResponses() {
+        return streamingResponses;
+    }
+
+    /**
+     * Sets whether JSON responses will be parsed directly from the response body's byte stream. When enabled, the body
+     * is never decoded into a String, so each response is only held in memory once (as a JSON tree). The raw content
+     * is then only created when it is needed, such as when {@link RestResponse#getRaw()} is called or the
+     * {@link HttpLogger.Component#RESPONSE_BODY} component of the logger is enabled.
+     *
+     * @param streamingResponses Whether to parse JSON directly from the response body
+     */
+    public void setStreamingResponses(boolean streamingResponses) {
+        this.streamingResponses = streamingResponses;
+    }
+
+    /**
+     * Gets a map of responses to Dates, in which the Date refers to the time that the response was received. Will be
+     * empty unless changed using {@link #setSaveResponseHistory(boolean)}. The returned map is a copy that will not
+     * reflect responses received later on.
+     *
+     * @return The response history, in the order the responses were received
      */
     public LinkedHashMap<T, Date> getHistory() {
-        return history;
+        LinkedHashMap<T, Date> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<T, Date> entry : history) {
+            snapshot.put(entry.getKey(), entry.getValue());
+        }
+        return snapshot;
+    }
+
+    /** Sends an asynchronous request, possibly more than once, and completes its future with the outcome */
+    private final class AsyncExecution {
+        private final RestRequest request;
+        private final CacheLookup lookup;
+        private final RetryPolicy retry;
+        private final SettableFuture<T> future;
+        /** The amount of times the request has been sent */
+        private int attempts;
+
+        private AsyncExecution(RestRequest request, CacheLookup lookup, RetryPolicy retry, SettableFuture<T> future) {
+            this.request = request;
+            this.lookup = lookup;
+            this.retry = retry;
+            this.future = future;
+        }
+
+        /** Waits for the request to be admitted by the scheduler, then sends it */
+        private void attempt() {
+            final CircuitBreaker breaker = circuitBreaker(request);
+            if (breaker != null && !breaker.tryAcquire()) {
+                future.setException(new CircuitBreakerOpenException(breaker.getHost()));
+                return;
+            }
+
+            requestListeners.onQueued(request);
+            final long queued = System.nanoTime();
+            scheduler.submit(request, new RequestScheduler.Admission() {
+                @Override
+                public void onAdmitted(double waited) {
+                    if (future.isCancelled()) {
+                        if (breaker != null)
+                            breaker.release();
+                        return;
+                    }
+                    try {
+                        requestListeners.onRateLimitWait(request, System.nanoTime() - queued);
+                        logSleep(waited);
+                        enqueue(breaker);
+                    } catch (RuntimeException e) {
+                        if (breaker != null)
+                            breaker.release();
+                        future.setException(e);
+                    }
+                }
+            });
+        }
+
+        /** Hands the request off to OkHttp's dispatcher */
+        private void enqueue(final CircuitBreaker breaker) {
+            attempts++;
+            if (requestLogging)
+                logger.log(request);
+
+            final Request r = lookup != null ? lookup.conditional(request.getRequest()) : request.getRequest();
+            requestListeners.onSent(request, attempts);
+            final long start = System.nanoTime();
+            final Callback callback = new Callback() {
+                @Override
+                public void onFailure(Request r, IOException e) {
+                    if (breaker != null)
+                        breaker.onResult(true, System.nanoTime() - start);
+                    retryOrFail(new NetworkException("Could not execute the request: " + r, e));
+                }
+
+                @Override
+                public void onResponse(Response response) {
+                    long latency = System.nanoTime() - start;
+                    requestListeners.onFirstByte(request, latency);
+                    if (breaker != null)
+                        breaker.onResult(isServerError(response), latency);
+                    try {
+                        response = record(request, response, latency);
+                        if (lookup != null)
+                            response = lookup.update(response);
+                        future.set(handleResponse(request, response, false));
+                    } catch (IOException e) {
+                        retryOrFail(new NetworkException("Could not read the response: " + response.request(), e));
+                    } catch (NetworkException e) {
+                        retryOrFail(e);
+                    } catch (RuntimeException e) {
+                        future.setException(e);
+                    }
+                }
+            };
+
+            final TrafficReplayer replayer = trafficReplayer;
+            if (replayer != null) {
+                // Replayed responses are served on another thread, just like real ones
+                resources.replayThreads().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        Response response;
+                        try {
+                            response = replayer.replay(request, r);
+                        } catch (IOException e) {
+                            callback.onFailure(r, e);
+                            return;
+                        }
+                        try {
+                            callback.onResponse(response);
+                        } catch (IOException e) {
+                            callback.onFailure(r, e);
+                        }
+                    }
+                });
+                return;
+            }
+
+            final ListenableFuture<HttpResponse> call;
+            try {
+                call = transport.executeAsync(toTransport(r));
+            } catch (IOException e) {
+                callback.onFailure(r, e);
+                return;
+            }
+            Futures.addCallback(call, new FutureCallback<HttpResponse>() {
+                @Override
+                public void onSuccess(HttpResponse result) {
+                    try {
+                        callback.onResponse(fromTransport(r, result));
+                    } catch (IOException e) {
+                        callback.onFailure(r, e);
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    if (call.isCancelled()) {
+                        // Neither a success nor a failure, but a probe of a half-open breaker has to be given back
+                        if (breaker != null)
+                            breaker.release();
+                    } else if (t instanceof IOException) {
+                        callback.onFailure(r, (IOException) t);
+                    } else {
+                        callback.onFailure(r, new IOException(t));
+                    }
+                }
+            });
+            future.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (future.isCancelled())
+                        call.cancel(true);
+                }
+            }, MoreExecutors.directExecutor());
+        }
+
+        /** Either schedules another attempt or fails the future */
+        private void retryOrFail(NetworkException e) {
+            if (future.isCancelled())
+                return;
+            if (retry == null || !retry.shouldRetry(request, e, attempts)) {
+                future.setException(e);
+                return;
+            }
+
+            long backoff = retry.getBackoff(attempts, TimeUnit.MILLISECONDS);
+            logRetry(request, e, backoff);
+            resources.retryTimer().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    attempt();
+                }
+            }, backoff, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** The result of looking up a request in the response cache */
+    private final class CacheLookup {
+        private final ResponseCache cache;
+        private final String key;
+        private final boolean authenticated;
+        private final CachedResponse cached;
+        private final boolean noCache;
+
+        private CacheLookup(ResponseCache cache, String key, boolean authenticated, CachedResponse cached,
+                            boolean noCache) {
+            this.cache = cache;
+            this.key = key;
+            this.authenticated = authenticated;
+            this.cached = cached;
+            this.noCache = noCache;
+        }
+
+        /** Checks if the cached response can be used without contacting the server */
+        private boolean isFresh() {
+            return cached != null && !noCache && cached.isFresh(System.currentTimeMillis());
+        }
+
+        /** Adds the validators of the cached response to the given request, if any */
+        private Request conditional(Request r) {
+            if (cached == null || !cached.hasValidators())
+                return r;
+
+            Request.Builder b = r.newBuilder();
+            if (cached.getETag() != null)
+                b.header("If-None-Match", cached.getETag());
+            if (cached.getLastModified() != null)
+                b.header("If-Modified-Since", cached.getLastModified());
+            return b.build();
+        }
+
+        /**
+         * Updates the cache with a response received from the server
+         * @return The response to pass on to the caller
+         */
+        private Response update(Response response) throws IOException {
+            long now = System.currentTimeMillis();
+            if (response.code() == 304 && cached != null) {
+                CachedResponse revalidated = cached.revalidate(response.headers(), now);
+                cache.put(key, revalidated);
+                RateLimitPolicy policy = scheduler.getRateLimitPolicy();
+                if (policy != null)
+                    policy.refund();
+                return revalidated.toResponse(response.request());
+            }
+
+            CachedResponse fresh = CachedResponse.create(response, now, authenticated);
+            if (fresh != null) {
+                cache.put(key, fresh);
+                return fresh.toResponse(response.request());
+            }
+            if (cached != null && response.isSuccessful())
+                cache.remove(key);
+            return response;
+        }
+    }
+
+    /** Completes a SettableFuture with the outcome of another future */
+    private static class Forwarder<V> implements FutureCallback<V> {
+        private final SettableFuture<V> target;
+
+        private Forwarder(SettableFuture<V> target) {
+            this.target = target;
+        }
+
+        @Override
+        public void onSuccess(V result) {
+            target.set(result);
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            target.setException(t);
+        }
     }
 
     /**
-     * This method is responsible for instantiating a new RestResponse or one of its subclasses
+     * This method is responsible for instantiating a new RestResponse or one of its subclasses. Implementations should
+     * respect {@link #isStreamingResponses()}.
      *
      * @param r The OkHttp response given
      * @return A new response
@@ -5,21 +5,18 @@ import com.squareup.okhttp.FormEncodingBuilder;
 import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.Request;
 import com.squareup.okhttp.RequestBody;
-import net.dean.jraw.Endpoint;
 import net.dean.jraw.Endpoints;
 import net.dean.jraw.JrawUtils;
+import net.dean.jraw.UriTemplate;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLDecoder;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
 
 /**
  * This class is responsible for representing a RESTful HTTP request
@@ -34,6 +31,8 @@ public final class RestRequest {
     private final Endpoints endpoint;
     private final boolean needsAuth;
     private final MediaType expected;
+    private final RequestPriority priority;
+    private final String coalescingKey;
 
     /**
      * Creates a RestRequest from the given URL
@@ -47,6 +46,20 @@ public final class RestRequest {
         return Builder.from(method, url, formArgs).build();
     }
 
+    private RestRequest(RestRequest other, Request request) {
+        this.request = request;
+        this.url = other.url;
+        this.method = other.method;
+        this.sensitiveArgs = other.sensitiveArgs;
+        this.endpoint = other.endpoint;
+        this.needsAuth = other.needsAuth;
+        this.expected = other.expected;
+        this.priority = other.priority;
+        this.coalescingKey = other.coalescingKey != null ? coalescingKey(request) : null;
+        this.query = other.query;
+        this.formArgs = other.formArgs;
+    }
+
     private RestRequest(Builder b) {
         this.request = b.builder.build();
         this.url = request.urlString();
@@ -55,6 +68,8 @@ public final class RestRequest {
         this.endpoint = b.endpoint;
         this.needsAuth = b.auth;
         this.expected = b.expected;
+        this.priority = b.priority;
+        this.coalescingKey = b.coalesce ? coalescingKey(request) : null;
         if (b.query != null) {
             this.query = b.query;
         } else {
@@ -67,6 +82,25 @@ public final class RestRequest {
         }
     }
 
+    /**
+     * Creates a copy of this request with an additional header. If a header with the same name already exists, it is
+     * replaced.
+     *
+     * @param name The name of the header
+     * @param value The value of the header
+     * @return A new RestRequest
+     */
+    public RestRequest withHeader(String name, String value) {
+        return new RestRequest(this, request.newBuilder().header(name, value).build());
+    }
+
+    private static String coalescingKey(Request r) {
+        if (!r.method().equals("GET")) {
+            return null;
+        }
+        return r.method() + ' ' + r.urlString() + '\n' + r.header("Authorization") + '\n' + r.header("X-Modhash");
+    }
+
     /**
      * Checks if this request needs some sort of authentication to be sent successfully.
      * @return True if this request needs authentication, false if else.
@@ -160,6 +194,31 @@ public final class RestRequest {
         return expected;
     }
 
+    /**
+     * The priority with which this request will be admitted by a {@link RequestScheduler}
+     */
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Checks if this request may share its response with identical requests that are in flight at the same time
+     * @return True if this request was built with {@link Builder#coalesce(boolean)} and is a GET request
+     */
+    public boolean isCoalescing() {
+        return coalescingKey != null;
+    }
+
+    /**
+     * Gets a key that is equal for all coalescing requests that can share the same response. Two requests share a key
+     * if they have the same method, URL, and authentication headers.
+     *
+     * @return The coalescing key, or null if this request is not coalescing
+     */
+    public String getCoalescingKey() {
+        return coalescingKey;
+    }
+
     /**
      * This class is responsible for creating new RestRequests
      */
@@ -176,6 +235,8 @@ public final class RestRequest {
         private String[] sensitiveArgs;
         private boolean auth;
         private MediaType expected;
+        private RequestPriority priority;
+        private boolean coalesce;
 
         /**
          * Creates a new Builder that will result in a RestRequest whose URL will match the one given
@@ -221,6 +282,7 @@ public final class RestRequest {
             this.https = false;
             this.auth = false;
             this.expected = MediaTypes.JSON.type();
+            this.priority = RequestPriority.NORMAL;
             this.builder = new Request.Builder();
         }
 
@@ -263,7 +325,7 @@ public final class RestRequest {
          *
          * @param e The endpoint to use
          * @param positionalUrlParams The parameters to use. Must be equal to the size of the corresponding Endpoint's
-         * {@link net.dean.jraw.Endpoint#getUrlParams()} list.
+         * {@link net.dean.jraw.Endpoint#getUrlParams()} list. Each parameter is percent-encoded, except for "/".
          * @return This Builder
          */
         public Builder endpoint(Endpoints e, String... positionalUrlParams) {
@@ -371,6 +433,33 @@ public final class RestRequest {
             return this;
         }
 
+        /**
+         * Sets the priority with which this request will be admitted when the rate limit is being enforced. Defaults to
+         * {@link RequestPriority#NORMAL}.
+         * @param priority The new priority
+         * @return This Builder
+         */
+        public Builder priority(RequestPriority priority) {
+            if (priority == null) {
+                throw new NullPointerException("priority");
+            }
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Sets whether this request may be coalesced with identical requests that are in flight at the same time. If
+         * enabled, concurrent requests with the same URL and authentication will be sent only once and all callers will
+         * receive the same response. Only applies to GET requests. Disabled by default.
+         *
+         * @param coalesce Whether to coalesce this request
+         * @return This Builder
+         */
+        public Builder coalesce(boolean coalesce) {
+            this.coalesce = coalesce;
+            return this;
+        }
+
         /**
          * Sets a custom request body
          * @param method The HTTP verb to execute this request with
@@ -401,62 +490,38 @@ public final class RestRequest {
         }
 
         /**
-         * Generates a valid query string based on the given arguments
+         * Appends a valid query string based on the given arguments
+         * @param url The URL to append to
          * @param args The arguments for the query string
-         * @return A query string
          */
-        private String generateQueryString(Map<String, String> args) {
+        private void appendQueryString(StringBuilder url, Map<String, String> args) {
             if (args.size() == 0) {
-                return "";
+                return;
             }
-            StringBuilder url = new StringBuilder();
 
             // Create the query string (?foo=bar&key1=val1
-            url.append("?");
+            url.append('?');
             for (Iterator<Map.Entry<String, String>> it = args.entrySet().iterator(); it.hasNext(); ) {
                 Map.Entry<String, String> entry = it.next();
 
-                url.append(urlEncode(entry.getKey()));
-                url.append("=");
-                url.append(urlEncode(entry.getValue()));
+                UriTemplate.appendFormEncoded(url, entry.getKey());
+                url.append('=');
+                UriTemplate.appendFormEncoded(url, entry.getValue());
                 if (it.hasNext()) {
                     // More parameters are coming, add a separator
-                    url.append("&");
+                    url.append('&');
                 }
             }
-
-            return url.toString();
         }
 
-        /**
-         * This method will substitute the URI parameters with the given arguments, like
-         * {@link #endpoint(net.dean.jraw.Endpoints, String...)} specifies.
-         * @param e The endpoint to use
-         * @param positionalArgs The arguments to use
-         * @return A URI based on the given endpoint's URI
-         */
-        private String replaceUriParameters(Endpoint e, List<String> positionalArgs) {
-            if (e.getUrlParams().size() != positionalArgs.size()) {
-                // Different amount of parameters
-                throw new IllegalArgumentException(String.format("URL parameter size mismatch. Expecting %s, got %s",
-                        e.getUrlParams().size(), positionalArgs.size()));
+        /** Estimates the length of the query string, assuming no characters need to be encoded */
+        private int estimateQueryLength(Map<String, String> args) {
+            int length = 0;
+            for (Map.Entry<String, String> entry : args.entrySet()) {
+                // Separator, key, '=', value
+                length += entry.getKey().length() + entry.getValue().length() + 2;
             }
-
-            // There are URL parameters, substitute them
-            String updatedUri = e.getUri();
-            Matcher m = null;
-            for (String arg : positionalArgs) {
-                if (m == null) {
-                    // Create on first use
-                    m = Endpoint.URI_PARAM_PATTERN.matcher(updatedUri);
-                } else {
-                    // Reuse the Matcher
-                    m.reset(updatedUri);
-                }
-                updatedUri = m.replaceFirst(arg);
-            }
-
-            return updatedUri;
+            return length;
         }
 
         /**
@@ -468,49 +533,40 @@ public final class RestRequest {
                 throw new IllegalStateException("No host given");
             }
 
-            // Update the url using url()
-            StringBuilder url = new StringBuilder(
-                    String.format("http%s://%s", https ? "s" : "", host));
+            // Size the buffer up front so that it never has to grow unless characters need to be encoded
+            UriTemplate template = endpoint != null ? endpoint.getEndpoint().getTemplate() : null;
+            int length = "https://".length() + host.length() + 1;
+            if (template != null) {
+                length += template.estimateLength(urlParams);
+            } else if (path != null) {
+                length += path.length();
+            }
+            if (query != null) {
+                length += estimateQueryLength(query);
+            }
+
+            StringBuilder url = new StringBuilder(length)
+                    .append(https ? "https://" : "http://")
+                    .append(host);
 
             // Add the endpoint URI
-            if (endpoint != null) {
-                Endpoint e = endpoint.getEndpoint();
-                if (e.getUrlParams().isEmpty()) {
-                    // There are no parameters for the endpoint or none have been given
-                    url.append(e.getUri());
-                } else {
-                    url.append(replaceUriParameters(e, urlParams));
-                }
+            if (template != null) {
+                template.expand(url, urlParams);
             } else if (path != null) {
                 // Endpoint takes priority over path
                 if (!path.startsWith("/")) {
-                    url.append("/");
+                    url.append('/');
                 }
                 url.append(path);
             }
 
             if (query != null) {
-                url.append(generateQueryString(query));
+                appendQueryString(url, query);
             }
 
             builder.url(url.toString());
 
             return new RestRequest(this);
         }
-
-        /**
-         * Utility method to URL-encode a given string in UTF-8.
-         * @param str The unencoded String
-         * @return A URL-encoded string
-         */
-        private String urlEncode(String str) {
-            String charset = StandardCharsets.UTF_8.name();
-            try {
-                return URLEncoder.encode(str, charset);
-            } catch (UnsupportedEncodingException e) {
-                JrawUtils.logger().error("Unsupported charset: " + charset);
-                return null;
-            }
-        }
     }
 }
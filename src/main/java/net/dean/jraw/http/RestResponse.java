@@ -5,9 +5,14 @@ import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.Response;
 import net.dean.jraw.JrawUtils;
 import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.map.ObjectMapper;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This class is used to show the result of a request to a RESTful web service, such as Reddit's JSON API.
@@ -20,27 +25,59 @@ public class RestResponse {
     protected final Headers headers;
     /** The root node of the JSON */
     protected final JsonNode rootNode;
-    /** The raw data of the response's content */
-    protected final String raw;
+    /**
+     * The raw data of the response's content. If the JSON was parsed directly from the response body, this will be null
+     * until {@link #getRaw()} is called.
+     */
+    protected String raw;
     /** The Content-Type returned from the response */
     protected final MediaType type;
+    /** The time spent reading the body into a String, or -1 if it was not read separately from parsing it */
+    private final long readNanos;
+    /** The time spent parsing the body as JSON, or -1 if it was not parsed */
+    private final long parseNanos;
 
     /**
-     * Instantiates a new RedditResponse
+     * Instantiates a new RestResponse
      *
      * @param response The Response that will be encapsulated by this object
      */
     public RestResponse(Response response) {
+        this(response, false);
+    }
+
+    /**
+     * Instantiates a new RestResponse
+     *
+     * @param response The Response that will be encapsulated by this object
+     * @param streamJson If true and the response is JSON, the body will be parsed directly from its byte stream instead
+     *                   of being read into a String first. The raw content will then only be created when
+     *                   {@link #getRaw()} is called.
+     */
+    public RestResponse(Response response, boolean streamJson) {
         this.response = response;
         this.headers = response.headers();
-        this.raw = readContent(response);
         this.type = MediaType.parse(response.header("Content-Type"));
+        boolean json = JrawUtils.typeComparison(type, MediaTypes.JSON.type());
 
-        if (JrawUtils.typeComparison(type, MediaTypes.JSON.type()) && !raw.isEmpty()) {
-            this.rootNode = readTree(raw);
+        long start = System.nanoTime();
+        if (json && streamJson) {
+            this.raw = null;
+            this.readNanos = -1;
+            this.rootNode = readTree(response);
+            this.parseNanos = System.nanoTime() - start;
         } else {
-            // Init JSON-related final variables
-            this.rootNode = null;
+            this.raw = readContent(response);
+            long read = System.nanoTime();
+            this.readNanos = read - start;
+            if (json && raw != null && !raw.isEmpty()) {
+                this.rootNode = readTree(raw);
+                this.parseNanos = System.nanoTime() - read;
+            } else {
+                // Init JSON-related final variables
+                this.rootNode = null;
+                this.parseNanos = -1;
+            }
         }
     }
 
@@ -53,6 +90,38 @@ public class RestResponse {
         }
     }
 
+    /**
+     * Parses the body of the given response as it is read. The bytes read are kept until the parsing is finished, so
+     * that a body which is not valid JSON (such as an HTML error page) can still be returned by {@link #getRaw()}.
+     */
+    private JsonNode readTree(Response r) {
+        CopyingInputStream in = null;
+        try {
+            in = new CopyingInputStream(r.body().byteStream());
+            try (JsonParser parser = objectMapper.getJsonFactory().createJsonParser(in)) {
+                if (parser.nextToken() == null) {
+                    // Empty body
+                    return null;
+                }
+                return objectMapper.readTree(parser);
+            }
+        } catch (IOException e) {
+            if (in != null) {
+                this.raw = in.readAll();
+                JrawUtils.logger().error("Unable to parse JSON: \"{}\"", raw.replace("\n", "").replace("\r", ""));
+            } else {
+                JrawUtils.logger().error("Unable to parse JSON from the body of the given response", e);
+            }
+            return null;
+        } finally {
+            try {
+                r.body().close();
+            } catch (IOException e) {
+                JrawUtils.logger().error("Could not close the body of the given response", e);
+            }
+        }
+    }
+
     private JsonNode readTree(String raw) {
         try {
             return objectMapper.readTree(raw);
@@ -70,6 +139,23 @@ public class RestResponse {
         return type;
     }
 
+    /**
+     * Gets the HTTP status code of the response
+     * @return The status code
+     */
+    public int getStatusCode() {
+        return response.code();
+    }
+
+    /**
+     * Gets the value of a header returned from the server
+     * @param name The name of the header
+     * @return The header's value, or null if the server did not send it
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
     /**
      * Gets the root JsonNode
      * @return The root JsonNode
@@ -79,23 +165,86 @@ public class RestResponse {
     }
 
     /**
-     * Gets the raw response data returned from the request
+     * Gets the raw response data returned from the request. If the JSON was parsed directly from the response body, the
+     * raw data is re-created from the parsed JSON on the first call, so its formatting may differ from what was sent by
+     * the server. A body that could not be parsed is returned as it was received.
+     *
      * @return The raw data of the request
      */
     public String getRaw() {
+        if (raw == null) {
+            raw = rootNode != null ? rootNode.toString() : "";
+        }
         return raw;
     }
 
+    /** Gets the time spent reading the body, or -1 if it was read while being parsed */
+    long getReadNanos() {
+        return readNanos;
+    }
+
+    /** Gets the time spent parsing the body as JSON, or -1 if it was not parsed */
+    long getParseNanos() {
+        return parseNanos;
+    }
+
     public Response getOkHttpResponse() {
         return response;
     }
 
+    /** Keeps a copy of every byte read from the wrapped stream */
+    private final class CopyingInputStream extends FilterInputStream {
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private CopyingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1)
+                copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                copy.write(b, off, n);
+            return n;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Reads the rest of the stream and decodes everything that was read from it. A failure to read the rest is
+         * ignored, since this is only used to show what was received.
+         */
+        private String readAll() {
+            byte[] buffer = new byte[8192];
+            try {
+                while (read(buffer, 0, buffer.length) != -1) {
+                    // Keep reading, the bytes are copied by read()
+                }
+            } catch (IOException e) {
+                JrawUtils.logger().error("Could not read the rest of the body of the given response", e);
+            }
+            return new String(copy.toByteArray(), type != null ?
+                    type.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8);
+        }
+    }
+
     @Override
     public String toString() {
         return "RestResponse {" +
                 "headers=" + headers +
                 ", rootNode=" + rootNode +
-                ", raw='" + raw + '\'' +
+                ", raw='" + getRaw() + '\'' +
                 ", type=" + type +
                 '}';
     }
@@ -0,0 +1,237 @@
+package net.dean.jraw.http;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class decides whether a failed request should be sent again, and how long to wait before doing so. Only requests
+ * with an idempotent method that failed because of a network error or a retryable status code are retried.
+ *
+ * <p>The time to wait before the n-th retry is chosen at random between 0 and
+ * {@code min(maxDelay, baseDelay * 2^(n-1))} ("full jitter"), so that many clients failing at the same time do not all
+ * retry at the same time. Retries are also limited by a token bucket: every original request deposits
+ * {@link Builder#budget(double, double) a fraction of a token}, and every retry withdraws a whole token. When the server is failing most requests, the bucket drains and
+ * retries stop instead of multiplying the load.
+ *
+ * <p>Retries are sent through the same {@link RequestScheduler} as every other request, so they never exceed the
+ * budget of the {@link RateLimitPolicy}.
+ *
+ * @see RestClient#setRetryPolicy(RetryPolicy)
+ */
+public class RetryPolicy {
+    /** The status codes retried by default: 429 Too Many Requests, 500, 502, 503 and 504 */
+    public static final Set<Integer> DEFAULT_RETRYABLE_CODES = ImmutableSet.of(429, 500, 502, 503, 504);
+    /** The methods retried by default. POST is not idempotent and is not retried. */
+    public static final Set<String> DEFAULT_IDEMPOTENT_METHODS = ImmutableSet.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final Set<Integer> retryableCodes;
+    private final Set<String> idempotentMethods;
+    private final double budgetRatio;
+    private final double maxTokens;
+    /** The amount of retries that can currently be made. Guarded by 'this'. */
+    private double tokens;
+
+    private RetryPolicy(Builder b) {
+        this.maxAttempts = b.maxAttempts;
+        this.baseDelayNanos = b.baseDelayNanos;
+        this.maxDelayNanos = b.maxDelayNanos;
+        this.retryableCodes = ImmutableSet.copyOf(b.retryableCodes);
+        this.idempotentMethods = ImmutableSet.copyOf(b.idempotentMethods);
+        this.budgetRatio = b.budgetRatio;
+        this.maxTokens = b.maxTokens;
+        this.tokens = b.maxTokens;
+    }
+
+    /**
+     * Notifies this policy that a new request (not a retry) is about to be sent. This deposits a fraction of a token
+     * into the retry budget.
+     */
+    public synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + budgetRatio);
+    }
+
+    /**
+     * Decides whether the given request should be sent again. If so, a token is withdrawn from the retry budget.
+     *
+     * @param request The request that failed
+     * @param e The reason the request failed
+     * @param attempts The amount of times the request has been sent so far
+     * @return If the request should be sent again
+     */
+    public boolean shouldRetry(RestRequest request, NetworkException e, int attempts) {
+        if (attempts >= maxAttempts || !idempotentMethods.contains(request.getMethod())) {
+            return false;
+        }
+        boolean retryable = e.getCode() == -1 ? e.getCause() instanceof IOException : retryableCodes.contains(e.getCode());
+        if (!retryable) {
+            return false;
+        }
+
+        synchronized (this) {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+
+    /**
+     * Gets a random amount of time to wait before sending a retry, between 0 and
+     * {@code min(maxDelay, baseDelay * 2^(attempts-1))}
+     *
+     * @param attempts The amount of times the request has been sent so far
+     * @param unit The unit of the returned value
+     * @return The time to wait
+     */
+    public long getBackoff(int attempts, TimeUnit unit) {
+        // Avoid overflowing when shifting
+        int exponent = Math.min(attempts - 1, 30);
+        long cap = baseDelayNanos << exponent;
+        if (cap <= 0 || cap > maxDelayNanos) {
+            cap = maxDelayNanos;
+        }
+        long nanos = cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0;
+        return unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the amount of retries that can currently be made before the budget runs out
+     * @return The amount of tokens in the retry budget
+     */
+    public synchronized double getRemainingBudget() {
+        return tokens;
+    }
+
+    /**
+     * Gets the maximum amount of times a single request will be sent, including the first attempt
+     * @return The maximum amount of attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Gets the status codes that cause a request to be retried
+     * @return The retryable status codes
+     */
+    public Set<Integer> getRetryableCodes() {
+        return retryableCodes;
+    }
+
+    /**
+     * Gets the HTTP methods that are safe to retry
+     * @return The idempotent methods
+     */
+    public Set<String> getIdempotentMethods() {
+        return idempotentMethods;
+    }
+
+    /**
+     * This class is responsible for creating new RetryPolicies
+     */
+    public static class Builder {
+        private int maxAttempts;
+        private long baseDelayNanos;
+        private long maxDelayNanos;
+        private Set<Integer> retryableCodes;
+        private Set<String> idempotentMethods;
+        private double budgetRatio;
+        private double maxTokens;
+
+        /**
+         * Instantiates a new Builder. By default, a request is sent at most 3 times, the backoff starts at 500
+         * milliseconds and never exceeds 30 seconds, and the budget allows one retry for every ten requests with a burst
+         * of up to ten retries.
+         */
+        public Builder() {
+            this.maxAttempts = 3;
+            this.baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(500);
+            this.maxDelayNanos = TimeUnit.SECONDS.toNanos(30);
+            this.retryableCodes = DEFAULT_RETRYABLE_CODES;
+            this.idempotentMethods = DEFAULT_IDEMPOTENT_METHODS;
+            this.budgetRatio = 0.1;
+            this.maxTokens = 10;
+        }
+
+        /**
+         * Sets the maximum amount of times a single request will be sent, including the first attempt
+         * @param maxAttempts The maximum amount of attempts. Must be at least 1.
+         * @return This Builder
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the backoff before the first retry. Every following retry doubles it, up to the given maximum.
+         * @param base The initial backoff
+         * @param max The maximum backoff
+         * @param unit The unit of the given values
+         * @return This Builder
+         */
+        public Builder backoff(long base, long max, TimeUnit unit) {
+            if (base < 0 || max < base) {
+                throw new IllegalArgumentException("Invalid backoff: base=" + base + ", max=" + max);
+            }
+            this.baseDelayNanos = unit.toNanos(base);
+            this.maxDelayNanos = unit.toNanos(max);
+            return this;
+        }
+
+        /**
+         * Sets the status codes that cause a request to be retried
+         * @param codes The retryable status codes
+         * @return This Builder
+         */
+        public Builder retryableCodes(Set<Integer> codes) {
+            this.retryableCodes = codes;
+            return this;
+        }
+
+        /**
+         * Sets the HTTP methods that are safe to send more than once
+         * @param methods The idempotent methods
+         * @return This Builder
+         */
+        public Builder idempotentMethods(Set<String> methods) {
+            this.idempotentMethods = methods;
+            return this;
+        }
+
+        /**
+         * Configures the retry budget
+         * @param budgetRatio The fraction of a retry earned by every request. For example, 0.1 allows one retry for
+         *                    every ten requests.
+         * @param maxTokens The maximum amount of retries that can be saved up
+         * @return This Builder
+         */
+        public Builder budget(double budgetRatio, double maxTokens) {
+            if (budgetRatio < 0 || maxTokens < 0) {
+                throw new IllegalArgumentException("The budget cannot be negative");
+            }
+            this.budgetRatio = budgetRatio;
+            this.maxTokens = maxTokens;
+            return this;
+        }
+
+        /**
+         * Builds this Builder into a new RetryPolicy
+         * @return A new RetryPolicy
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
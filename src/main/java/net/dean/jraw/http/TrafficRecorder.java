@@ -0,0 +1,97 @@
+package net.dean.jraw.http;
+
+import com.squareup.okhttp.Response;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Appends every request sent by a {@link RestClient} and the response it received (status, headers and body) to a
+ * file, along with the time it took for the response to arrive. The file can be served back by a
+ * {@link TrafficReplayer} to reproduce the same traffic without contacting reddit.
+ *
+ * <p>Request headers are not recorded, and the values of {@link RestRequest#getSensitiveArgs() sensitive} form
+ * arguments are replaced before they are written. Response headers are recorded as they are, except for the cookies
+ * they set. Response bodies may still contain private data, so recordings of authenticated traffic should be kept
+ * private. Responses served from a {@link ResponseCache} are not recorded.
+ *
+ * <p>Each exchange is flushed as soon as it is recorded. This class is thread-safe.
+ *
+ * @see RestClient#setTrafficRecorder(TrafficRecorder)
+ */
+public final class TrafficRecorder implements Closeable {
+    private final File file;
+    private final DataOutputStream out;
+    private int recorded;
+    private boolean closed;
+
+    /**
+     * Instantiates a new TrafficRecorder that appends to the given file, creating it if it does not exist
+     *
+     * @param file The file to record to
+     * @throws IOException If the file could not be opened
+     */
+    public TrafficRecorder(File file) throws IOException {
+        boolean empty = !file.exists() || file.length() == 0;
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        if (empty) {
+            out.writeInt(RecordedExchange.MAGIC);
+            out.writeInt(RecordedExchange.VERSION);
+            out.flush();
+        }
+    }
+
+    /**
+     * Records a response. Since the body has to be read to do so, a new response with the same content is returned.
+     *
+     * @param request The request that was sent
+     * @param response The response that was received
+     * @param latencyNanos The amount of time between sending the request and receiving the response
+     * @return A response to use instead of the given one
+     * @throws IOException If the body could not be read or the response could not be written
+     */
+    Response record(RestRequest request, Response response, long latencyNanos) throws IOException {
+        RecordedExchange exchange = new RecordedExchange(RecordedExchange.key(request), latencyNanos, response.code(),
+                response.message(), response.headers(), response.body().bytes());
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Recorder is closed: " + file);
+            }
+            exchange.writeTo(out);
+            out.flush();
+            recorded++;
+        }
+        return exchange.toResponse(response.request());
+    }
+
+    /**
+     * Gets the amount of exchanges recorded by this object. Exchanges already in the file before it was opened are not
+     * counted.
+     *
+     * @return The amount of recorded exchanges
+     */
+    public synchronized int getRecordedCount() {
+        return recorded;
+    }
+
+    /**
+     * Gets the file being recorded to
+     * @return The file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package net.dean.jraw.http;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the responses recorded by a {@link TrafficRecorder} instead of sending requests over the network. A request
+ * is answered by the next unused exchange that was recorded for the same method, URL and form data, so identical
+ * requests get their responses in the order they were recorded, and requests to different URLs may be replayed in any
+ * order. A request without a remaining recorded response fails as if the network was unreachable.
+ *
+ * <p>The client still goes through its usual steps, such as waiting for the rate limit and parsing the JSON, which
+ * makes replays useful for profiling those steps. To replay as fast as possible, disable the rate limit. This class is
+ * thread-safe.
+ *
+ * @see RestClient#setTrafficReplayer(TrafficReplayer)
+ */
+public final class TrafficReplayer {
+    private final Map<String, Queue<RecordedExchange>> exchanges;
+    private final Timing timing;
+    private final AtomicInteger remaining;
+
+    private TrafficReplayer(Map<String, Queue<RecordedExchange>> exchanges, int count, Timing timing) {
+        this.exchanges = exchanges;
+        this.timing = timing;
+        this.remaining = new AtomicInteger(count);
+    }
+
+    /**
+     * Reads a recording into memory
+     *
+     * @param file A file written by a {@link TrafficRecorder}
+     * @param timing Whether to reproduce the recorded latency
+     * @return A new TrafficReplayer
+     * @throws IOException If the file could not be read or is not a recording
+     */
+    public static TrafficReplayer load(File file, Timing timing) throws IOException {
+        Map<String, Queue<RecordedExchange>> exchanges = new HashMap<>();
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != RecordedExchange.MAGIC) {
+                throw new IOException("Not a recording: " + file);
+            }
+            int version = in.readInt();
+            if (version != RecordedExchange.VERSION) {
+                throw new IOException("Unsupported recording version " + version + ": " + file);
+            }
+
+            while (true) {
+                RecordedExchange exchange;
+                try {
+                    exchange = RecordedExchange.readFrom(in);
+                } catch (EOFException e) {
+                    // Either the end of the file or an exchange that was cut off while being recorded
+                    break;
+                }
+                Queue<RecordedExchange> queue = exchanges.get(exchange.key);
+                if (queue == null) {
+                    queue = new ConcurrentLinkedQueue<>();
+                    exchanges.put(exchange.key, queue);
+                }
+                queue.add(exchange);
+                count++;
+            }
+        }
+        return new TrafficReplayer(exchanges, count, timing);
+    }
+
+    /**
+     * Takes the next recorded response for the given request
+     *
+     * @param request The request being sent
+     * @param r The OkHttp request that the response will belong to. May differ from {@link RestRequest#getRequest()},
+     *          for example by the validators of a cached response.
+     * @return The recorded response
+     * @throws IOException If there is no recorded response left for the request
+     */
+    Response replay(RestRequest request, Request r) throws IOException {
+        Queue<RecordedExchange> queue = exchanges.get(RecordedExchange.key(request));
+        RecordedExchange exchange = queue != null ? queue.poll() : null;
+        if (exchange == null) {
+            throw new IOException("No recorded response left for " + request.getMethod() + " " + request.getUrl());
+        }
+        remaining.decrementAndGet();
+
+        if (timing == Timing.LATENCY) {
+            Uninterruptibles.sleepUninterruptibly(exchange.latencyNanos, TimeUnit.NANOSECONDS);
+        }
+        return exchange.toResponse(r);
+    }
+
+    /**
+     * Gets the amount of recorded responses that have not been replayed yet
+     * @return The amount of remaining responses
+     */
+    public int getRemaining() {
+        return remaining.get();
+    }
+
+    /** How the timing of the recorded traffic is reproduced */
+    public enum Timing {
+        /** Responses are served immediately */
+        NONE,
+        /** Each response is served after the same delay it took to arrive when it was recorded */
+        LATENCY
+    }
+}
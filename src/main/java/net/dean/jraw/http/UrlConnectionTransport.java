@@ -0,0 +1,123 @@
+package net.dean.jraw.http;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link HttpTransport} built on the JDK's {@link HttpURLConnection}, for environments where OkHttp cannot be used.
+ * Connections are kept alive and reused by the JDK as long as response bodies are read completely or closed.
+ * Asynchronous requests are sent on the threads of an ExecutorService.
+ *
+ * <p>HttpURLConnection only supports the methods that HTTP/1.1 originally defined. PATCH, which reddit uses to update
+ * preferences, is not one of them, so such requests fail with a {@link ProtocolException} before anything is sent. Use
+ * {@link OkHttpTransport} where they are needed.
+ */
+public final class UrlConnectionTransport implements HttpTransport {
+    /** The methods HttpURLConnection accepts */
+    private static final ImmutableSet<String> SUPPORTED_METHODS =
+            ImmutableSet.of("GET", "POST", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE");
+
+    private final ListeningExecutorService executor;
+    private volatile int connectTimeoutMillis;
+
+    /** Instantiates a new UrlConnectionTransport whose asynchronous requests run on a cached pool of daemon threads */
+    public UrlConnectionTransport() {
+        this(Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("jraw-http-%d")
+                .setDaemon(true)
+                .build()));
+    }
+
+    /**
+     * Instantiates a new UrlConnectionTransport
+     * @param executor Runs asynchronous requests. Each request occupies a thread until its response headers arrive.
+     */
+    public UrlConnectionTransport(ExecutorService executor) {
+        this.executor = MoreExecutors.listeningDecorator(executor);
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        if (!SUPPORTED_METHODS.contains(request.getMethod())) {
+            throw new ProtocolException(request.getMethod() + " requests are not supported by " +
+                    "UrlConnectionTransport. Use OkHttpTransport instead.");
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setUseCaches(false);
+        connection.setRequestMethod(request.getMethod());
+        for (Map.Entry<String, String> header : request.getHeaders().entries()) {
+            connection.addRequestProperty(header.getKey(), header.getValue());
+        }
+
+        byte[] body = request.getBody();
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            if (request.getContentType() != null) {
+                connection.setRequestProperty("Content-Type", request.getContentType());
+            }
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+
+        int code = connection.getResponseCode();
+        if (code == -1) {
+            throw new IOException("Invalid response to " + request);
+        }
+
+        ImmutableListMultimap.Builder<String, String> headers = ImmutableListMultimap.builder();
+        for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+            // The status line is stored under a null key
+            if (header.getKey() != null) {
+                headers.putAll(header.getKey(), header.getValue());
+            }
+        }
+
+        InputStream in = code >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        return new HttpResponse(code, connection.getResponseMessage(), "http/1.1", headers.build(), in,
+                connection.getContentLengthLong());
+    }
+
+    @Override
+    public ListenableFuture<HttpResponse> executeAsync(final HttpRequest request) {
+        return executor.submit(new Callable<HttpResponse>() {
+            @Override
+            public HttpResponse call() throws IOException {
+                return execute(request);
+            }
+        });
+    }
+
+    @Override
+    public void setConnectTimeout(long timeout, TimeUnit unit) {
+        long millis = unit.toMillis(timeout);
+        if (millis < 0 || millis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Timeout out of range: " + timeout + " " + unit);
+        }
+        this.connectTimeoutMillis = (int) millis;
+    }
+
+    @Override
+    public long getConnectTimeout(TimeUnit unit) {
+        return unit.convert(connectTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
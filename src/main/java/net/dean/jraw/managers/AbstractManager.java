@@ -1,5 +1,6 @@
 package net.dean.jraw.managers;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import net.dean.jraw.RedditClient;
 import net.dean.jraw.http.HttpClient;
 import net.dean.jraw.http.NetworkAccessible;
@@ -37,6 +38,15 @@ public abstract class AbstractManager implements HttpClient<RedditResponse>,
         return reddit.execute(r);
     }
 
+    @Override
+    public final ListenableFuture<RedditResponse> executeAsync(RestRequest r) {
+        if (r.needsAuth() && !reddit.isLoggedIn()) {
+            throw new IllegalStateException("This manager requires an authenticated user");
+        }
+
+        return reddit.executeAsync(r);
+    }
+
     @Override
     public final RestRequest.Builder request() {
         RestRequest.Builder b = getHttpClient().request();
@@ -11,12 +11,43 @@ import java.util.Date;
  * @author Matthew Dean
  */
 public class Account extends Thing implements Created {
+    private final int commentKarma;
+    private final int linkKarma;
+    private final long createdUtc;
+
     /**
      * Instantiates a new Account
      * @param data The node to get data from
      */
     public Account(JsonNode data) {
         super(data);
+        this.commentKarma = intData("comment_karma");
+        this.linkKarma = intData("link_karma");
+        this.createdUtc = longData("created_utc");
+    }
+
+    /**
+     * Gets the user's comment karma like {@link #getCommentKarma()}, without boxing
+     * @return The user's comment karma, or 0 if unknown
+     */
+    public int commentKarma() {
+        return commentKarma;
+    }
+
+    /**
+     * Gets the user's link karma like {@link #getLinkKarma()}, without boxing
+     * @return The user's link karma, or 0 if unknown
+     */
+    public int linkKarma() {
+        return linkKarma;
+    }
+
+    /**
+     * Gets when this account was created in UTC, without creating a Date
+     * @return Seconds since the epoch, or 0 if unknown
+     */
+    public long createdUtcEpochSeconds() {
+        return createdUtc;
     }
 
     /**
@@ -137,7 +137,8 @@ public class Comment extends PublicContribution {
         if (replies.isNull() || (replies.isTextual() && replies.asText().isEmpty())) {
             return null;
         }
-        return new Listing<>(data.get("replies").get("data"), Comment.class);
+        // Most callers only look at the first few levels of a thread
+        return new Listing<>(data.get("replies").get("data"), Comment.class, true);
     }
 
     /**
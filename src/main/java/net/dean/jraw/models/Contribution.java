@@ -9,6 +9,8 @@ import java.util.Date;
  * This class provides a way to wrap {@link Submission}, {@link Comment}, and {@link Message} together.
  */
 public abstract class Contribution extends Thing implements Created {
+    private final long created;
+    private final long createdUtc;
 
     /**
      * Instantiates a new Contribution
@@ -17,6 +19,24 @@ public abstract class Contribution extends Thing implements Created {
      */
     public Contribution(JsonNode dataNode) {
         super(dataNode);
+        this.created = longData("created");
+        this.createdUtc = longData("created_utc");
+    }
+
+    /**
+     * Gets when this contribution was created in local time, without creating a Date
+     * @return Seconds since the epoch, or 0 if unknown
+     */
+    public long createdEpochSeconds() {
+        return created;
+    }
+
+    /**
+     * Gets when this contribution was created in UTC, without creating a Date
+     * @return Seconds since the epoch, or 0 if unknown
+     */
+    public long createdUtcEpochSeconds() {
+        return createdUtc;
     }
 
     @Override
@@ -43,16 +43,6 @@ public final class FauxListing<T extends RedditObject> extends Listing<T> {
         this.modhash = modhash;
     }
 
-    @Override
-    protected ImmutableList<T> initChildren() {
-        return children;
-    }
-
-    @Override
-    protected More initMore() {
-        return more;
-    }
-
     @Override
     public ImmutableList<T> getChildren() {
         return children;
@@ -68,6 +58,24 @@ public final class FauxListing<T extends RedditObject> extends Listing<T> {
         return after;
     }
 
+    /**
+     * Creates a FauxListing that only contains the first children of this one, with the same before, after and modhash
+     * values but no "more" element
+     *
+     * @param size The amount of children to keep
+     * @return This listing if it has no more than the given amount of children, or a new, shorter FauxListing otherwise
+     */
+    @Override
+    public Listing<T> truncate(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative");
+        }
+        if (size >= children.size()) {
+            return this;
+        }
+        return new FauxListing<>(children.subList(0, size), before, after, modhash);
+    }
+
     @Override
     public More getMoreChildren() {
         return more;
@@ -77,4 +85,14 @@ public final class FauxListing<T extends RedditObject> extends Listing<T> {
     public String getModhash() {
         return modhash;
     }
+
+    @Override
+    public void detach() {
+        for (T child : children) {
+            child.detach();
+        }
+        if (more != null) {
+            more.detach();
+        }
+    }
 }
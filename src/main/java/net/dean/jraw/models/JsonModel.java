@@ -2,24 +2,32 @@ package net.dean.jraw.models;
 
 import net.dean.jraw.JrawUtils;
 import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class provides an abstract model for retrieving data from a JSON node, although not necessarily relating to the
  * Reddit API.
  */
 public abstract class JsonModel {
-    protected final JsonNode data;
+    /**
+     * The JSON this model reads from. Only replaced by {@link #detach()}, but volatile so that a model is safely published
+     * to other threads like it would be if this field were final.
+     */
+    protected volatile JsonNode data;
+    private volatile boolean detached;
     /** The maximum length of a result of a {@link JsonProperty} method in {@link #toString()} */
     private static final int MAX_STRING_LENGTH = 500;
     private static final String ELLIPSIS = "(...)";
@@ -62,12 +70,11 @@ public abstract class JsonModel {
     @SuppressWarnings("unchecked")
     public <T> T data(String name, Class<T> type) {
         // Make sure the key is actually there
-        if (!data.has(name)) {
+        JsonNode node = data.get(name);
+        if (node == null) {
             return null;
         }
 
-        JsonNode node = data.get(name);
-
         if (node.isNull()) {
             return null;
         }
@@ -110,6 +117,60 @@ public abstract class JsonModel {
         return returnVal;
     }
 
+    /**
+     * Retrieves an int from the JSON node with a single lookup and without boxing. Meant to be called once from a
+     * constructor, with the result kept in a field.
+     *
+     * @param name The key to look up in the JSON node
+     * @return The value, or 0 if it is missing or null
+     */
+    protected final int intData(String name) {
+        JsonNode node = primitiveNode(name);
+        return node != null ? node.asInt() : 0;
+    }
+
+    /**
+     * Retrieves a long from the JSON node. See {@link #intData(String)}.
+     *
+     * @param name The key to look up in the JSON node
+     * @return The value, or 0 if it is missing or null
+     */
+    protected final long longData(String name) {
+        JsonNode node = primitiveNode(name);
+        return node != null ? node.asLong() : 0;
+    }
+
+    /**
+     * Retrieves a double from the JSON node. See {@link #intData(String)}.
+     *
+     * @param name The key to look up in the JSON node
+     * @return The value, or 0 if it is missing or null
+     */
+    protected final double doubleData(String name) {
+        JsonNode node = primitiveNode(name);
+        return node != null ? node.asDouble() : 0;
+    }
+
+    /**
+     * Retrieves a boolean from the JSON node. See {@link #intData(String)}.
+     *
+     * @param name The key to look up in the JSON node
+     * @return The value, or false if it is missing or null
+     */
+    protected final boolean booleanData(String name) {
+        JsonNode node = primitiveNode(name);
+        return node != null && node.asBoolean();
+    }
+
+    private JsonNode primitiveNode(String name) {
+        JsonNode json = data;
+        if (json == null) {
+            return null;
+        }
+        JsonNode node = json.get(name);
+        return node == null || node.isNull() ? null : node;
+    }
+
     /**
      * This method gets the "data" JsonNode. In a normal request (let's say to <a href="http://www.reddit.com/r/pics/about.json">/r/pics' "about" API link</a>),
      * the Reddit API returns some JSON data. An example would look like this:
@@ -135,6 +196,58 @@ public abstract class JsonModel {
         return data;
     }
 
+    /**
+     * Replaces the JSON of this model with a compact copy that only contains the fields this model reads, so that the
+     * rest of the tree it was parsed from can be garbage collected. This is meant for models that will be kept around
+     * for a long time, such as those in a cache. The fields that are kept are found by calling every method annotated
+     * with {@link JsonProperty} once and recording which fields it looks up, so any other method that reads
+     * {@link #getDataNode()} directly may find its data missing afterwards. Calling this method more than once has no
+     * effect.
+     *
+     * <p>This method should be called before the model is shared with other threads.
+     */
+    public void detach() {
+        if (detached || data == null || !data.isObject()) {
+            return;
+        }
+
+        JsonNode original = data;
+        RecordingNode recorder = new RecordingNode((ObjectNode) original);
+        data = recorder;
+        try {
+            ModelDescriptor<JsonModel> descriptor = descriptor();
+            for (int i = 0; i < descriptor.size(); i++) {
+                try {
+                    descriptor.get(this, i);
+                } catch (RuntimeException e) {
+                    // The fields it looked up before failing have been recorded anyway
+                }
+            }
+        } finally {
+            data = original;
+        }
+
+        if (!recorder.readAll) {
+            ObjectNode compact = JsonNodeFactory.instance.objectNode();
+            for (String name : recorder.read) {
+                JsonNode value = original.get(name);
+                if (value != null) {
+                    compact.put(name, value);
+                }
+            }
+            data = compact;
+        }
+        detached = true;
+    }
+
+    /**
+     * Checks if {@link #detach()} has been called
+     * @return If this model only keeps the fields it reads
+     */
+    public boolean isDetached() {
+        return detached;
+    }
+
     /**
      * Convenience method to be used in toString() methods that returns the String literal "null" if the value is null.
      * If the object's toString() method throws a NullPointerException, then the String literal "(NullPointerException)
@@ -175,66 +288,49 @@ public abstract class JsonModel {
         // Since JsonModel subclasses don't have many meaningful fields (except for data), a dynamic toString() is
         // more suited for better representing the JsonModel
 
-        Class<? extends JsonModel> clazz = getClass();
-        StringBuilder sb = new StringBuilder(clazz.getSimpleName() + " {");
-
-        List<Method> jsonInteractionMethods = getJsonProperties(clazz);
-
-        // Sort the methods by name
-        Collections.sort(jsonInteractionMethods, new Comparator<Method>() {
-            @Override
-            public int compare(Method o1, Method o2) {
-                return o1.getName().compareTo(o2.getName());
-            }
-        });
-
-        int counter = 0;
-        for (Method m : jsonInteractionMethods) {
+        ModelDescriptor<JsonModel> descriptor = descriptor();
+        List<String> names = descriptor.getPropertyNames();
+        String simpleName = getClass().getSimpleName();
+        StringBuilder sb = new StringBuilder(simpleName.length() + 3 + names.size() * 32);
+        sb.append(simpleName).append(" {");
+
+        for (int i = 0; i < names.size(); i++) {
+            // methodName()="returnVal"
+            sb.append(names.get(i)).append("()=");
+            Object result = null;
+            RuntimeException thrown = null;
             try {
-                // methodName()="returnVal"
-                sb.append(m.getName()).append("()=");
-                InvocationTargetException thrown = null;
-                Object result = null;
-                try {
-                    result = m.invoke(this);
-                } catch (InvocationTargetException e) {
-                    thrown = e;
-                }
+                result = descriptor.get(this, i);
+            } catch (RuntimeException e) {
+                thrown = e;
+            }
 
-                if (thrown == null) {
-                    // No InvocationTargetException thrown
-                    if (result instanceof JsonModel) {
-                        // Avoid calling asString on JsonModels
-                        sb.append('[').append(result.getClass().getSimpleName()).append(']');
-                    } else {
-                        String resultString = asString(result);
-                        // Remove new lines
-                        resultString = resultString.replace("\n", "\\n");
-                        if (resultString.length() > MAX_STRING_LENGTH) {
-                            // Prevent the resultString from being too long, cut it off at a certain length and add an ellipsis
-                            resultString = resultString.substring(0, MAX_STRING_LENGTH - ELLIPSIS.length());
-                            resultString += ELLIPSIS;
-                        }
-                        sb.append('\"').append(resultString).append('\"');
-                    }
-                } else {
-                    // Show the exception and its cause
-                    Throwable cause = thrown.getCause();
-                    sb.append('[')
-                            .append("threw ")
-                            .append(cause.getClass().getName())
-                            .append(": ")
-                            .append(cause.getMessage())
-                            .append(']');
+            if (thrown != null) {
+                // Show the exception
+                sb.append('[')
+                        .append("threw ")
+                        .append(thrown.getClass().getName())
+                        .append(": ")
+                        .append(thrown.getMessage())
+                        .append(']');
+            } else if (result instanceof JsonModel) {
+                // Avoid calling asString on JsonModels
+                sb.append('[').append(result.getClass().getSimpleName()).append(']');
+            } else {
+                String resultString = asString(result);
+                // Remove new lines
+                resultString = resultString.replace("\n", "\\n");
+                if (resultString.length() > MAX_STRING_LENGTH) {
+                    // Prevent the resultString from being too long, cut it off at a certain length and add an ellipsis
+                    resultString = resultString.substring(0, MAX_STRING_LENGTH - ELLIPSIS.length());
+                    resultString += ELLIPSIS;
                 }
+                sb.append('\"').append(resultString).append('\"');
+            }
 
-                if (counter != jsonInteractionMethods.size() - 1) {
-                    // Append the delimiter only if there will be a next element
-                    sb.append(", ");
-                }
-                counter++;
-            } catch (IllegalAccessException e) {
-                JrawUtils.logger().error("IllegalAccessException. This really shouldn't happen.", e);
+            if (i != names.size() - 1) {
+                // Append the delimiter only if there will be a next element
+                sb.append(", ");
             }
         }
         sb.append('}');
@@ -242,6 +338,11 @@ public abstract class JsonModel {
         return sb.toString();
     }
 
+    @SuppressWarnings("unchecked")
+    private ModelDescriptor<JsonModel> descriptor() {
+        return (ModelDescriptor<JsonModel>) ModelDescriptor.of(getClass());
+    }
+
     /**
      * Gets a list of fields that have the JsonInteraction annotation attached to them. This method also returns
      * JsonInteraction-annotated methods in this class' superclasses, up until JsonModel. Mainly used for testing.
@@ -279,4 +380,40 @@ public abstract class JsonModel {
 
         return methods;
     }
+
+    /** A copy of an ObjectNode that remembers which fields have been looked up */
+    private static final class RecordingNode extends ObjectNode {
+        private final Set<String> read = new HashSet<>();
+        /** Set when every field was iterated over, in which case all of them must be kept */
+        private boolean readAll;
+
+        private RecordingNode(ObjectNode original) {
+            super(JsonNodeFactory.instance);
+            putAll(original);
+        }
+
+        @Override
+        public JsonNode get(String fieldName) {
+            read.add(fieldName);
+            return super.get(fieldName);
+        }
+
+        @Override
+        public JsonNode path(String fieldName) {
+            read.add(fieldName);
+            return super.path(fieldName);
+        }
+
+        @Override
+        public Iterator<String> getFieldNames() {
+            readAll = true;
+            return super.getFieldNames();
+        }
+
+        @Override
+        public Iterator<Map.Entry<String, JsonNode>> getFields() {
+            readAll = true;
+            return super.getFields();
+        }
+    }
 }
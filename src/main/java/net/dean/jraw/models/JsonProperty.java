@@ -8,7 +8,9 @@ import java.lang.annotation.Target;
 
 /**
  * Used for testing purposes to signify that this method interacts with the JSON response in order to provide a usable
- * API in pure Java. The return value of this method must not be a primitive type.
+ * API in pure Java. The return value of this method must not be a primitive type, unless the value is decoded ahead of
+ * time and always present. Annotated methods are listed by {@link JsonModel#toString()}, through the
+ * {@link ModelDescriptor} generated for each model at build time.
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
@@ -14,6 +14,10 @@ import java.util.ListIterator;
  * an {@link ImmutableList} to implement the method inherited by {@link java.util.List}. Any method that attempts to
  * change the data (such as {@link List#remove(Object)}) will throw an UnsupportedOperationException.
  *
+ * <p>A lazy Listing does not create its children until one of them (or the "more" element) is first accessed. Either
+ * way, the children array is only walked once. Call {@link #detach()} to let go of the JSON the listing was parsed from
+ * once it is going to be kept around for a while.
+ *
  * @param <T> The type of elements that will be in this listing
  * @author Matthew Dean
  */
@@ -21,50 +25,92 @@ import java.util.ListIterator;
 public class Listing<T extends RedditObject> extends RedditObject implements List<T> {
 
     private final Class<T> thingClass;
-    private final ImmutableList<T> children;
-    private final More more;
+    /** Null until the children have been parsed. Written after {@link #more}, so that more is visible once it is set. */
+    private volatile ImmutableList<T> children;
+    private More more;
 
     /**
-     * Instantiates a new Listing
+     * Instantiates a new Listing whose children are created right away
      *
      * @param dataNode   The node to get data from
      * @param thingClass The class which will be the type of the children in this listing
      */
     public Listing(JsonNode dataNode, Class<T> thingClass) {
+        this(dataNode, thingClass, false);
+    }
+
+    /**
+     * Instantiates a new Listing
+     *
+     * @param dataNode   The node to get data from
+     * @param thingClass The class which will be the type of the children in this listing
+     * @param lazy       If true, the children will not be created until they are first accessed
+     */
+    public Listing(JsonNode dataNode, Class<T> thingClass, boolean lazy) {
         super(dataNode);
 
         this.thingClass = thingClass;
-        this.children = initChildren();
-        this.more = initMore();
+        if (!lazy) {
+            getChildren();
+        }
     }
 
-    protected ImmutableList<T> initChildren() {
-        ImmutableList.Builder<T> children = ImmutableList.builder();
+    /** Creates a listing with the same data as the given one, but with the given children */
+    private Listing(Listing<T> source, ImmutableList<T> children) {
+        super(source.data);
+        this.thingClass = source.thingClass;
+        this.children = children;
+    }
 
-        // children is a JSON array
-        for (JsonNode childNode : data.get("children")) {
-            if (!childNode.get("kind").getTextValue().equalsIgnoreCase("more")) {
-                children.add(JrawUtils.parseJson(childNode, thingClass));
-            }
+    /** Creates the children and finds the "more" element in a single pass over the children array */
+    private synchronized void initChildren() {
+        if (children != null) {
+            return;
         }
 
-        return children.build();
-    }
-
-    protected More initMore() {
-        for (JsonNode childNode : data.get("children")) {
-            if (childNode.get("kind").getTextValue().equalsIgnoreCase("more")) {
-                return new More(childNode.get("data"));
+        ImmutableList.Builder<T> builder = ImmutableList.builder();
+        More more = null;
+        if (data != null) {
+            // children is a JSON array
+            for (JsonNode childNode : data.get("children")) {
+                if (childNode.get("kind").getTextValue().equalsIgnoreCase("more")) {
+                    more = new More(childNode.get("data"));
+                } else {
+                    builder.add(JrawUtils.parseJson(childNode, thingClass));
+                }
             }
         }
 
-        return null;
+        this.more = more;
+        this.children = builder.build();
     }
 
     public ImmutableList<T> getChildren() {
+        if (children == null) {
+            initChildren();
+        }
         return children;
     }
 
+    /**
+     * Creates a listing that only contains the first children of this one, such as the ones before the point where a
+     * {@link net.dean.jraw.paginators.Paginator} stopped. Properties like {@link #getAfter()} are unchanged, but the
+     * new listing has no "more" element.
+     *
+     * @param size The amount of children to keep
+     * @return This listing if it has no more than the given amount of children, or a new, shorter listing otherwise
+     */
+    public Listing<T> truncate(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size must not be negative");
+        }
+        ImmutableList<T> children = getChildren();
+        if (size >= children.size()) {
+            return this;
+        }
+        return new Listing<>(this, children.subList(0, size));
+    }
+
     /**
      * Gets the "more" element (the last element in the children)
      *
@@ -72,6 +118,7 @@ public class Listing<T extends RedditObject> extends RedditObject implements Lis
      */
     @JsonProperty(nullable = true)
     public More getMoreChildren() {
+        getChildren();
         return more;
     }
 
@@ -107,6 +154,22 @@ public class Listing<T extends RedditObject> extends RedditObject implements Lis
         return ThingType.LISTING;
     }
 
+    /**
+     * Creates the children if they have not been created yet and detaches them, then drops the children array from this
+     * listing's own JSON. Afterwards, this listing no longer refers to anything it does not need.
+     */
+    @Override
+    public void detach() {
+        for (T child : getChildren()) {
+            child.detach();
+        }
+        More more = getMoreChildren();
+        if (more != null) {
+            more.detach();
+        }
+        super.detach();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -122,7 +185,7 @@ public class Listing<T extends RedditObject> extends RedditObject implements Lis
     public int hashCode() {
         int result = super.hashCode();
         result = 31 * result + thingClass.hashCode();
-        result = 31 * result + children.hashCode();
+        result = 31 * result + getChildren().hashCode();
         return result;
     }
 
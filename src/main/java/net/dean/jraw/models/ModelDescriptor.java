@@ -0,0 +1,202 @@
+package net.dean.jraw.models;
+
+import net.dean.jraw.JrawUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the {@link JsonProperty} methods of a model and calls them without reflection. This is what
+ * {@link JsonModel#toString()} and {@link JsonModel#detach()} use.
+ *
+ * <p>Descriptors for JRAW's own models are generated at build time by the annotation processor in the
+ * {@code processor} project, into a class called {@code GeneratedModelDescriptors}. For any other model, such as a
+ * subclass defined outside of JRAW, a descriptor that uses reflection is created the first time it is needed. Either
+ * way, each descriptor is only created once per class.
+ *
+ * @param <T> The type of model this describes
+ */
+public abstract class ModelDescriptor<T extends JsonModel> {
+    private static final String GENERATED_CLASS = "net.dean.jraw.models.GeneratedModelDescriptors";
+    private static final Map<Class<?>, ModelDescriptor<?>> generated = loadGenerated();
+    private static final ClassValue<ModelDescriptor<?>> descriptors = new ClassValue<ModelDescriptor<?>>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected ModelDescriptor<?> computeValue(Class<?> type) {
+            ModelDescriptor<?> descriptor = generated.get(type);
+            return descriptor != null ? descriptor : new ReflectiveDescriptor<>((Class<JsonModel>) type);
+        }
+    };
+
+    private final Class<T> modelClass;
+    private final List<String> names;
+    private final boolean[] nullable;
+
+    /**
+     * Instantiates a new ModelDescriptor
+     *
+     * @param modelClass The class being described
+     * @param names The names of the JsonProperty methods, sorted alphabetically
+     * @param nullable Whether the method with the same index may return null
+     */
+    protected ModelDescriptor(Class<T> modelClass, String[] names, boolean[] nullable) {
+        if (names.length != nullable.length) {
+            throw new IllegalArgumentException("Expected one nullable flag per property");
+        }
+        this.modelClass = modelClass;
+        this.names = Collections.unmodifiableList(Arrays.asList(names));
+        this.nullable = nullable;
+    }
+
+    /**
+     * Gets the descriptor of the given model class
+     *
+     * @param modelClass The class of the model
+     * @param <T> The type of the model
+     * @return The descriptor, never null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends JsonModel> ModelDescriptor<T> of(Class<T> modelClass) {
+        return (ModelDescriptor<T>) descriptors.get(modelClass);
+    }
+
+    /**
+     * Gets the class this descriptor describes
+     * @return The model class
+     */
+    public Class<T> getModelClass() {
+        return modelClass;
+    }
+
+    /**
+     * Gets the names of the JsonProperty methods of the model, including those declared by its superclasses and
+     * interfaces. Each method is only included once, no matter how many times it is overridden.
+     *
+     * @return The method names in alphabetical order. The index of a name is used to refer to that property elsewhere.
+     */
+    public List<String> getPropertyNames() {
+        return names;
+    }
+
+    /**
+     * Gets the amount of JsonProperty methods
+     * @return The amount of properties
+     */
+    public int size() {
+        return nullable.length;
+    }
+
+    /**
+     * Checks if the JsonProperty method at the given index is allowed to return null
+     *
+     * @param index The index of the property
+     * @return The value of {@link JsonProperty#nullable()}
+     */
+    public boolean isNullable(int index) {
+        return nullable[index];
+    }
+
+    /**
+     * Calls a JsonProperty method
+     *
+     * @param model The model to call the method on
+     * @param index The index of the property
+     * @return The return value of the method. Primitives are boxed.
+     * @throws IndexOutOfBoundsException If there is no property at the given index
+     */
+    public abstract Object get(T model, int index);
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " {modelClass=" + modelClass.getName() + ", properties=" + names + "}";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Class<?>, ModelDescriptor<?>> loadGenerated() {
+        try {
+            return (Map<Class<?>, ModelDescriptor<?>>) Class.forName(GENERATED_CLASS)
+                    .getDeclaredMethod("descriptors")
+                    .invoke(null);
+        } catch (ClassNotFoundException e) {
+            // Compiled without the annotation processor, such as by some IDEs
+            JrawUtils.logger().debug("{} not found, falling back to reflection for toString()", GENERATED_CLASS);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            JrawUtils.logger().warn("Could not load the generated model descriptors", e);
+        }
+        return Collections.emptyMap();
+    }
+
+    /** Calls the methods found by {@link JsonModel#getJsonProperties(Class)} reflectively */
+    private static final class ReflectiveDescriptor<T extends JsonModel> extends ModelDescriptor<T> {
+        private final Method[] methods;
+
+        private ReflectiveDescriptor(Class<T> modelClass, Method[] methods) {
+            super(modelClass, names(methods), nullable(methods));
+            this.methods = methods;
+        }
+
+        private ReflectiveDescriptor(Class<T> modelClass) {
+            this(modelClass, findMethods(modelClass));
+        }
+
+        @Override
+        public Object get(T model, int index) {
+            try {
+                return methods[index].invoke(model);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static Method[] findMethods(Class<? extends JsonModel> modelClass) {
+            List<Method> unique = new ArrayList<>();
+            List<String> seen = new ArrayList<>();
+            for (Method m : JsonModel.getJsonProperties(modelClass)) {
+                if (m.getParameterTypes().length == 0 && !seen.contains(m.getName())) {
+                    seen.add(m.getName());
+                    m.setAccessible(true);
+                    unique.add(m);
+                }
+            }
+
+            Collections.sort(unique, new Comparator<Method>() {
+                @Override
+                public int compare(Method o1, Method o2) {
+                    return o1.getName().compareTo(o2.getName());
+                }
+            });
+            return unique.toArray(new Method[unique.size()]);
+        }
+
+        private static String[] names(Method[] methods) {
+            String[] names = new String[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                names[i] = methods[i].getName();
+            }
+            return names;
+        }
+
+        private static boolean[] nullable(Method[] methods) {
+            boolean[] nullable = new boolean[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                nullable[i] = methods[i].getAnnotation(JsonProperty.class).nullable();
+            }
+            return nullable;
+        }
+    }
+}
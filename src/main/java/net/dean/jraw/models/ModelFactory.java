@@ -0,0 +1,19 @@
+package net.dean.jraw.models;
+
+import org.codehaus.jackson.JsonNode;
+
+/**
+ * Creates instances of a model from JSON. Factories are registered with {@link ModelRegistry} so that parsing a
+ * listing does not need to look up and invoke a constructor reflectively for each of its children.
+ *
+ * @param <T> The type of model this factory creates
+ */
+public interface ModelFactory<T extends RedditObject> {
+    /**
+     * Creates a new model
+     *
+     * @param data The "data" node of the object
+     * @return A new model
+     */
+    T create(JsonNode data);
+}
@@ -0,0 +1,239 @@
+package net.dean.jraw.models;
+
+import net.dean.jraw.JrawUtils;
+import org.codehaus.jackson.JsonNode;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of which {@link ModelFactory} creates the model for a given class, and optionally for a given "kind"
+ * (the {@link ThingType#getPrefix() prefix} in the JSON, such as "t3"). All of JRAW's own models are registered ahead
+ * of time.
+ *
+ * <p>A class can be registered in two ways:
+ * <ul>
+ *     <li>With a single factory, which is used no matter what the kind of the JSON is. This is how concrete models
+ *         such as {@link Submission} are registered.
+ *     <li>With a factory for each kind it may contain, which is how abstract models such as {@link Contribution} are
+ *         registered. Parsing JSON whose kind has no factory throws an IllegalArgumentException, unless a single
+ *         factory has been registered as well.
+ * </ul>
+ *
+ * <p>Classes that have not been registered fall back to their public constructor that takes a JsonNode, which is
+ * looked up once and then remembered. Register a factory for your own subclasses to avoid reflection entirely.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class ModelRegistry {
+    private static final ConcurrentMap<Class<?>, Registration> registrations = new ConcurrentHashMap<>();
+
+    static {
+        register(Account.class, new ModelFactory<Account>() {
+            @Override public Account create(JsonNode data) { return new Account(data); }
+        });
+        register(Award.class, new ModelFactory<Award>() {
+            @Override public Award create(JsonNode data) { return new Award(data); }
+        });
+        register(Comment.class, new ModelFactory<Comment>() {
+            @Override public Comment create(JsonNode data) { return new Comment(data); }
+        });
+        register(CompactComment.class, new ModelFactory<CompactComment>() {
+            @Override public CompactComment create(JsonNode data) { return new CompactComment(data); }
+        });
+        register(KarmaBreakdown.class, new ModelFactory<KarmaBreakdown>() {
+            @Override public KarmaBreakdown create(JsonNode data) { return new KarmaBreakdown(data); }
+        });
+        register(LiveThread.class, new ModelFactory<LiveThread>() {
+            @Override public LiveThread create(JsonNode data) { return new LiveThread(data); }
+        });
+        register(LiveUpdate.class, new ModelFactory<LiveUpdate>() {
+            @Override public LiveUpdate create(JsonNode data) { return new LiveUpdate(data); }
+        });
+        register(LoggedInAccount.class, new ModelFactory<LoggedInAccount>() {
+            @Override public LoggedInAccount create(JsonNode data) { return new LoggedInAccount(data); }
+        });
+        register(Message.class, new ModelFactory<Message>() {
+            @Override public Message create(JsonNode data) { return new Message(data); }
+        });
+        register(ModAction.class, new ModelFactory<ModAction>() {
+            @Override public ModAction create(JsonNode data) { return new ModAction(data); }
+        });
+        register(More.class, new ModelFactory<More>() {
+            @Override public More create(JsonNode data) { return new More(data); }
+        });
+        register(MultiReddit.class, new ModelFactory<MultiReddit>() {
+            @Override public MultiReddit create(JsonNode data) { return new MultiReddit(data); }
+        });
+        register(Submission.class, new ModelFactory<Submission>() {
+            @Override public Submission create(JsonNode data) { return new Submission(data); }
+        });
+        register(Subreddit.class, new ModelFactory<Subreddit>() {
+            @Override public Subreddit create(JsonNode data) { return new Subreddit(data); }
+        });
+        register(UserRecord.class, new ModelFactory<UserRecord>() {
+            @Override public UserRecord create(JsonNode data) { return new UserRecord(data); }
+        });
+        register(WikiPage.class, new ModelFactory<WikiPage>() {
+            @Override public WikiPage create(JsonNode data) { return new WikiPage(data); }
+        });
+        register(WikiPageSettings.class, new ModelFactory<WikiPageSettings>() {
+            @Override public WikiPageSettings create(JsonNode data) { return new WikiPageSettings(data); }
+        });
+
+        // Abstract types are resolved by their kind, reusing the factories above
+        register(Contribution.class, ThingType.LINK.getPrefix(), factory(Submission.class));
+        register(Contribution.class, ThingType.COMMENT.getPrefix(), factory(Comment.class));
+        register(Contribution.class, ThingType.MESSAGE.getPrefix(), factory(Message.class));
+        register(PublicContribution.class, ThingType.LINK.getPrefix(), factory(Submission.class));
+        register(PublicContribution.class, ThingType.COMMENT.getPrefix(), factory(Comment.class));
+    }
+
+    private ModelRegistry() {
+        // no instances
+    }
+
+    /**
+     * Registers the factory that creates every instance of the given class, replacing any previous one
+     *
+     * @param thingClass The class that will be requested from {@link #create(JsonNode, Class)}
+     * @param factory The factory that creates it
+     * @param <T> The type of the model
+     */
+    public static <T extends RedditObject> void register(Class<T> thingClass, ModelFactory<? extends T> factory) {
+        register(thingClass, null, factory);
+    }
+
+    /**
+     * Registers the factory that creates instances of the given class when the JSON is of the given kind, replacing
+     * any previous one
+     *
+     * @param thingClass The class that will be requested from {@link #create(JsonNode, Class)}. Usually abstract.
+     * @param kind The value of the "kind" field, such as "t3". See {@link ThingType#getPrefix()}.
+     * @param factory The factory that creates it
+     * @param <T> The type of the model
+     */
+    public static <T extends RedditObject> void register(Class<T> thingClass, String kind,
+                                                         ModelFactory<? extends T> factory) {
+        if (thingClass == null || factory == null) {
+            throw new NullPointerException("thingClass and factory must not be null");
+        }
+
+        synchronized (registrations) {
+            Registration old = registrations.get(thingClass);
+            if (old == null) {
+                old = Registration.EMPTY;
+            }
+            registrations.put(thingClass, old.with(kind, factory));
+        }
+    }
+
+    /**
+     * Gets the factory registered for instances of the given class that are not bound to a specific kind
+     *
+     * @param thingClass The class to look up
+     * @param <T> The type of the model
+     * @return The factory, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends RedditObject> ModelFactory<? extends T> factory(Class<T> thingClass) {
+        Registration registration = registrations.get(thingClass);
+        return registration != null ? (ModelFactory<? extends T>) registration.factory : null;
+    }
+
+    /**
+     * Creates a model from JSON that contains a "kind" and a "data" node
+     *
+     * @param rootNode The root node of the object
+     * @param thingClass The class to create
+     * @param <T> The type of the model
+     * @return A new model, or null if the class has not been registered and has no suitable constructor
+     * @throws IllegalArgumentException If the class was registered by kind and the kind of the JSON is not one of them
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends RedditObject> T create(JsonNode rootNode, Class<T> thingClass) {
+        Registration registration = registrations.get(thingClass);
+        if (registration == null) {
+            registration = registerConstructor(thingClass);
+            if (registration == null) {
+                return null;
+            }
+        }
+
+        ModelFactory<?> factory = registration.factory;
+        if (!registration.byKind.isEmpty()) {
+            JsonNode kindNode = rootNode.get("kind");
+            ModelFactory<?> byKind = kindNode != null ? registration.byKind.get(kindNode.asText()) : null;
+            if (byKind != null) {
+                factory = byKind;
+            } else if (factory == null) {
+                throw new IllegalArgumentException("Class " + thingClass.getName() + " is not applicable for kind " +
+                        (kindNode != null ? kindNode.asText() : null));
+            }
+        }
+
+        return (T) factory.create(rootNode.get("data"));
+    }
+
+    /** Registers a factory that invokes the constructor of the given class, if it has one that takes a JsonNode */
+    private static <T extends RedditObject> Registration registerConstructor(Class<T> thingClass) {
+        final Constructor<T> constructor;
+        try {
+            constructor = thingClass.getConstructor(JsonNode.class);
+        } catch (NoSuchMethodException e) {
+            JrawUtils.logger().error("Could not create the Thing ({})", thingClass.getName(), e);
+            return null;
+        }
+
+        ModelFactory<T> factory = new ModelFactory<T>() {
+            @Override
+            public T create(JsonNode data) {
+                try {
+                    return constructor.newInstance(data);
+                } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                    JrawUtils.logger().error("Could not create the Thing ({})", constructor.getName(), e);
+                    return null;
+                }
+            }
+        };
+
+        synchronized (registrations) {
+            // Another thread may have registered something in the meantime
+            Registration existing = registrations.get(thingClass);
+            if (existing != null) {
+                return existing;
+            }
+            Registration registration = Registration.EMPTY.with(null, factory);
+            registrations.put(thingClass, registration);
+            return registration;
+        }
+    }
+
+    /** The factories registered for a single class. Never modified once published. */
+    private static final class Registration {
+        private static final Registration EMPTY =
+                new Registration(null, Collections.<String, ModelFactory<?>>emptyMap());
+
+        private final ModelFactory<?> factory;
+        private final Map<String, ModelFactory<?>> byKind;
+
+        private Registration(ModelFactory<?> factory, Map<String, ModelFactory<?>> byKind) {
+            this.factory = factory;
+            this.byKind = byKind;
+        }
+
+        private Registration with(String kind, ModelFactory<?> factory) {
+            if (kind == null) {
+                return new Registration(factory, byKind);
+            }
+            Map<String, ModelFactory<?>> copy = new HashMap<>(byKind);
+            copy.put(kind, factory);
+            return new Registration(this.factory, copy);
+        }
+    }
+}
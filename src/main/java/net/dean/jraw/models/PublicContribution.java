@@ -12,6 +12,10 @@ import java.util.Map;
  * This class is used to separate public contributions (submissions and comments) from private contributions (messages)
  */
 public abstract class PublicContribution extends Contribution implements Distinguishable, Gildable, Votable {
+    private final int score;
+    private final int upvotes;
+    private final int timesGilded;
+
     /**
      * Instantiates a new PublicContribution
      *
@@ -19,6 +23,33 @@ public abstract class PublicContribution extends Contribution implements Disting
      */
     public PublicContribution(JsonNode dataNode) {
         super(dataNode);
+        this.score = intData("score");
+        this.upvotes = intData("ups");
+        this.timesGilded = intData("gilded");
+    }
+
+    /**
+     * Gets the score of this contribution like {@link #getScore()}, without boxing
+     * @return The score, or 0 if unknown
+     */
+    public int score() {
+        return score;
+    }
+
+    /**
+     * Gets the amount of upvotes like {@link #getUpvotes()}, without boxing
+     * @return The amount of upvotes, or 0 if unknown
+     */
+    public int upvotes() {
+        return upvotes;
+    }
+
+    /**
+     * Gets the amount of times this contribution has been gilded like {@link #getTimesGilded()}, without boxing
+     * @return The amount of times this has been gilded
+     */
+    public int timesGilded() {
+        return timesGilded;
     }
 
     /**
@@ -15,6 +15,9 @@ public class Submission extends PublicContribution {
      * The comments that belong to this link
      */
     private Listing<Comment> comments;
+    private final boolean selfPost;
+    private final int commentCount;
+    private final double upvoteRatio;
 
     /**
      * Instantiates a new Submission with no comments
@@ -34,6 +37,9 @@ public class Submission extends PublicContribution {
     public Submission(JsonNode dataNode, Listing<Comment> comments) {
         super(dataNode);
         this.comments = comments;
+        this.selfPost = booleanData("is_self");
+        this.commentCount = intData("num_comments");
+        this.upvoteRatio = doubleData("upvote_ratio");
     }
 
     @Override
@@ -41,6 +47,14 @@ public class Submission extends PublicContribution {
         return ThingType.LINK;
     }
 
+    @Override
+    public void detach() {
+        super.detach();
+        if (comments != null) {
+            comments.detach();
+        }
+    }
+
     /**
      * The name of the poster, or null if this is a promotional link
      * @return The name of the poster
@@ -83,8 +97,8 @@ public class Submission extends PublicContribution {
      * @return The type of submission
      */
     @JsonProperty
-    public Boolean isSelfPost() {
-        return data.get("is_self").getBooleanValue();
+    public boolean isSelfPost() {
+        return selfPost;
     }
 
     /**
@@ -105,6 +119,14 @@ public class Submission extends PublicContribution {
         return data("upvote_ratio", Double.class);
     }
 
+    /**
+     * Gets the ratio of upvotes to downvotes like {@link #getUpvoteRatio()}, without boxing
+     * @return The ratio of upvotes to downvotes, or 0 if unknown
+     */
+    public double upvoteRatio() {
+        return upvoteRatio;
+    }
+
     /**
      * This link's flair
      * @return This link's flair
@@ -146,6 +168,14 @@ public class Submission extends PublicContribution {
         return data("num_comments", Integer.class);
     }
 
+    /**
+     * Gets the number of comments like {@link #getCommentCount()}, without boxing
+     * @return The total number of comments that belong to this submission, or 0 if unknown
+     */
+    public int commentCount() {
+        return commentCount;
+    }
+
     /**
      * Whether or not the post is tagged as NSFW (not safe for work)
      * @return If the post is tagged as NSFW
@@ -8,6 +8,9 @@ import java.awt.*;
  * This class represents a Subreddit such as /r/pics.
  */
 public class Subreddit extends Thing {
+    private final long subscriberCount;
+    private final int accountsActive;
+    private final long createdUtc;
 
     /**
      * Instantiates a new Subreddit
@@ -16,6 +19,33 @@ public class Subreddit extends Thing {
      */
     public Subreddit(JsonNode dataNode) {
         super(dataNode);
+        this.subscriberCount = longData("subscribers");
+        this.accountsActive = intData("accounts_active");
+        this.createdUtc = longData("created_utc");
+    }
+
+    /**
+     * Gets the amount of subscribers like {@link #getSubscriberCount()}, without boxing
+     * @return The amount of subscribers, or 0 if unknown
+     */
+    public long subscriberCount() {
+        return subscriberCount;
+    }
+
+    /**
+     * Gets the amount of active users like {@link #getAccountsActive()}, without boxing
+     * @return The number of users active in the last 15 minutes, or 0 if unknown
+     */
+    public int accountsActive() {
+        return accountsActive;
+    }
+
+    /**
+     * Gets when this subreddit was created in UTC
+     * @return Seconds since the epoch, or 0 if unknown
+     */
+    public long createdUtcEpochSeconds() {
+        return createdUtc;
     }
 
     /**
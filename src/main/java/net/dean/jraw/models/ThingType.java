@@ -1,5 +1,8 @@
 package net.dean.jraw.models;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * An enumeration of types of objects in Reddit's API. Each type has a prefix of "t[0-6,8]". When this prefix, an
  * underscore, and the ID of the Thing are combined in that order, you get that Thing's full name
@@ -42,6 +45,13 @@ public enum ThingType {
     /** Represents an administrative action on behalf of a moderator of a subreddit */
     MODACTION("modaction");
 
+    private static final Map<String, ThingType> BY_PREFIX = new HashMap<>();
+
+    static {
+        for (ThingType type : values()) {
+            BY_PREFIX.put(type.prefix, type);
+        }
+    }
 
     /**
      * The Thing's prefix
@@ -70,13 +80,13 @@ public enum ThingType {
         return prefix;
     }
 
+    /**
+     * Gets the type with the given prefix
+     *
+     * @param prefix The prefix, such as "t3" or "Listing"
+     * @return The type, or null if there is none
+     */
     public static ThingType getByPrefix(String prefix) {
-        for (ThingType type : values()) {
-            if (type.getPrefix().equals(prefix)) {
-                return type;
-            }
-        }
-
-        return null;
+        return BY_PREFIX.get(prefix);
     }
 }
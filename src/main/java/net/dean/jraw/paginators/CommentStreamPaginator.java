@@ -0,0 +1,59 @@
+package net.dean.jraw.paginators;
+
+import com.google.common.base.Joiner;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.models.Comment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Iterates through the newest comments of one or more subreddits, newest first, no matter which submission they were
+ * posted on. See <a href="https://www.reddit.com/r/programming+java/comments">here</a> for a demonstration. The
+ * sorting and time period have no effect on this listing.
+ *
+ * <p>Since new comments keep arriving at the front of this listing, it is usually read with a {@link ListingPoller}
+ * (see {@link ListingPoller#comments(RedditClient, String, ListingPoller.Listener)}), which only asks for the comments
+ * that are newer than the ones it has already seen.
+ */
+public class CommentStreamPaginator extends Paginator<Comment> {
+    private List<String> subreddits;
+
+    /**
+     * Instantiates a new CommentStreamPaginator
+     *
+     * @param creator The RedditClient that will be used to send HTTP requests
+     * @param subreddits The subreddits whose comments to iterate over. Must contain at least one element.
+     */
+    CommentStreamPaginator(RedditClient creator, List<String> subreddits) {
+        super(creator, Comment.class);
+        setSubreddits(subreddits);
+    }
+
+    @Override
+    protected String getBaseUri() {
+        // /r/sub1+sub2+sub3/comments.json
+        return "/r/" + Joiner.on('+').join(subreddits) + "/comments.json";
+    }
+
+    /**
+     * Gets the subreddits whose comments are being iterated over
+     * @return The subreddits whose comments are being iterated over
+     */
+    public List<String> getSubreddits() {
+        return new ArrayList<>(subreddits);
+    }
+
+    /**
+     * Sets the new subreddits whose comments to iterate over and invalidates the paginator
+     * @param subreddits The subreddits whose comments to iterate over. Must contain at least one element.
+     */
+    public void setSubreddits(List<String> subreddits) {
+        if (subreddits.size() == 0) {
+            throw new IllegalArgumentException("Must have at least one subreddit");
+        }
+        this.subreddits = Collections.unmodifiableList(new ArrayList<>(subreddits));
+        invalidate();
+    }
+}
@@ -0,0 +1,44 @@
+package net.dean.jraw.paginators;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Thing;
+
+import java.util.Iterator;
+
+/**
+ * A lazy view of the Things in a sequence of listings. A listing is only requested once every Thing of the previous
+ * one has been consumed, so operations that stop early, such as {@link #limit(int)} and {@link #firstMatch}, never
+ * request more pages than they need.
+ *
+ * <p>The view shares its position with the pages it was created from: every iterator continues where the last one
+ * stopped, and the view can only be traversed once.
+ *
+ * @param <T> The type of Thing in the listings
+ */
+final class ItemIterable<T extends Thing> extends FluentIterable<T> {
+    private final Iterator<Listing<T>> pages;
+    /** The Things of the listing currently being consumed. Shared by every iterator. */
+    private Iterator<T> page;
+
+    ItemIterable(Iterator<Listing<T>> pages) {
+        this.pages = pages;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new AbstractIterator<T>() {
+            @Override
+            protected T computeNext() {
+                while (page == null || !page.hasNext()) {
+                    if (!pages.hasNext()) {
+                        return endOfData();
+                    }
+                    page = pages.next().iterator();
+                }
+                return page.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,379 @@
+package net.dean.jraw.paginators;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.dean.jraw.JrawUtils;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Thing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeatedly polls a listing whose newest Things come first, such as the new submissions or comments of a subreddit,
+ * and passes every Thing that appeared since the previous poll to a {@link Listener}, oldest first.
+ *
+ * <p>Instead of reading the whole first page every time, a poll only asks for the Things that are newer than the
+ * newest one it has seen, using the listing's "before" parameter. Reddit returns nothing for "before" once that Thing
+ * has been deleted, so a poll that found nothing this way is followed by one that reads the first page, as is every
+ * {@link #FULL_POLL_EVERY}th poll. The full names of the most recent Things are kept in a ring of fixed size, so no
+ * Thing is delivered twice and memory use does not grow.
+ *
+ * <p>The time between polls adapts to how fast new Things appear. It aims for about a quarter of a page per poll,
+ * staying between a minimum and a maximum interval, so a quiet subreddit is polled rarely and a busy one often enough
+ * that no poll has to read more than one page. Requests go through the rate limit of the paginator's client with the
+ * paginator's {@link Paginator#getPriority() priority}.
+ *
+ * <p>Polls can either be made on a schedule with {@link #start()}, in which case the listener is called on the
+ * poller's thread, or one at a time with {@link #poll()}.
+ *
+ * @param <T> The type of Thing that is polled
+ */
+public class ListingPoller<T extends Thing> {
+    /** The default amount of full names remembered to avoid delivering a Thing twice */
+    public static final int DEFAULT_CAPACITY = 1000;
+    /** The default minimum time between polls, in milliseconds */
+    public static final long DEFAULT_MIN_INTERVAL_MILLIS = 2000;
+    /** The default maximum time between polls, in milliseconds */
+    public static final long DEFAULT_MAX_INTERVAL_MILLIS = 60000;
+    /** How often the first page is read instead of only the Things newer than the newest one seen */
+    public static final int FULL_POLL_EVERY = 10;
+    /** The maximum amount of pages a single poll reads to catch up after a burst of new Things */
+    public static final int MAX_CATCH_UP_PAGES = 10;
+
+    /**
+     * Receives the Things found by a {@link ListingPoller}
+     *
+     * @param <T> The type of Thing that is polled
+     */
+    public interface Listener<T extends Thing> {
+        /**
+         * Called for every Thing that appeared since the previous poll, oldest first
+         * @param thing The new Thing
+         */
+        public void onNew(T thing);
+
+        /**
+         * Called when a poll failed. Polling continues at the current interval.
+         * @param e The reason the poll failed
+         */
+        public void onFailure(NetworkException e);
+    }
+
+    private final Paginator<T> paginator;
+    private final Listener<? super T> listener;
+    /** Held for the whole of a poll, so that polls do not overlap. Never acquired while holding 'this'. */
+    private final Object pollLock;
+    /** Guarded by {@link #pollLock} */
+    private final RecentFullNames seen;
+    private final boolean ownsExecutor;
+
+    // All of the following are guarded by 'this'
+    private ScheduledExecutorService executor;
+    private long minIntervalNanos;
+    private long maxIntervalNanos;
+    private boolean includeExisting;
+    /** The full name of the newest Thing seen, which the next poll asks for the Things before */
+    private String newest;
+    private int pollsSinceFull;
+    /** True if the previous poll found nothing newer than {@link #newest}, which may have been deleted */
+    private boolean fullPollDue;
+    private boolean primed;
+    /** An exponentially weighted moving average of the amount of new Things per second */
+    private double rate;
+    private long lastPollNanos;
+    private long intervalNanos;
+    private ScheduledFuture<?> scheduled;
+    /** Incremented by start() so that a poll that was running during stop() does not schedule another one */
+    private int generation;
+
+    /**
+     * Instantiates a new ListingPoller that polls on its own thread once started
+     *
+     * @param paginator Creates the requests and parses the listings. Its sorting must put the newest Things first,
+     *                  like {@link Sorting#NEW}.
+     * @param listener Receives the new Things
+     */
+    public ListingPoller(Paginator<T> paginator, Listener<? super T> listener) {
+        this(paginator, listener, DEFAULT_CAPACITY, null);
+    }
+
+    /**
+     * Instantiates a new ListingPoller
+     *
+     * @param paginator Creates the requests and parses the listings. Its sorting must put the newest Things first,
+     *                  like {@link Sorting#NEW}.
+     * @param listener Receives the new Things
+     * @param capacity The amount of full names remembered to avoid delivering a Thing twice. Should be at least a few
+     *                 pages.
+     * @param executor Runs the polls once started, and may be shared by many pollers. If null, the poller creates a
+     *                 thread of its own.
+     */
+    public ListingPoller(Paginator<T> paginator, Listener<? super T> listener, int capacity,
+                         ScheduledExecutorService executor) {
+        this.paginator = paginator;
+        this.listener = listener;
+        this.pollLock = new Object();
+        this.seen = new RecentFullNames(capacity);
+        this.executor = executor;
+        this.ownsExecutor = executor == null;
+        this.minIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MIN_INTERVAL_MILLIS);
+        this.maxIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MAX_INTERVAL_MILLIS);
+        this.intervalNanos = minIntervalNanos;
+    }
+
+    /**
+     * Creates a ListingPoller for the new submissions of one or more subreddits
+     *
+     * @param reddit The RedditClient to send requests with
+     * @param subreddit The subreddit, or several joined by "+", such as "pics+funny"
+     * @param listener Receives the new submissions
+     * @return A new ListingPoller that has not been started yet
+     */
+    public static ListingPoller<Submission> submissions(RedditClient reddit, String subreddit,
+                                                        Listener<? super Submission> listener) {
+        SubredditPaginator paginator = new SubredditPaginator(reddit, subreddit);
+        paginator.setSorting(Sorting.NEW);
+        paginator.setLimit(Paginator.RECOMMENDED_MAX_LIMIT);
+        return new ListingPoller<>(paginator, listener);
+    }
+
+    /**
+     * Creates a ListingPoller for the newest comments of one or more subreddits. A single request every few seconds
+     * finds every new comment, without looking at the comments of each submission.
+     *
+     * @param reddit The RedditClient to send requests with
+     * @param subreddit The subreddit, or several joined by "+", such as "pics+funny"
+     * @param listener Receives the new comments
+     * @return A new ListingPoller that has not been started yet
+     * @see CommentStreamPaginator
+     */
+    public static ListingPoller<Comment> comments(RedditClient reddit, String subreddit,
+                                                  Listener<? super Comment> listener) {
+        CommentStreamPaginator paginator = Paginators.commentStream(reddit, subreddit);
+        paginator.setLimit(Paginator.RECOMMENDED_MAX_LIMIT);
+        return new ListingPoller<>(paginator, listener);
+    }
+
+    /**
+     * Polls once, without calling the listener. Polls made at the same time run one after another. The requests are
+     * sent without holding the lock that the other methods of this class use, so they do not wait for a poll.
+     *
+     * @return The Things that appeared since the previous poll, oldest first. Unless
+     *         {@link #setIncludeExisting(boolean)} was called, the first poll only records which Things already exist
+     *         and returns an empty list.
+     * @throws NetworkException If a request was not successful
+     */
+    public List<T> poll() throws NetworkException {
+        synchronized (pollLock) {
+            long now = System.nanoTime();
+            String before;
+            boolean full;
+            synchronized (this) {
+                before = newest;
+                full = newest == null || fullPollDue || pollsSinceFull + 1 >= FULL_POLL_EVERY;
+            }
+
+            List<T> found = new ArrayList<>();
+            boolean nothingBefore = false;
+            if (full) {
+                Listing<T> page = fetch(null);
+                addUnseen(page, found);
+                if (!page.isEmpty())
+                    before = page.get(0).getFullName();
+            } else {
+                // Each page holds the Things right before the cursor, so keep moving it until a page is not full
+                for (int i = 0; i < MAX_CATCH_UP_PAGES; i++) {
+                    Listing<T> page = fetch(before);
+                    addUnseen(page, found);
+                    if (page.isEmpty()) {
+                        nothingBefore = i == 0;
+                        break;
+                    }
+                    before = page.get(0).getFullName();
+                    if (page.size() < paginator.getLimit())
+                        break;
+                }
+            }
+
+            synchronized (this) {
+                newest = before;
+                pollsSinceFull = full ? 0 : pollsSinceFull + 1;
+                fullPollDue = nothingBefore;
+                if (!primed) {
+                    primed = true;
+                    if (!includeExisting)
+                        found.clear();
+                    lastPollNanos = now;
+                } else if (!nothingBefore) {
+                    // A quiet feed and a deleted cursor look the same, so only the full poll that follows counts
+                    updateInterval(found.size(), now);
+                    lastPollNanos = now;
+                }
+            }
+            return found;
+        }
+    }
+
+    private Listing<T> fetch(String before) throws NetworkException {
+        return paginator.parseListing(paginator.getHttpClient().execute(paginator.createRequest(null, before)));
+    }
+
+    /** Adds the Things of a page that were not seen before to the end of the list, oldest first */
+    private void addUnseen(Listing<T> page, List<T> found) {
+        int start = found.size();
+        for (T thing : page) {
+            if (seen.add(thing.getFullName()))
+                found.add(thing);
+        }
+        // Pages list the newest Thing first
+        Collections.reverse(found.subList(start, found.size()));
+    }
+
+    private void updateInterval(int found, long now) {
+        double elapsedSeconds = (now - lastPollNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        if (elapsedSeconds > 0)
+            rate = 0.5 * rate + 0.5 * (found / elapsedSeconds);
+
+        if (rate <= 0) {
+            intervalNanos *= 2;
+        } else {
+            double target = Math.max(1, paginator.getLimit() / 4);
+            intervalNanos = (long) (target / rate * TimeUnit.SECONDS.toNanos(1));
+        }
+        intervalNanos = Math.max(minIntervalNanos, Math.min(maxIntervalNanos, intervalNanos));
+    }
+
+    /**
+     * Starts polling. The first poll is made right away. Calling this method while the poller is running has no
+     * effect.
+     */
+    public synchronized void start() {
+        if (scheduled != null)
+            return;
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("jraw-poller-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        generation++;
+        schedule(0, generation);
+    }
+
+    /**
+     * Stops polling. A poll that is in progress is completed, but no new poll is started. The poller may be started
+     * again later and continues where it stopped.
+     */
+    public synchronized void stop() {
+        if (scheduled == null)
+            return;
+        scheduled.cancel(false);
+        scheduled = null;
+        if (ownsExecutor) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Checks whether this poller has been started and not stopped since
+     * @return True if polls are being made on a schedule
+     */
+    public synchronized boolean isRunning() {
+        return scheduled != null;
+    }
+
+    private void schedule(long delayNanos, final int generation) {
+        scheduled = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                pollAndDeliver(generation);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void pollAndDeliver(int generation) {
+        List<T> found = Collections.emptyList();
+        try {
+            found = poll();
+        } catch (NetworkException e) {
+            try {
+                listener.onFailure(e);
+            } catch (RuntimeException re) {
+                logListenerError(re);
+            }
+        } catch (RuntimeException e) {
+            JrawUtils.logger().error("Poll failed", e);
+        }
+
+        for (T thing : found) {
+            try {
+                listener.onNew(thing);
+            } catch (RuntimeException e) {
+                logListenerError(e);
+            }
+        }
+
+        synchronized (this) {
+            // Do not continue if stop() was called during this poll
+            if (scheduled != null && generation == this.generation)
+                schedule(intervalNanos, generation);
+        }
+    }
+
+    private static void logListenerError(RuntimeException e) {
+        JrawUtils.logger().error("ListingPoller.Listener threw an exception", e);
+    }
+
+    /**
+     * Sets the bounds of the time between polls
+     *
+     * @param min The shortest time between polls. Also used after the first poll.
+     * @param max The longest time between polls, which is used while no new Things appear
+     * @param unit The unit of min and max
+     */
+    public synchronized void setPollInterval(long min, long max, TimeUnit unit) {
+        if (min <= 0 || max < min) {
+            throw new IllegalArgumentException("Invalid interval: " + min + " to " + max + " " + unit);
+        }
+        this.minIntervalNanos = unit.toNanos(min);
+        this.maxIntervalNanos = unit.toNanos(max);
+        this.intervalNanos = Math.max(minIntervalNanos, Math.min(maxIntervalNanos, intervalNanos));
+    }
+
+    /**
+     * Gets the time until the next poll is made after the current one
+     * @param unit The unit to return the interval in
+     * @return The current interval
+     */
+    public synchronized long getPollInterval(TimeUnit unit) {
+        return unit.convert(intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets whether the Things that already exist when the poller starts are delivered as well. Defaults to false, in
+     * which case only the Things that appear after the first poll are delivered.
+     *
+     * @param includeExisting If the Things found by the first poll should be delivered
+     */
+    public synchronized void setIncludeExisting(boolean includeExisting) {
+        this.includeExisting = includeExisting;
+    }
+
+    /**
+     * Gets the paginator this poller uses to create requests and parse listings
+     * @return The paginator
+     */
+    public Paginator<T> getPaginator() {
+        return paginator;
+    }
+}
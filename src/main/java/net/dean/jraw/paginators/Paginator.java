@@ -1,9 +1,15 @@
 package net.dean.jraw.paginators;
 
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import net.dean.jraw.RedditClient;
 import net.dean.jraw.http.NetworkAccessible;
 import net.dean.jraw.http.NetworkException;
 import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RequestPriority;
 import net.dean.jraw.http.RestRequest;
 import net.dean.jraw.models.Listing;
 import net.dean.jraw.models.Thing;
@@ -33,6 +39,8 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
     public static final Sorting DEFAULT_SORTING = Sorting.HOT;
     /** The default time period */
     public static final TimePeriod DEFAULT_TIME_PERIOD = TimePeriod.DAY;
+    /** The default priority of the requests sent by a Paginator */
+    public static final RequestPriority DEFAULT_PRIORITY = RequestPriority.BULK;
 
     /** The client that created this */
     protected final RedditClient reddit;
@@ -41,13 +49,20 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
     protected Sorting sorting;
     protected TimePeriod timePeriod;
     protected int limit;
+    private RequestPriority priority;
     private boolean includeLimit;
     /** Current listing. Will get the next listing based on the current listing's "after" value */
     protected Listing<T> current;
     private int pageNumber;
+    /** Created by items() on first use */
+    private ItemIterable<T> items;
 
     private boolean started;
     private boolean changed;
+    /** Every Thing must match this for pagination to continue. Null if pagination only ends with the last page. */
+    private Predicate<? super T> takeWhile;
+    /** True once a Thing did not match {@link #takeWhile} */
+    private boolean stopped;
 
     /**
      * Instantiates a new Paginator
@@ -61,6 +76,7 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
         this.sorting = DEFAULT_SORTING;
         this.timePeriod = DEFAULT_TIME_PERIOD;
         this.limit = DEFAULT_LIMIT;
+        this.priority = DEFAULT_PRIORITY;
         this.changed = false;
         this.started = false;
         this.includeLimit = false;
@@ -76,18 +92,45 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
      *                               listing was requested and {@link #reset()} was not called.
      */
     protected Listing<T> getListing(boolean forwards) throws NetworkException, IllegalStateException {
+        RestRequest request = createRequest(forwards);
+        return onListingReceived(parseListing(getHttpClient().execute(request)));
+    }
+
+    /**
+     * Creates the request that will be used to retrieve the next listing
+     *
+     * @param forwards If true, the request will be for the next listing. If false, it will be for the first listing.
+     * @return A new request
+     * @throws IllegalStateException If a setter method (such as {@link #setLimit(int)} was called after the first
+     *                               listing was requested and {@link #reset()} was not called.
+     */
+    protected RestRequest createRequest(boolean forwards) throws IllegalStateException {
         if (started && changed) {
             throw new IllegalStateException("Cannot change parameters without calling reset()");
         }
 
+        String after = forwards && current != null ? current.getAfter() : null;
+        return createRequest(after, null);
+    }
+
+    /**
+     * Creates a request for the listing between the given Things, using this Paginator's settings but not its state.
+     * Used by {@link ListingPoller} to ask for only the Things that are newer than the ones it has seen.
+     *
+     * @param after The full name of the Thing the listing should come after, or null
+     * @param before The full name of the Thing the listing should come before, or null
+     * @return A new request
+     */
+    RestRequest createRequest(String after, String before) {
         String path = getBaseUri();
 
         Map<String, String> args = new HashMap<>();
         if (includeLimit)
             args.put("limit", String.valueOf(limit));
-        if (current != null)
-            if (forwards && current.getAfter() != null)
-                args.put("after", current.getAfter());
+        if (after != null)
+            args.put("after", after);
+        if (before != null)
+            args.put("before", before);
 
         if (timePeriod != null && (sorting == Sorting.CONTROVERSIAL || sorting == Sorting.TOP)) {
             // Time period only applies to controversial and top listings
@@ -99,11 +142,26 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
             args.putAll(extraArgs);
         }
 
-        RestRequest request = getHttpClient().request()
+        return getHttpClient().request()
                 .path(path)
                 .query(args)
+                .priority(priority)
                 .build();
-        Listing<T> listing = parseListing(getHttpClient().execute(request));
+    }
+
+    /**
+     * Updates this Paginator's state after a new listing has been retrieved
+     *
+     * @param listing The listing that was just retrieved
+     * @return The given listing
+     */
+    private Listing<T> onListingReceived(Listing<T> listing) {
+        Listing<T> taken = applyTakeWhile(listing);
+        if (taken.size() < listing.size()) {
+            stopped = true;
+        }
+        listing = taken;
+
         this.current = listing;
         pageNumber++;
 
@@ -114,6 +172,25 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
         return listing;
     }
 
+    /**
+     * Cuts the given listing off before the first Thing that does not match {@link #takeWhile}. Does not change this
+     * Paginator's state.
+     *
+     * @param listing The listing that was just retrieved
+     * @return The given listing, or a shorter copy of it if one of its Things did not match
+     */
+    Listing<T> applyTakeWhile(Listing<T> listing) {
+        Predicate<? super T> condition = takeWhile;
+        if (condition != null) {
+            for (int i = 0; i < listing.size(); i++) {
+                if (!condition.apply(listing.get(i))) {
+                    return listing.truncate(i);
+                }
+            }
+        }
+        return listing;
+    }
+
     /**
      * Responsible for turning a RedditResponse into a Thing
      * @param response The response
@@ -157,7 +234,7 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
 
     @Override
     public boolean hasNext() {
-        return (current != null && current.getAfter() != null) || !started;
+        return !stopped && ((current != null && current.getAfter() != null) || !started);
     }
 
     /**
@@ -175,6 +252,67 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
         }
     }
 
+    /**
+     * Gets the next listing without blocking the calling thread. The next request depends on the result of the
+     * previous one, so this method should not be called again until the returned future has completed.
+     *
+     * @return A future which will contain the next listing, or fail with a NetworkException if the request was not
+     *         successful
+     * @throws IllegalStateException If a setter method (such as {@link #setLimit(int)} was called after the first
+     *                               listing was requested and {@link #reset()} was not called.
+     */
+    public ListenableFuture<Listing<T>> nextAsync() throws IllegalStateException {
+        RestRequest request = createRequest(true);
+        return Futures.transform(getHttpClient().executeAsync(request), new Function<RedditResponse, Listing<T>>() {
+            @Override
+            public Listing<T> apply(RedditResponse response) {
+                return onListingReceived(parseListing(response));
+            }
+        });
+    }
+
+    /**
+     * Requests the listing after the given Thing without blocking the calling thread. Unlike {@link #nextAsync()}, the
+     * received listing does not change this Paginator's cursor or page index, so that {@link PrefetchingPaginator} can
+     * keep track of them itself and ignore pages that arrive after it was reset. The Paginator is only marked as
+     * started, so that changing its settings still requires a call to {@link #reset()}.
+     *
+     * @param after The full name of the Thing the listing should come after, or null for the first listing
+     * @return A future which will contain the listing, which is not cut off by {@link #getTakeWhile()} yet
+     * @throws IllegalStateException If a setter method (such as {@link #setLimit(int)} was called after the first
+     *                               listing was requested and {@link #reset()} was not called.
+     */
+    ListenableFuture<Listing<T>> fetchAsync(String after) throws IllegalStateException {
+        if (started && changed) {
+            throw new IllegalStateException("Cannot change parameters without calling reset()");
+        }
+        started = true;
+
+        RestRequest request = createRequest(after, null);
+        return Futures.transform(getHttpClient().executeAsync(request), new Function<RedditResponse, Listing<T>>() {
+            @Override
+            public Listing<T> apply(RedditResponse response) {
+                return parseListing(response);
+            }
+        });
+    }
+
+    /**
+     * Gets a lazy view of the individual Things in the remaining listings. A new listing is only requested once every
+     * Thing of the previous one has been consumed, so a scan that stops early, such as
+     * {@code paginator.items().filter(predicate).limit(30)}, does not request any page it does not need. Like this
+     * Paginator, the view can only be traversed once: a later scan continues right after the last Thing an earlier one
+     * consumed. Calling {@link #reset()} starts a new view.
+     *
+     * @return A view of the Things in the listings this Paginator has not returned yet
+     * @throws RuntimeException If a listing could not be retrieved while iterating
+     */
+    public FluentIterable<T> items() {
+        if (items == null)
+            items = new ItemIterable<>(this);
+        return items;
+    }
+
     /**
      * Generates the base URI. Parameters will be stacked after this URI to form a query. For example,
      * {@link net.dean.jraw.paginators.SubredditPaginator} will return something like "/r/pics/new.json"
@@ -230,6 +368,67 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
         invalidate();
     }
 
+    /**
+     * Gets the maximum amount of Things in each listing
+     * @return The limit set by {@link #setLimit(int)}, or {@link #DEFAULT_LIMIT} if none was set
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Gets the priority with which this Paginator's requests will be admitted when the rate limit is being enforced
+     * @return The priority of this Paginator's requests
+     */
+    public RequestPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority with which this Paginator's requests will be admitted when the rate limit is being enforced.
+     * Defaults to {@link RequestPriority#BULK} so that crawling through many pages does not hold up other requests.
+     * Unlike other setters, this method does not require {@link #reset()} to be called.
+     *
+     * @param priority The new priority
+     */
+    public void setPriority(RequestPriority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Sets a condition that every Thing must match for pagination to continue. The Things of each listing are tested in
+     * order as soon as it arrives. The first one that does not match ends pagination: the listing is cut off right
+     * before it, and {@link #hasNext()} returns false from then on. This is useful with sortings that are ordered by
+     * time, such as {@link Sorting#NEW}, to stop at a point in time or at the first Thing that was already seen without
+     * requesting any page after it. See {@link ThingPredicates} for common conditions.
+     *
+     * <p>Unlike other setters, this method does not require {@link #reset()} to be called. Calling {@link #reset()}
+     * allows a Paginator that has stopped to start over, and keeps the condition.
+     *
+     * @param takeWhile The new condition, or null to only stop after the last page
+     */
+    public void setTakeWhile(Predicate<? super T> takeWhile) {
+        this.takeWhile = takeWhile;
+    }
+
+    /**
+     * Gets the condition that every Thing must match for pagination to continue
+     * @return The current condition, or null if there is none
+     */
+    public Predicate<? super T> getTakeWhile() {
+        return takeWhile;
+    }
+
+    /**
+     * Checks whether pagination was ended early because a Thing did not match the condition set by
+     * {@link #setTakeWhile(Predicate)}. Calling {@link #reset()} resets this.
+     *
+     * @return True if pagination was ended by the condition
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
     /**
      * Checks whether this Paginator has sent a request yet. Calling {@link #reset()} resets this.
      * @return True if this Paginator has sent a request yet, false if else
@@ -254,6 +453,8 @@ public abstract class Paginator<T extends Thing> implements Iterator<Listing<T>>
         started = false;
         changed = false;
         pageNumber = 0;
+        items = null;
+        stopped = false;
     }
 
     /**
@@ -50,6 +50,20 @@ public final class Paginators {
         return new SubredditPaginator(reddit, subreddit);
     }
 
+    /**
+     * Creates a new CommentStreamPaginator that iterates through the newest comments of one or more subreddits
+     * @param reddit The RedditClient to send requests with
+     * @param subreddit The subreddit whose comments to iterate
+     * @param others Other subreddits to include in the request
+     * @return A new CommentStreamPaginator
+     */
+    public static CommentStreamPaginator commentStream(RedditClient reddit, String subreddit, String... others) {
+        List<String> subs = new ArrayList<>(others.length + 1);
+        subs.add(subreddit);
+        Collections.addAll(subs, others);
+        return new CommentStreamPaginator(reddit, subs);
+    }
+
     /**
      * Creates a new ImportantUserPaginator
      * @param reddit The RedditClient to send requests with
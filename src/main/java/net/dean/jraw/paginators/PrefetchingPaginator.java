@@ -0,0 +1,276 @@
+package net.dean.jraw.paginators;
+
+import com.google.common.base.Function;
+import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Thing;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Wraps a {@link Paginator} and requests the following pages in the background while the caller is still working on
+ * the current one. As soon as a page arrives, the request for the page after it is sent using that page's "after"
+ * value, until up to {@code depth} pages are either waiting to be returned or on their way. Walking through many pages
+ * then takes about as long as the slower of the network and the caller, instead of both added together.
+ *
+ * <p>The requests are sent with the paginator's settings and client, so they go through the rate limit like any other
+ * request, with the paginator's {@link Paginator#getPriority() priority}. The position in the listing is kept by this
+ * class rather than by the paginator. Nothing is requested until {@link #hasNext()} or {@link #next()} is first called.
+ *
+ * <p>The wrapped paginator should be configured before it is wrapped, and must not be used directly afterwards. To
+ * start over with different settings, change them on the paginator and then call {@link #reset()} on this class, which
+ * cancels every request still in flight.
+ *
+ * @param <T> The type that the listings will contain
+ */
+public class PrefetchingPaginator<T extends Thing> implements Iterator<Listing<T>> {
+    /** The default amount of pages to request ahead of the caller */
+    public static final int DEFAULT_DEPTH = 1;
+
+    private final Paginator<T> paginator;
+    private final int depth;
+    /** Cuts a received page off where the paginator's takeWhile condition stops matching */
+    private final Function<Listing<T>, Listing<T>> takeWhile;
+    /** Pages that have been requested but not returned by next() yet, oldest first. Guarded by 'this'. */
+    private final Deque<ListenableFuture<Listing<T>>> pending;
+    /** The most recently requested page, which the next request depends on. Guarded by 'this'. */
+    private ListenableFuture<Listing<T>> last;
+    /** {@link #last} before the takeWhile condition was applied to it. Guarded by 'this'. */
+    private ListenableFuture<Listing<T>> lastReceived;
+    /** True once {@link #last} has arrived and its "after" value has been taken. Guarded by 'this'. */
+    private boolean lastApplied;
+    /** The "after" value of the last page that arrived, or null. Guarded by 'this'. */
+    private String after;
+    /** True once the first page has arrived. Guarded by 'this'. */
+    private boolean started;
+    /** True once a page was cut off by the paginator's takeWhile condition. Guarded by 'this'. */
+    private boolean stopped;
+    /** Incremented by reset() so that pages requested before it are ignored when they arrive. Guarded by 'this'. */
+    private int generation;
+    private Listing<T> current;
+    private int pageNumber;
+    /** Created by items() on first use. Guarded by 'this'. */
+    private ItemIterable<T> items;
+
+    /**
+     * Instantiates a new PrefetchingPaginator that requests {@link #DEFAULT_DEPTH} page ahead
+     * @param paginator The paginator to wrap
+     */
+    public PrefetchingPaginator(Paginator<T> paginator) {
+        this(paginator, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Instantiates a new PrefetchingPaginator
+     *
+     * @param paginator The paginator to wrap
+     * @param depth The maximum amount of pages to request ahead of the caller. Each of these pages is kept in memory
+     *              until it is returned by {@link #next()}.
+     */
+    public PrefetchingPaginator(Paginator<T> paginator, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1");
+        }
+        this.paginator = paginator;
+        this.depth = depth;
+        this.takeWhile = new Function<Listing<T>, Listing<T>>() {
+            @Override
+            public Listing<T> apply(Listing<T> listing) {
+                return PrefetchingPaginator.this.paginator.applyTakeWhile(listing);
+            }
+        };
+        this.pending = new ArrayDeque<>(depth + 1);
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        fill();
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Gets the next listing, waiting for it to arrive if it has not already
+     *
+     * @return The next listing
+     * @throws NoSuchElementException If there are no more listings
+     * @throws RuntimeException If there was a problem getting the next listing. Calling this method again will request
+     *                          the same listing again.
+     */
+    @Override
+    public Listing<T> next() {
+        ListenableFuture<Listing<T>> page;
+        synchronized (this) {
+            fill();
+            page = pending.poll();
+        }
+        if (page == null) {
+            throw new NoSuchElementException("There are no more listings");
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    Listing<T> listing = page.get();
+                    synchronized (this) {
+                        current = listing;
+                        pageNumber++;
+                        fill();
+                    }
+                    return listing;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    synchronized (this) {
+                        // Allow the failed page to be requested again, the cursor has not moved past it
+                        if (page == last)
+                            last = null;
+                    }
+                    throw new RuntimeException("Could not get the next listing", e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Requests pages until {@link #depth} of them are pending. Since every request needs the "after" value of the page
+     * before it, at most one page is on its way at any time.
+     */
+    private synchronized void fill() {
+        while (pending.size() < depth && lastArrived() && hasMorePages()) {
+            ListenableFuture<Listing<T>> received = paginator.fetchAsync(after);
+            final ListenableFuture<Listing<T>> page = Futures.transform(received, takeWhile);
+            final int requestedGeneration = generation;
+            pending.add(page);
+            last = page;
+            lastReceived = received;
+            lastApplied = false;
+            page.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (PrefetchingPaginator.this) {
+                        // Pages requested before reset() must not move the cursor of the new generation
+                        if (requestedGeneration == generation && page == last)
+                            fill();
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
+
+    /**
+     * Checks if the most recently requested page has arrived, and moves the cursor past it the first time it is found
+     * to have arrived successfully. A failed page does not move the cursor, so that it can be requested again.
+     *
+     * @return True if nothing was requested yet or the most recently requested page arrived successfully
+     */
+    private boolean lastArrived() {
+        if (last == null || lastApplied)
+            return true;
+        if (!last.isDone())
+            return false;
+
+        Listing<T> listing;
+        try {
+            listing = last.get();
+            // The takeWhile condition only cuts a page off once a Thing did not match
+            if (listing.size() < lastReceived.get().size())
+                stopped = true;
+        } catch (InterruptedException | ExecutionException | CancellationException e) {
+            return false;
+        }
+        after = listing.getAfter();
+        started = true;
+        lastApplied = true;
+        return true;
+    }
+
+    private boolean hasMorePages() {
+        return !stopped && (!started || after != null);
+    }
+
+    /**
+     * Gets a lazy view of the individual Things in the remaining listings. Pages are still requested ahead of the
+     * caller, and those a scan stops before reaching can still be returned by {@link #next()} later.
+     *
+     * @return A view of the Things in the listings this PrefetchingPaginator has not returned yet
+     * @see Paginator#items()
+     */
+    public synchronized FluentIterable<T> items() {
+        if (items == null)
+            items = new ItemIterable<>(this);
+        return items;
+    }
+
+    /**
+     * Cancels every page that has been requested but not returned yet and resets the wrapped paginator. Call this
+     * method after changing a setting of the wrapped paginator, such as {@link Paginator#setSorting(Sorting)}.
+     */
+    public synchronized void reset() {
+        generation++;
+        for (ListenableFuture<Listing<T>> page : pending) {
+            page.cancel(true);
+        }
+        pending.clear();
+        last = null;
+        lastReceived = null;
+        lastApplied = false;
+        after = null;
+        started = false;
+        stopped = false;
+        current = null;
+        pageNumber = 0;
+        items = null;
+        paginator.reset();
+    }
+
+    /**
+     * Gets the last listing returned by {@link #next()}
+     * @return The last listing returned, or null if none was returned yet or {@link #reset()} was just called
+     */
+    public synchronized Listing<T> getCurrentListing() {
+        return current;
+    }
+
+    /**
+     * Gets the index of the last page returned by {@link #next()}, where 1 is the first page. Pages that were requested
+     * in advance are not counted until they are returned.
+     *
+     * @return The index of the current page, or 0 if none was returned yet or {@link #reset()} was just called
+     */
+    public synchronized int getPageIndex() {
+        return pageNumber;
+    }
+
+    /**
+     * Gets the amount of pages that have been requested but not returned by {@link #next()} yet
+     * @return The amount of pending pages, at most the depth this PrefetchingPaginator was created with
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the paginator that is wrapped by this class
+     * @return The wrapped paginator
+     */
+    public Paginator<T> getPaginator() {
+        return paginator;
+    }
+
+    @Override
+    public final void remove() {
+        throw new UnsupportedOperationException("Cannot modify listing data");
+    }
+}
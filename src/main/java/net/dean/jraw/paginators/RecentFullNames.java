@@ -0,0 +1,53 @@
+package net.dean.jraw.paginators;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A set of the most recently added full names, whose memory use does not grow over time. Once it holds its capacity,
+ * adding a full name evicts the one that was added the longest time ago. Not thread-safe.
+ */
+final class RecentFullNames {
+    /** The full names in the order they were added. Once full, 'next' points at the oldest one. */
+    private final String[] ring;
+    private final Set<String> members;
+    private int next;
+
+    RecentFullNames(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.ring = new String[capacity];
+        // Sized so that the set never has to grow
+        this.members = new HashSet<>(capacity * 4 / 3 + 1);
+    }
+
+    /**
+     * Adds a full name unless it is already present
+     * @return True if the full name was not present before
+     */
+    boolean add(String fullName) {
+        if (!members.add(fullName)) {
+            return false;
+        }
+        String evicted = ring[next];
+        if (evicted != null) {
+            members.remove(evicted);
+        }
+        ring[next] = fullName;
+        next = (next + 1) % ring.length;
+        return true;
+    }
+
+    boolean contains(String fullName) {
+        return members.contains(fullName);
+    }
+
+    int size() {
+        return members.size();
+    }
+
+    int capacity() {
+        return ring.length;
+    }
+}
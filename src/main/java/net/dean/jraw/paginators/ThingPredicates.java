@@ -0,0 +1,83 @@
+package net.dean.jraw.paginators;
+
+import com.google.common.base.Predicate;
+import net.dean.jraw.models.Contribution;
+import net.dean.jraw.models.Thing;
+import net.dean.jraw.models.attr.Created;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class provides conditions for {@link Paginator#setTakeWhile(Predicate)}. Each of them decides whether
+ * pagination should continue past a Thing.
+ */
+public final class ThingPredicates {
+    /**
+     * Creates a condition that matches Things created after the given point in time. Things that do not have a
+     * creation date always match. Use with {@link Sorting#NEW} to stop at the first Thing older than the given time.
+     *
+     * @param epochSeconds The point in time in UTC, in seconds since the epoch
+     * @return A new condition
+     */
+    public static Predicate<Thing> createdAfter(final long epochSeconds) {
+        return new Predicate<Thing>() {
+            @Override
+            public boolean apply(Thing thing) {
+                if (thing instanceof Contribution) {
+                    // Avoids creating a Date for every Thing
+                    long created = ((Contribution) thing).createdUtcEpochSeconds();
+                    return created == 0 || created > epochSeconds;
+                }
+                if (thing instanceof Created) {
+                    Date created = ((Created) thing).getCreatedUtc();
+                    return created == null || TimeUnit.MILLISECONDS.toSeconds(created.getTime()) > epochSeconds;
+                }
+                return true;
+            }
+
+            @Override
+            public String toString() {
+                return "createdAfter(" + epochSeconds + ")";
+            }
+        };
+    }
+
+    /**
+     * Creates a condition that matches Things created after the given date
+     *
+     * @param date The date
+     * @return A new condition
+     * @see #createdAfter(long)
+     */
+    public static Predicate<Thing> createdAfter(Date date) {
+        return createdAfter(TimeUnit.MILLISECONDS.toSeconds(date.getTime()));
+    }
+
+    /**
+     * Creates a condition that matches Things whose full name is not in the given set. Use with {@link Sorting#NEW} to
+     * stop at the first Thing that was already seen by an earlier pass, such as the newest Thing of the last backfill.
+     * The set is read every time the condition is tested, so it may be updated between passes.
+     *
+     * @param fullNames The full names of the Things that were already seen, such as "t3_2qh0u"
+     * @return A new condition
+     */
+    public static Predicate<Thing> notSeen(final Set<String> fullNames) {
+        return new Predicate<Thing>() {
+            @Override
+            public boolean apply(Thing thing) {
+                return !fullNames.contains(thing.getFullName());
+            }
+
+            @Override
+            public String toString() {
+                return "notSeen(" + fullNames.size() + " full names)";
+            }
+        };
+    }
+
+    private ThingPredicates() {
+        // no instances
+    }
+}
@@ -0,0 +1,84 @@
+package net.dean.jraw.test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RestRequest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link net.dean.jraw.http.RestClient#executeAsync(RestRequest)} against a local server */
+public class AsyncExecutionTest {
+    private LocalServer server;
+    private RedditClient client;
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer()
+                .respond("/ok.json", 200, "application/json", "{\"foo\": \"bar\"}")
+                .respond("/error.json", 503, "application/json", "{}");
+        client = new RedditClient("AsyncExecutionTest", 0);
+        client.setRequestLoggingEnabled(false);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        RedditResponse response = client.executeAsync(request("/ok.json")).get(10, TimeUnit.SECONDS);
+        assertEquals(response.getJson().get("foo").asText(), "bar");
+    }
+
+    @Test
+    public void testManyOutstanding() throws Exception {
+        List<ListenableFuture<RedditResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(client.executeAsync(request("/ok.json")));
+        }
+
+        for (RedditResponse response : Futures.allAsList(futures).get(30, TimeUnit.SECONDS)) {
+            assertEquals(response.getJson().get("foo").asText(), "bar");
+        }
+    }
+
+    @Test
+    public void testExecuteAsyncRateLimited() throws Exception {
+        RedditClient limited = new RedditClient("AsyncExecutionTest", 600);
+        limited.setRequestLoggingEnabled(false);
+        ListenableFuture<RedditResponse> first = limited.executeAsync(request("/ok.json"));
+        ListenableFuture<RedditResponse> second = limited.executeAsync(request("/ok.json"));
+        assertNotNull(first.get(10, TimeUnit.SECONDS).getJson());
+        assertNotNull(second.get(10, TimeUnit.SECONDS).getJson());
+    }
+
+    @Test
+    public void testExecuteAsyncFailure() throws Exception {
+        try {
+            client.executeAsync(request("/error.json")).get(10, TimeUnit.SECONDS);
+            fail("Expected an ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NetworkException);
+            assertEquals(((NetworkException) e.getCause()).getCode(), 503);
+        }
+    }
+
+    private RestRequest request(String path) {
+        return client.request()
+                .host(server.getHost())
+                .path(path)
+                .build();
+    }
+}
@@ -0,0 +1,320 @@
+package net.dean.jraw.test;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.CircuitBreaker;
+import net.dean.jraw.http.CircuitBreakerListener;
+import net.dean.jraw.http.CircuitBreakerOpenException;
+import net.dean.jraw.http.CircuitBreakerPolicy;
+import net.dean.jraw.http.HttpRequest;
+import net.dean.jraw.http.HttpResponse;
+import net.dean.jraw.http.HttpTransport;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RestRequest;
+import net.dean.jraw.http.UrlConnectionTransport;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link CircuitBreaker} with a fake clock, and how {@link net.dean.jraw.http.RestClient} uses it */
+public class CircuitBreakerTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private LocalServer server;
+    private FakeTicker ticker;
+    private List<CircuitBreaker.State> transitions;
+    private CircuitBreaker breaker;
+
+    /** Released to let the responses to /hang.json be sent */
+    private CountDownLatch hanging;
+
+    @BeforeClass
+    public void startServer() {
+        hanging = new CountDownLatch(1);
+        server = new LocalServer()
+                .respond("/error.json", 503, "application/json", "{}")
+                .handle("/hang.json", new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        Uninterruptibles.awaitUninterruptibly(hanging, 10, TimeUnit.SECONDS);
+                        LocalServer.send(exchange, 200, "application/json", "{}");
+                    }
+                });
+    }
+
+    @AfterClass
+    public void stopServer() {
+        hanging.countDown();
+        server.stop();
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        ticker = new FakeTicker();
+        transitions = new ArrayList<>();
+        breaker = new CircuitBreaker("localhost", policy(), ticker, new CircuitBreakerListener() {
+            @Override
+            public void onStateChange(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+                transitions.add(to);
+            }
+        });
+    }
+
+    @Test
+    public void testOpensOnFailureRate() {
+        // 2 out of 4 have failed, which reaches the 50% threshold
+        recordSuccesses(2);
+        recordFailures(1);
+        assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        recordFailures(1);
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testOpensOnSlowCalls() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onResult(false, 2 * SECOND);
+        }
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void testOldOutcomesForgotten() {
+        recordFailures(1);
+        recordSuccesses(10);
+        assertEquals(breaker.getFailureRate(), 0.0);
+        assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void testHalfOpenRecovers() {
+        recordFailures(4);
+        ticker.advance(10 * SECOND);
+        assertTrue(breaker.tryAcquire());
+        assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        assertTrue(breaker.tryAcquire());
+        // Only two probes are allowed at a time
+        assertFalse(breaker.tryAcquire());
+        breaker.onResult(false, 0);
+        breaker.onResult(false, 0);
+        assertEquals(breaker.getState(), CircuitBreaker.State.CLOSED);
+        assertEquals(transitions, list(CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN,
+                CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    public void testHalfOpenFailureReopens() {
+        recordFailures(4);
+        ticker.advance(10 * SECOND);
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(true, 0);
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        RedditClient client = new RedditClient("CircuitBreakerTest", 0);
+        client.setRequestLoggingEnabled(false);
+        client.setCircuitBreakerPolicy(policy());
+        final List<CircuitBreaker.State> states = new ArrayList<>();
+        client.addCircuitBreakerListener(new CircuitBreakerListener() {
+            @Override
+            public void onStateChange(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+                states.add(to);
+            }
+        });
+
+        int before = server.getRequestCount();
+        for (int i = 0; i < 4; i++) {
+            try {
+                client.execute(request(client));
+                fail("Expected a 503");
+            } catch (NetworkException e) {
+                assertEquals(e.getCode(), 503);
+            }
+        }
+        assertEquals(states, list(CircuitBreaker.State.OPEN));
+        assertEquals(client.getCircuitBreaker(server.getHost()).getState(), CircuitBreaker.State.OPEN);
+
+        try {
+            client.execute(request(client));
+            fail("Expected the breaker to be open");
+        } catch (CircuitBreakerOpenException e) {
+            assertEquals(e.getHost(), server.getHost());
+        }
+        try {
+            client.executeAsync(request(client)).get(10, TimeUnit.SECONDS);
+            fail("Expected the breaker to be open");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+        }
+        // Neither request reached the server
+        assertEquals(server.getRequestCount() - before, 4);
+    }
+
+    @Test
+    public void testCancelledProbeReleased() throws Exception {
+        RedditClient client = new RedditClient("CircuitBreakerTest", 0);
+        CircuitBreaker breaker = openBreaker(client);
+
+        // The only probe allowed never finishes, and is cancelled while the server is still working on it
+        int before = server.getRequestCount();
+        ListenableFuture<RedditResponse> probe = client.executeAsync(
+                client.request().host(server.getHost()).path("/hang.json").build());
+        while (server.getRequestCount() == before) {
+            Thread.sleep(10);
+        }
+        assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+        probe.cancel(true);
+
+        // Another probe can be sent
+        try {
+            client.execute(request(client));
+            fail("Expected a 503");
+        } catch (NetworkException e) {
+            assertEquals(e.getCode(), 503);
+        }
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void testFailedProbeReleased() throws Exception {
+        final AtomicBoolean broken = new AtomicBoolean();
+        final HttpTransport delegate = new UrlConnectionTransport();
+        HttpTransport transport = new HttpTransport() {
+            @Override
+            public HttpResponse execute(HttpRequest request) throws IOException {
+                if (broken.get())
+                    throw new IllegalStateException("Broken transport");
+                return delegate.execute(request);
+            }
+
+            @Override
+            public ListenableFuture<HttpResponse> executeAsync(HttpRequest request) {
+                return delegate.executeAsync(request);
+            }
+
+            @Override
+            public void setConnectTimeout(long timeout, TimeUnit unit) {
+                delegate.setConnectTimeout(timeout, unit);
+            }
+
+            @Override
+            public long getConnectTimeout(TimeUnit unit) {
+                return delegate.getConnectTimeout(unit);
+            }
+        };
+        RedditClient client = new RedditClient("CircuitBreakerTest", 0, server.getHost(), transport);
+        CircuitBreaker breaker = openBreaker(client);
+
+        // The only probe allowed fails with something other than an IOException
+        broken.set(true);
+        try {
+            client.execute(request(client));
+            fail("Expected the transport to fail");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(breaker.getState(), CircuitBreaker.State.HALF_OPEN);
+
+        // Another probe can be sent
+        broken.set(false);
+        try {
+            client.execute(request(client));
+            fail("Expected a 503");
+        } catch (NetworkException e) {
+            assertEquals(e.getCode(), 503);
+        }
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+    }
+
+    /** Makes the client's breaker for the local server open, and waits until it lets a probe through */
+    private CircuitBreaker openBreaker(RedditClient client) throws InterruptedException {
+        client.setRequestLoggingEnabled(false);
+        client.setCircuitBreakerPolicy(new CircuitBreakerPolicy.Builder()
+                .windowSize(4, 4)
+                .failureRateThreshold(0.5)
+                .openDuration(50, TimeUnit.MILLISECONDS)
+                .halfOpenCalls(1)
+                .build());
+        for (int i = 0; i < 4; i++) {
+            try {
+                client.execute(request(client));
+                fail("Expected a 503");
+            } catch (NetworkException e) {
+                assertEquals(e.getCode(), 503);
+            }
+        }
+        CircuitBreaker breaker = client.getCircuitBreaker(server.getHost());
+        assertEquals(breaker.getState(), CircuitBreaker.State.OPEN);
+        Thread.sleep(100);
+        return breaker;
+    }
+
+    private RestRequest request(RedditClient client) {
+        return client.request().host(server.getHost()).path("/error.json").build();
+    }
+
+    private void recordSuccesses(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onResult(false, 0);
+        }
+    }
+
+    private void recordFailures(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onResult(true, 0);
+        }
+    }
+
+    private static List<CircuitBreaker.State> list(CircuitBreaker.State... states) {
+        List<CircuitBreaker.State> list = new ArrayList<>();
+        for (CircuitBreaker.State state : states) {
+            list.add(state);
+        }
+        return list;
+    }
+
+    private static CircuitBreakerPolicy policy() {
+        return new CircuitBreakerPolicy.Builder()
+                .windowSize(4, 4)
+                .failureRateThreshold(0.5)
+                .slowCallThreshold(1, TimeUnit.SECONDS)
+                .openDuration(5, TimeUnit.SECONDS)
+                .halfOpenCalls(2)
+                .build();
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long nanos) {
+            this.nanos += nanos;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package net.dean.jraw.test;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RequestListener;
+import net.dean.jraw.http.RestRequest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.Assert.*;
+
+/** Tests that identical coalescing requests in flight at the same time are only sent once */
+public class CoalescingTest {
+    private LocalServer server;
+    private RedditClient client;
+    private volatile CountDownLatch release;
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer().handle("/slow.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                Uninterruptibles.awaitUninterruptibly(release, 10, TimeUnit.SECONDS);
+                LocalServer.send(exchange, 200, "application/json", "{\"foo\": \"bar\"}");
+            }
+        });
+        client = new RedditClient("CoalescingTest", 0);
+        client.setRequestLoggingEnabled(false);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        release = new CountDownLatch(1);
+        int before = server.getRequestCount();
+        long coalescedBefore = client.getCoalescedRequestCount();
+        ExecutorService threads = Executors.newFixedThreadPool(10);
+
+        try {
+            List<Future<RedditResponse>> sync = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                sync.add(threads.submit(new Callable<RedditResponse>() {
+                    @Override
+                    public RedditResponse call() throws NetworkException {
+                        return client.execute(request(true));
+                    }
+                }));
+            }
+            List<ListenableFuture<RedditResponse>> async = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                async.add(client.executeAsync(request(true)));
+            }
+
+            // Wait for everyone to join the single request before letting it finish
+            long deadline = System.currentTimeMillis() + 10000;
+            while (client.getCoalescedRequestCount() - coalescedBefore < 14 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            RedditResponse first = sync.get(0).get(10, TimeUnit.SECONDS);
+            assertEquals(first.getJson().get("foo").asText(), "bar");
+            for (Future<RedditResponse> f : sync) {
+                assertSame(f.get(10, TimeUnit.SECONDS), first);
+            }
+            for (RedditResponse response : Futures.allAsList(async).get(10, TimeUnit.SECONDS)) {
+                assertSame(response, first);
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        assertEquals(server.getRequestCount() - before, 1);
+        assertEquals(client.getCoalescedRequestCount() - coalescedBefore, 14);
+    }
+
+    @Test
+    public void testLeaderError() throws Exception {
+        release = new CountDownLatch(0);
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        FailingLeader listener = new FailingLeader(client.getCoalescedRequestCount() + 1);
+        client.addRequestListener(listener);
+        try {
+            Future<RedditResponse> leader = threads.submit(new Callable<RedditResponse>() {
+                @Override
+                public RedditResponse call() throws NetworkException {
+                    return client.execute(request(true));
+                }
+            });
+            assertTrue(listener.entered.await(10, TimeUnit.SECONDS));
+            try {
+                client.execute(request(true));
+                fail("Expected the error of the leader");
+            } catch (AssertionError e) {
+                assertEquals(e.getMessage(), "Leader failed");
+            }
+            try {
+                leader.get(10, TimeUnit.SECONDS);
+                fail("Expected the error of the leader");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof AssertionError);
+            }
+        } finally {
+            client.removeRequestListener(listener);
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncLeaderError() throws Exception {
+        release = new CountDownLatch(0);
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        FailingLeader listener = new FailingLeader(client.getCoalescedRequestCount() + 1);
+        client.addRequestListener(listener);
+        try {
+            Future<ListenableFuture<RedditResponse>> leader = threads.submit(
+                    new Callable<ListenableFuture<RedditResponse>>() {
+                @Override
+                public ListenableFuture<RedditResponse> call() {
+                    return client.executeAsync(request(true));
+                }
+            });
+            assertTrue(listener.entered.await(10, TimeUnit.SECONDS));
+            try {
+                client.executeAsync(request(true)).get(10, TimeUnit.SECONDS);
+                fail("Expected the error of the leader");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof AssertionError);
+            }
+            try {
+                leader.get(10, TimeUnit.SECONDS);
+                fail("Expected the error of the leader");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof AssertionError);
+            }
+        } finally {
+            client.removeRequestListener(listener);
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void testNotCoalescing() throws Exception {
+        release = new CountDownLatch(0);
+        int before = server.getRequestCount();
+        List<ListenableFuture<RedditResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(client.executeAsync(request(false)));
+        }
+        Futures.allAsList(futures).get(10, TimeUnit.SECONDS);
+        assertEquals(server.getRequestCount() - before, 3);
+    }
+
+    @Test
+    public void testOnlyGetRequests() {
+        assertTrue(request(true).isCoalescing());
+        assertFalse(client.request().host(server.getHost()).path("/slow.json").coalesce(true).post(null).build()
+                .isCoalescing());
+    }
+
+    /** Fails the first request it sees with an Error, once another caller has joined it */
+    private class FailingLeader extends RequestListener.Adapter {
+        private final long coalesced;
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private FailingLeader(long coalesced) {
+            this.coalesced = coalesced;
+        }
+
+        @Override
+        public void onQueued(RestRequest request) {
+            if (!failed.compareAndSet(false, true))
+                return;
+            entered.countDown();
+            long deadline = System.currentTimeMillis() + 10000;
+            while (client.getCoalescedRequestCount() < coalesced && System.currentTimeMillis() < deadline) {
+                Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+            }
+            throw new AssertionError("Leader failed");
+        }
+    }
+
+    private RestRequest request(boolean coalesce) {
+        return client.request()
+                .host(server.getHost())
+                .path("/slow.json")
+                .coalesce(coalesce)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package net.dean.jraw.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.RestRequest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/** Tests that a single RedditClient can be used by many threads at once */
+public class ConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 200;
+    private LocalServer server;
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer().handle("/echo.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String token = exchange.getRequestHeaders().getFirst("X-Token");
+                String agent = exchange.getRequestHeaders().getFirst("User-Agent");
+                LocalServer.send(exchange, 200, "application/json",
+                        "{\"token\": \"" + token + "\", \"agent\": \"" + agent + "\"}");
+            }
+        });
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testSharedClient() throws Exception {
+        final RedditClient client = new RedditClient("ConcurrencyTest", 0);
+        client.setRequestLoggingEnabled(false);
+        client.setSaveResponseHistory(true);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                final String token = String.valueOf(i);
+                results.add(threads.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        // Change a default header while other requests are being built and sent
+                        client.setUserAgent("ConcurrencyTest-" + token);
+                        RestRequest request = client.request()
+                                .host(server.getHost())
+                                .path("/echo.json")
+                                .build()
+                                .withHeader("X-Token", token);
+                        String body = client.execute(request).getJson().get("token").asText();
+                        assertEquals(body, token);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(client.getHistory().size(), REQUESTS);
+        assertTrue(client.getUserAgent().startsWith("ConcurrencyTest-"));
+    }
+
+    @Test
+    public void testHistoryIsSnapshot() throws Exception {
+        RedditClient client = new RedditClient("ConcurrencyTest", 0);
+        client.setRequestLoggingEnabled(false);
+        client.setSaveResponseHistory(true);
+        RestRequest request = client.request().host(server.getHost()).path("/echo.json").build();
+
+        client.execute(request);
+        int size = client.getHistory().size();
+        client.getHistory().clear();
+        client.execute(request);
+        assertEquals(client.getHistory().size(), size + 1);
+    }
+
+    @Test
+    public void testWithHeaderDoesNotModifyOriginal() {
+        RedditClient client = new RedditClient("ConcurrencyTest", 0);
+        RestRequest request = client.request().host(server.getHost()).path("/echo.json").build();
+        RestRequest copy = request.withHeader("X-Token", "foo");
+        assertNull(request.getOkHttpRequest().header("X-Token"));
+        assertEquals(copy.getOkHttpRequest().header("X-Token"), "foo");
+        assertEquals(copy.getUrl(), request.getUrl());
+        assertEquals(copy.getPriority(), request.getPriority());
+    }
+}
@@ -0,0 +1,67 @@
+package net.dean.jraw.test;
+
+import com.squareup.okhttp.Credentials;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.HttpLogger;
+import net.dean.jraw.http.RestRequest;
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link HttpLogger} with a Logger that keeps every message */
+public class HttpLoggerTest {
+
+    @Test
+    public void testCredentialsConcealed() {
+        List<String> messages = new ArrayList<>();
+        HttpLogger logger = new HttpLogger(recordingLogger(messages));
+        RedditClient reddit = new RedditClient("HttpLoggerTest", 0);
+        String basic = Credentials.basic("client-id", "secret");
+        RestRequest request = reddit.request()
+                .https(true)
+                .path("/api/v1/access_token")
+                .header("Cookie", "reddit_session=session")
+                .header("X-Custom", "visible")
+                .build()
+                .withHeader("Authorization", basic);
+
+        logger.log(request);
+        String log = messages.toString();
+        assertTrue(log.contains("Authorization=<sensitive>"), log);
+        assertTrue(log.contains("Cookie=<sensitive>"), log);
+        assertTrue(log.contains("X-Custom=visible"), log);
+        assertFalse(log.contains(basic), log);
+        assertFalse(log.contains("reddit_session"), log);
+    }
+
+    /** Creates a Logger that formats every message it receives and adds it to the given list */
+    private static Logger recordingLogger(final List<String> messages) {
+        return (Logger) Proxy.newProxyInstance(Logger.class.getClassLoader(), new Class<?>[] {Logger.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getReturnType() == boolean.class) {
+                            // isInfoEnabled() and the like
+                            return true;
+                        }
+                        if (args != null && args.length > 0 && args[0] instanceof String) {
+                            Object[] params = Arrays.copyOfRange(args, 1, args.length);
+                            if (params.length == 1 && params[0] instanceof Object[]) {
+                                params = (Object[]) params[0];
+                            }
+                            messages.add(MessageFormatter.arrayFormat((String) args[0], params).getMessage());
+                        }
+                        return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,90 @@
+package net.dean.jraw.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.CircuitBreakerPolicy;
+import net.dean.jraw.http.HttpResources;
+import net.dean.jraw.http.RequestListener;
+import net.dean.jraw.http.RestRequest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/** Tests clients that share one {@link HttpResources} */
+public class HttpResourcesTest {
+    private LocalServer server;
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer()
+                .handle("/cookie.json", new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+                        exchange.getResponseHeaders().add("Set-Cookie", "session=abc; Path=/");
+                        LocalServer.send(exchange, 200, "application/json", "{\"cookie\": \"" + cookie + "\"}");
+                    }
+                });
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testSharedState() throws Exception {
+        HttpResources resources = new HttpResources();
+        RedditClient first = client(resources);
+        RedditClient second = client(resources);
+        assertSame(first.getResources(), second.getResources());
+
+        final AtomicInteger sent = new AtomicInteger();
+        first.addRequestListener(new RequestListener.Adapter() {
+            @Override
+            public void onSent(RestRequest request, int attempt) {
+                sent.incrementAndGet();
+            }
+        });
+        first.setCircuitBreakerPolicy(new CircuitBreakerPolicy.Builder().build());
+
+        first.execute(first.request().path("/cookie.json").build());
+        second.execute(second.request().path("/cookie.json").build());
+        assertEquals(sent.get(), 2);
+        assertNotNull(second.getCircuitBreakerPolicy());
+        assertNotNull(resources.getCircuitBreaker(server.getHost()));
+
+        first.setTimeoutLength(1234);
+        assertEquals(second.getTimeoutLength(), 1234);
+        assertEquals(resources.getConnectTimeout(TimeUnit.MILLISECONDS), 1234);
+    }
+
+    @Test
+    public void testSessionStateNotShared() throws Exception {
+        HttpResources resources = new HttpResources();
+        RedditClient first = client(resources);
+        RedditClient second = client(resources);
+
+        first.execute(first.request().path("/cookie.json").build());
+        assertEquals(cookie(first), "session=abc");
+        assertEquals(cookie(second), "null");
+        assertNull(new HttpResources().getCircuitBreakerPolicy());
+    }
+
+    private RedditClient client(HttpResources resources) {
+        RedditClient client = new RedditClient("HttpResourcesTest", 0, server.getHost(), resources);
+        client.setRequestLoggingEnabled(false);
+        return client;
+    }
+
+    private static String cookie(RedditClient client) throws Exception {
+        return client.execute(client.request().path("/cookie.json").build()).getJson().get("cookie").asText();
+    }
+}
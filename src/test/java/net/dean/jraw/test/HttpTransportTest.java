@@ -0,0 +1,129 @@
+package net.dean.jraw.test;
+
+import com.google.common.io.ByteStreams;
+import com.squareup.okhttp.MediaType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.JrawUtils;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.HttpTransport;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.OkHttpTransport;
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RestRequest;
+import net.dean.jraw.http.UrlConnectionTransport;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/** Runs the same requests through every {@link HttpTransport} */
+public class HttpTransportTest {
+    private LocalServer server;
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer()
+                .handle("/echo.json", new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        byte[] bytes = ByteStreams.toByteArray(exchange.getRequestBody());
+                        String body = new String(bytes, StandardCharsets.UTF_8);
+                        String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+                        exchange.getResponseHeaders().add("Set-Cookie", "session=abc; Path=/");
+                        LocalServer.send(exchange, 200, "application/json", "{\"method\": \"" +
+                                exchange.getRequestMethod() + "\", \"body\": \"" + body + "\", \"cookie\": \"" +
+                                cookie + "\"}");
+                    }
+                })
+                .respond("/missing.json", 404, "application/json", "{\"error\": 404}");
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @DataProvider(name = "transports")
+    public Object[][] transports() {
+        return new Object[][] {{new OkHttpTransport()}, {new UrlConnectionTransport()}};
+    }
+
+    @Test(dataProvider = "transports")
+    public void testRequests(HttpTransport transport) throws Exception {
+        RedditClient client = new RedditClient("HttpTransportTest", 0, server.getHost(), transport);
+        client.setRequestLoggingEnabled(false);
+
+        RedditResponse get = client.execute(request(client).build());
+        assertEquals(get.getJson().get("method").asText(), "GET");
+        assertEquals(get.getJson().get("cookie").asText(), "null");
+
+        // The cookie set by the first response is sent back
+        RedditResponse post = client.execute(request(client).post(JrawUtils.args("foo", "bar")).build());
+        assertEquals(post.getJson().get("method").asText(), "POST");
+        assertEquals(post.getJson().get("body").asText(), "foo=bar");
+        assertEquals(post.getJson().get("cookie").asText(), "session=abc");
+
+        RedditResponse async = client.executeAsync(request(client).build()).get(10, TimeUnit.SECONDS);
+        assertEquals(async.getJson().get("method").asText(), "GET");
+
+        try {
+            client.execute(client.request().path("/missing.json").build());
+            fail("Expected a 404");
+        } catch (NetworkException e) {
+            assertEquals(e.getCode(), 404);
+        }
+    }
+
+    @Test
+    public void testPatch() throws Exception {
+        RedditClient client = new RedditClient("HttpTransportTest", 0, server.getHost(), new OkHttpTransport());
+        client.setRequestLoggingEnabled(false);
+        RedditResponse response = client.execute(patch(client));
+        assertEquals(response.getJson().get("method").asText(), "PATCH");
+        assertEquals(response.getJson().get("body").asText(), "prefs");
+    }
+
+    @Test
+    public void testPatchUnsupported() {
+        RedditClient client = new RedditClient("HttpTransportTest", 0, server.getHost(), new UrlConnectionTransport());
+        client.setRequestLoggingEnabled(false);
+        int before = server.getRequestCount();
+        try {
+            client.execute(patch(client));
+            fail("Expected PATCH to be rejected");
+        } catch (NetworkException e) {
+            assertTrue(e.getCause() instanceof ProtocolException, String.valueOf(e.getCause()));
+            assertTrue(e.getCause().getMessage().contains("PATCH"), e.getCause().getMessage());
+        }
+        assertEquals(server.getRequestCount(), before);
+    }
+
+    @Test
+    public void testCookiesNotShared() throws Exception {
+        HttpTransport shared = new OkHttpTransport();
+        RedditClient first = new RedditClient("HttpTransportTest", 0, server.getHost(), shared);
+        RedditClient second = new RedditClient("HttpTransportTest", 0, server.getHost(), shared);
+        first.setRequestLoggingEnabled(false);
+        second.setRequestLoggingEnabled(false);
+
+        first.execute(request(first).build());
+        assertEquals(first.execute(request(first).build()).getJson().get("cookie").asText(), "session=abc");
+        assertEquals(second.execute(request(second).build()).getJson().get("cookie").asText(), "null");
+    }
+
+    private static RestRequest patch(RedditClient client) {
+        return request(client).customBody("PATCH", MediaType.parse("text/plain"), "prefs").build();
+    }
+
+    private static RestRequest.Builder request(RedditClient client) {
+        return client.request().path("/echo.json");
+    }
+}
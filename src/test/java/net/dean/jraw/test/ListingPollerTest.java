@@ -0,0 +1,299 @@
+package net.dean.jraw.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.paginators.CommentStreamPaginator;
+import net.dean.jraw.paginators.ListingPoller;
+import net.dean.jraw.paginators.Paginator;
+import net.dean.jraw.paginators.Paginators;
+import net.dean.jraw.paginators.Sorting;
+import net.dean.jraw.paginators.SubredditPaginator;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests {@link ListingPoller} against a local server that imitates the "before" parameter of /r/pics/new and
+ * /r/pics+funny/comments
+ */
+public class ListingPollerTest {
+    private LocalServer server;
+    private RedditClient reddit;
+    /** The ids of the submissions in the order they were created */
+    private List<Integer> posts;
+    /** The query of every request that was received */
+    private List<String> queries;
+    /** If not null, requests are answered once this latch is released, or after five seconds */
+    private volatile CountDownLatch hold;
+
+    @BeforeMethod
+    public void setUp() {
+        posts = new CopyOnWriteArrayList<>();
+        queries = new CopyOnWriteArrayList<>();
+        server = new LocalServer()
+                .handle("/r/pics/new.json", new ListingHandler("t3"))
+                .handle("/r/pics+funny/comments.json", new ListingHandler("t1"));
+        reddit = new RedditClient("ListingPollerTest", 0, server.getHost());
+        reddit.setRequestLoggingEnabled(false);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testOnlyNewThingsInOrder() throws NetworkException {
+        post(1, 2, 3);
+        ListingPoller<Submission> poller = poller(3);
+        assertTrue(poller.poll().isEmpty());
+
+        post(4, 5);
+        assertEquals(ids(poller.poll()), "4,5");
+        assertTrue(queries.get(1).contains("before=t3_3"));
+        assertTrue(poller.poll().isEmpty());
+        assertTrue(queries.get(2).contains("before=t3_5"));
+    }
+
+    @Test
+    public void testCatchesUpAcrossPages() throws NetworkException {
+        post(1);
+        ListingPoller<Submission> poller = poller(2);
+        poller.poll();
+
+        post(2, 3, 4, 5, 6);
+        assertEquals(ids(poller.poll()), "2,3,4,5,6");
+        // Two full pages and one that is not
+        assertEquals(server.getRequestCount(), 4);
+    }
+
+    @Test
+    public void testRecoversFromDeletedCursor() throws NetworkException {
+        post(1, 2);
+        ListingPoller<Submission> poller = poller(5);
+        poller.setIncludeExisting(true);
+        assertEquals(ids(poller.poll()), "1,2");
+
+        // Deleting the newest submission leaves the "before" cursor pointing at nothing
+        posts.remove(Integer.valueOf(2));
+        post(3);
+        assertTrue(poller.poll().isEmpty());
+        assertTrue(queries.get(queries.size() - 1).contains("before=t3_2"));
+        // The next poll reads the first page right away
+        assertEquals(ids(poller.poll()), "3");
+        assertFalse(queries.get(queries.size() - 1).contains("before="));
+        assertTrue(poller.poll().isEmpty());
+        assertTrue(queries.get(queries.size() - 1).contains("before=t3_3"));
+    }
+
+    @Test
+    public void testDeliversToListener() throws InterruptedException {
+        post(1);
+        final List<Submission> delivered = new CopyOnWriteArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        ListingPoller<Submission> poller = new ListingPoller<>(paginator(5), new ListingPoller.Listener<Submission>() {
+            @Override
+            public void onNew(Submission thing) {
+                delivered.add(thing);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(NetworkException e) {
+                fail("Poll failed", e);
+            }
+        });
+        poller.setPollInterval(10, 50, TimeUnit.MILLISECONDS);
+        poller.start();
+        assertTrue(poller.isRunning());
+        awaitRequests(2);
+
+        post(2, 3);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        poller.stop();
+        assertFalse(poller.isRunning());
+        assertEquals(ids(delivered), "2,3");
+    }
+
+    @Test
+    public void testIntervalAdapts() throws NetworkException {
+        ListingPoller<Submission> poller = poller(4);
+        poller.setPollInterval(1, 8, TimeUnit.SECONDS);
+        post(1);
+        poller.poll();
+        long interval = poller.getPollInterval(TimeUnit.MILLISECONDS);
+        // An empty page for "before" could mean a deleted cursor, so only the full poll after it counts
+        poller.poll();
+        assertEquals(poller.getPollInterval(TimeUnit.MILLISECONDS), interval);
+        for (int i = 0; i < 5; i++) {
+            poller.poll();
+        }
+        // Nothing new, so the interval grew to the maximum
+        assertEquals(poller.getPollInterval(TimeUnit.SECONDS), 8);
+    }
+
+    @Test
+    public void testPollDoesNotBlockSettings() throws Exception {
+        post(1);
+        final ListingPoller<Submission> poller = poller(5);
+        hold = new CountDownLatch(1);
+        Thread polling = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    poller.poll();
+                } catch (NetworkException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        polling.start();
+        awaitQueries(1);
+
+        // The request is still unanswered
+        long start = System.nanoTime();
+        poller.setPollInterval(3, 8, TimeUnit.SECONDS);
+        assertEquals(poller.getPollInterval(TimeUnit.SECONDS), 3);
+        assertFalse(poller.isRunning());
+        poller.stop();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        hold.countDown();
+        polling.join(5000);
+        assertFalse(polling.isAlive());
+    }
+
+    @Test
+    public void testCommentStream() throws NetworkException {
+        post(1, 2);
+        CommentStreamPaginator paginator = Paginators.commentStream(reddit, "pics", "funny");
+        assertEquals(paginator.next().get(0).getId(), "2");
+
+        ListingPoller<Comment> poller = ListingPoller.comments(reddit, "pics+funny", null);
+        poller.setIncludeExisting(true);
+        List<String> ids = new ArrayList<>();
+        for (Comment comment : poller.poll()) {
+            ids.add(comment.getId());
+        }
+        assertEquals(ids, Arrays.asList("1", "2"));
+        assertTrue(queries.get(queries.size() - 1).contains("limit=100"));
+    }
+
+    private void post(int... ids) {
+        for (int id : ids) {
+            posts.add(id);
+        }
+    }
+
+    private ListingPoller<Submission> poller(int limit) {
+        return new ListingPoller<>(paginator(limit), null);
+    }
+
+    private Paginator<Submission> paginator(int limit) {
+        SubredditPaginator paginator = new SubredditPaginator(reddit, "pics");
+        paginator.setSorting(Sorting.NEW);
+        paginator.setLimit(limit);
+        return paginator;
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getRequestCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitQueries(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queries.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static String ids(List<Submission> submissions) {
+        StringBuilder ids = new StringBuilder();
+        for (Submission submission : submissions) {
+            if (ids.length() > 0)
+                ids.append(',');
+            ids.append(submission.getId());
+        }
+        return ids.toString();
+    }
+
+    /** Serves the ids in {@link #posts} as Things of the given kind, newest first */
+    private class ListingHandler implements HttpHandler {
+        private final String kind;
+
+        private ListingHandler(String kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getQuery());
+            queries.add(String.valueOf(exchange.getRequestURI().getQuery()));
+            CountDownLatch hold = ListingPollerTest.this.hold;
+            if (hold != null) {
+                try {
+                    hold.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : 25;
+
+            // Pick the ids of the page, newest first
+            List<Integer> page = new ArrayList<>();
+            if (query.containsKey("before")) {
+                int anchor = posts.indexOf(Integer.parseInt(query.get("before").substring(3)));
+                if (anchor != -1) {
+                    int end = Math.min(posts.size(), anchor + 1 + limit);
+                    for (int i = end - 1; i > anchor; i--) {
+                        page.add(posts.get(i));
+                    }
+                }
+            } else {
+                for (int i = posts.size() - 1; i >= 0 && page.size() < limit; i--) {
+                    page.add(posts.get(i));
+                }
+            }
+
+            StringBuilder children = new StringBuilder();
+            for (int id : page) {
+                if (children.length() > 0)
+                    children.append(", ");
+                children.append("{\"kind\": \"").append(kind).append("\", \"data\": {\"id\": \"").append(id)
+                        .append("\", \"name\": \"").append(kind).append('_').append(id).append("\"}}");
+            }
+            LocalServer.send(exchange, 200, "application/json", "{\"kind\": \"Listing\", \"data\": " +
+                    "{\"modhash\": \"\", \"after\": null, \"before\": null, \"children\": [" + children + "]}}");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> args = new HashMap<>();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                args.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return args;
+    }
+}
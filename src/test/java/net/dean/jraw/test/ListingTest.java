@@ -0,0 +1,122 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.FauxListing;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.More;
+import net.dean.jraw.models.Submission;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.*;
+
+/** Tests lazy and detached {@link Listing Listings} without contacting reddit */
+public class ListingTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testLazyMatchesEager() throws IOException {
+        JsonNode data = listing();
+        Listing<Submission> eager = new Listing<>(data, Submission.class);
+        Listing<Submission> lazy = new Listing<>(data, Submission.class, true);
+
+        assertEquals(lazy.size(), 2);
+        for (int i = 0; i < eager.size(); i++) {
+            assertEquals(lazy.get(i).getDataNode(), eager.get(i).getDataNode());
+        }
+        assertEquals(lazy.get(1).getTitle(), "Second");
+        assertEquals(lazy.getAfter(), "t3_b");
+    }
+
+    @Test
+    public void testLazyMore() throws IOException {
+        // Accessing "more" first also creates the children
+        Listing<Submission> lazy = new Listing<>(listing(), Submission.class, true);
+        More more = lazy.getMoreChildren();
+        assertNotNull(more);
+        assertEquals(more.getCount(), Integer.valueOf(12));
+        assertEquals(lazy.size(), 2);
+    }
+
+    @Test
+    public void testDetach() throws IOException {
+        Listing<Submission> listing = new Listing<>(listing(), Submission.class, true);
+        listing.detach();
+
+        assertTrue(listing.isDetached());
+        assertFalse(listing.getDataNode().has("children"));
+        assertEquals(listing.getAfter(), "t3_b");
+        assertEquals(listing.getMoreChildren().getCount(), Integer.valueOf(12));
+
+        Submission first = listing.get(0);
+        assertTrue(first.isDetached());
+        // Fields that no getter reads are gone, the rest still work
+        assertFalse(first.getDataNode().has("some_unused_field"));
+        assertEquals(first.getTitle(), "First");
+        assertEquals(first.getAuthor(), "someone");
+        assertEquals(first.getScore(), Integer.valueOf(42));
+        assertNotNull(first.toString());
+
+        // Detaching again does nothing
+        JsonNode before = first.getDataNode();
+        first.detach();
+        assertSame(first.getDataNode(), before);
+    }
+
+    @Test
+    public void testDetachKeepsReplies() throws IOException {
+        JsonNode data = MAPPER.readTree(
+                "{\"id\": \"c1\", \"name\": \"t1_c1\", \"body\": \"Hello\", \"some_unused_field\": [1, 2, 3]," +
+                " \"replies\": {\"kind\": \"Listing\", \"data\": {\"after\": null, \"before\": null, \"modhash\": \"\"," +
+                " \"children\": [{\"kind\": \"t1\", \"data\": {\"id\": \"c2\", \"body\": \"Reply\"}}]}}}");
+        Comment comment = new Comment(data);
+        comment.detach();
+
+        assertFalse(comment.getDataNode().has("some_unused_field"));
+        assertEquals(comment.getBody().md(), "Hello");
+        assertEquals(comment.getReplies().get(0).getBody().md(), "Reply");
+    }
+
+    @Test
+    public void testTruncate() throws IOException {
+        Listing<Submission> listing = new Listing<>(listing(), Submission.class);
+        Listing<Submission> truncated = listing.truncate(1);
+        assertEquals(truncated.size(), 1);
+        assertEquals(truncated.get(0).getTitle(), "First");
+        assertEquals(truncated.getAfter(), "t3_b");
+        assertNull(truncated.getMoreChildren());
+        assertSame(listing.truncate(2), listing);
+    }
+
+    @Test
+    public void testTruncateFauxListing() throws IOException {
+        Listing<Submission> listing = new Listing<>(listing(), Submission.class);
+        FauxListing<Submission> faux = new FauxListing<>(listing.getChildren(), "t3_z", "t3_b", "abc",
+                listing.getMoreChildren());
+        Listing<Submission> truncated = faux.truncate(1);
+        assertTrue(truncated instanceof FauxListing);
+        assertEquals(truncated.size(), 1);
+        assertEquals(truncated.get(0).getTitle(), "First");
+        assertEquals(truncated.getBefore(), "t3_z");
+        assertEquals(truncated.getAfter(), "t3_b");
+        assertEquals(truncated.getModhash(), "abc");
+        assertNull(truncated.getMoreChildren());
+        assertSame(faux.truncate(2), faux);
+    }
+
+    private static JsonNode listing() throws IOException {
+        return MAPPER.readTree("{\"after\": \"t3_b\", \"before\": null, \"modhash\": \"abc\", \"children\": [" +
+                submission("a", "First") + ", " + submission("b", "Second") + ", " +
+                "{\"kind\": \"more\", \"data\": {\"count\": 12, \"parent_id\": \"t3_x\", \"children\": [\"c\"]}}" +
+                "]}");
+    }
+
+    private static String submission(String id, String title) {
+        return "{\"kind\": \"t3\", \"data\": {\"id\": \"" + id + "\", \"name\": \"t3_" + id + "\", \"title\": \"" +
+                title + "\", \"author\": \"someone\", \"score\": 42, \"ups\": 42, \"downs\": 0," +
+                " \"some_unused_field\": {\"a\": \"b\"}}}";
+    }
+}
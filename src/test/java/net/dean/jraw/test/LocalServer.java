@@ -0,0 +1,94 @@
+package net.dean.jraw.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A tiny HTTP server bound to a random port on localhost. Used to test the HTTP layer without depending on Reddit.
+ */
+public class LocalServer {
+    private final HttpServer server;
+    private final AtomicInteger requestCount;
+
+    /**
+     * Instantiates and starts a new LocalServer
+     */
+    public LocalServer() {
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new SetupRequiredException("Could not start the local server", e);
+        }
+        this.requestCount = new AtomicInteger();
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    /**
+     * Gets the host (including the port) this server is listening on. Can be passed directly to
+     * {@link net.dean.jraw.http.RestRequest.Builder#host(String)}.
+     */
+    public String getHost() {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the amount of requests this server has received
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Serves the same response for every request to the given path
+     */
+    public LocalServer respond(String path, final int code, final String contentType, final String body) {
+        return handle(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                send(exchange, code, contentType, body);
+            }
+        });
+    }
+
+    /**
+     * Registers a custom handler for the given path. Every request is counted by {@link #getRequestCount()}.
+     */
+    public LocalServer handle(String path, final HttpHandler handler) {
+        server.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                handler.handle(exchange);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Stops the server
+     */
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Writes a complete response to the exchange
+     */
+    public static void send(HttpExchange exchange, int code, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
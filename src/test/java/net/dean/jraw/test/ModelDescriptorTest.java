@@ -0,0 +1,85 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.models.Account;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.JsonModel;
+import net.dean.jraw.models.JsonProperty;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Message;
+import net.dean.jraw.models.ModelDescriptor;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Subreddit;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link ModelDescriptor} and the descriptors generated at build time */
+public class ModelDescriptorTest {
+
+    @Test
+    public void testGeneratedMatchesReflection() {
+        List<Class<? extends JsonModel>> classes = new ArrayList<>();
+        Collections.addAll(classes, Submission.class, Comment.class, Message.class, Subreddit.class, Account.class,
+                Listing.class);
+        for (Class<? extends JsonModel> clazz : classes) {
+            ModelDescriptor<?> descriptor = ModelDescriptor.of(clazz);
+            assertTrue(descriptor.getClass().getName().startsWith("net.dean.jraw.models.GeneratedModelDescriptors"),
+                    "No descriptor was generated for " + clazz.getName());
+            assertEquals(descriptor.getPropertyNames(), expectedNames(clazz));
+            assertSame(ModelDescriptor.of(clazz), descriptor);
+        }
+    }
+
+    @Test
+    public void testReflectiveFallback() throws IOException {
+        // Test sources are not run through the annotation processor
+        ModelDescriptor<CustomModel> descriptor = ModelDescriptor.of(CustomModel.class);
+        assertEquals(descriptor.getPropertyNames(), expectedNames(CustomModel.class));
+        assertTrue(descriptor.isNullable(descriptor.getPropertyNames().indexOf("getNothing")));
+
+        CustomModel model = new CustomModel(new ObjectMapper().readTree("{\"foo\": \"bar\"}"));
+        assertEquals(descriptor.get(model, descriptor.getPropertyNames().indexOf("getFoo")), "bar");
+        assertEquals(model.toString(), "CustomModel {getFoo()=\"bar\", getNothing()=\"null\", " +
+                "getThrows()=[threw java.lang.IllegalStateException: Expected]}");
+    }
+
+    private static List<String> expectedNames(Class<? extends JsonModel> clazz) {
+        List<String> names = new ArrayList<>();
+        for (Method m : JsonModel.getJsonProperties(clazz)) {
+            if (!names.contains(m.getName())) {
+                names.add(m.getName());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    public static class CustomModel extends JsonModel {
+        public CustomModel(JsonNode dataNode) {
+            super(dataNode);
+        }
+
+        @JsonProperty
+        public String getFoo() {
+            return data("foo");
+        }
+
+        @JsonProperty(nullable = true)
+        public String getNothing() {
+            return data("nothing");
+        }
+
+        @JsonProperty
+        public String getThrows() {
+            throw new IllegalStateException("Expected");
+        }
+    }
+}
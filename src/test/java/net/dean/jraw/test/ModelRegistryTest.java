@@ -0,0 +1,95 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.JrawUtils;
+import net.dean.jraw.models.Comment;
+import net.dean.jraw.models.Contribution;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Message;
+import net.dean.jraw.models.ModelFactory;
+import net.dean.jraw.models.ModelRegistry;
+import net.dean.jraw.models.PublicContribution;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.ThingType;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link ModelRegistry} and how {@link JrawUtils#parseJson(JsonNode, Class)} uses it */
+public class ModelRegistryTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testConcreteClass() throws IOException {
+        Submission s = JrawUtils.parseJson(thing("t3", "abc"), Submission.class);
+        assertEquals(s.getId(), "abc");
+    }
+
+    @Test
+    public void testByKind() throws IOException {
+        assertTrue(JrawUtils.parseJson(thing("t3", "a"), Contribution.class) instanceof Submission);
+        assertTrue(JrawUtils.parseJson(thing("t1", "a"), Contribution.class) instanceof Comment);
+        assertTrue(JrawUtils.parseJson(thing("t4", "a"), Contribution.class) instanceof Message);
+        assertTrue(JrawUtils.parseJson(thing("t1", "a"), PublicContribution.class) instanceof Comment);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownKind() throws IOException {
+        JrawUtils.parseJson(thing("t4", "a"), PublicContribution.class);
+    }
+
+    @Test
+    public void testCustomFactory() throws IOException {
+        final AtomicInteger created = new AtomicInteger();
+        ModelRegistry.register(CustomSubmission.class, new ModelFactory<CustomSubmission>() {
+            @Override
+            public CustomSubmission create(JsonNode data) {
+                created.incrementAndGet();
+                return new CustomSubmission(data);
+            }
+        });
+
+        JsonNode listing = MAPPER.readTree("{\"after\": null, \"before\": null, \"modhash\": \"\", \"children\": [" +
+                thing("t3", "a") + ", " + thing("t3", "b") + "]}");
+        Listing<CustomSubmission> children = new Listing<>(listing, CustomSubmission.class);
+        assertEquals(children.size(), 2);
+        assertEquals(children.get(1).getId(), "b");
+        assertEquals(created.get(), 2);
+    }
+
+    @Test
+    public void testConstructorFallback() throws IOException {
+        // Never registered, so its constructor is looked up and remembered
+        UnregisteredSubmission s = JrawUtils.parseJson(thing("t3", "a"), UnregisteredSubmission.class);
+        assertEquals(s.getId(), "a");
+        assertNotNull(ModelRegistry.factory(UnregisteredSubmission.class));
+    }
+
+    @Test
+    public void testThingTypeByPrefix() {
+        for (ThingType type : ThingType.values()) {
+            assertEquals(ThingType.getByPrefix(type.getPrefix()), type);
+        }
+        assertNull(ThingType.getByPrefix("t9"));
+    }
+
+    private static JsonNode thing(String kind, String id) throws IOException {
+        return MAPPER.readTree("{\"kind\": \"" + kind + "\", \"data\": {\"id\": \"" + id + "\"}}");
+    }
+
+    public static class CustomSubmission extends Submission {
+        public CustomSubmission(JsonNode dataNode) {
+            super(dataNode);
+        }
+    }
+
+    public static class UnregisteredSubmission extends Submission {
+        public UnregisteredSubmission(JsonNode dataNode) {
+            super(dataNode);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package net.dean.jraw.test;
+
+import com.google.common.base.Predicate;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.paginators.Paginator;
+import net.dean.jraw.paginators.PrefetchingPaginator;
+import net.dean.jraw.paginators.Sorting;
+import net.dean.jraw.paginators.SubredditPaginator;
+import net.dean.jraw.paginators.ThingPredicates;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests {@link Paginator#items()} and {@link Paginator#setTakeWhile(Predicate)} against a local server that serves 4
+ * pages of 3 submissions each
+ */
+public class PaginatorItemsTest {
+    private static final int PAGES = 4;
+    private static final int PER_PAGE = 3;
+    /** When the first submission was created. Every following one was created a second earlier, like in /new. */
+    private static final long CREATED = 1000;
+    private LocalServer server;
+    private RedditClient reddit;
+
+    @BeforeMethod
+    public void setUp() {
+        server = new LocalServer()
+                .handle("/r/pics/new.json", new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        String query = exchange.getRequestURI().getQuery();
+                        int page = query != null && query.contains("after=t3_") ?
+                                (Integer.parseInt(query.replaceAll(".*after=t3_(\\d+).*", "$1")) + 1) / PER_PAGE : 0;
+                        StringBuilder children = new StringBuilder();
+                        for (int i = page * PER_PAGE; i < (page + 1) * PER_PAGE; i++) {
+                            if (children.length() > 0)
+                                children.append(", ");
+                            children.append("{\"kind\": \"t3\", \"data\": {\"id\": \"").append(i)
+                                    .append("\", \"name\": \"t3_").append(i).append("\", \"score\": ").append(i)
+                                    .append(", \"created_utc\": ").append(CREATED - i).append("}}");
+                        }
+                        String after = page < PAGES - 1 ? "\"t3_" + ((page + 1) * PER_PAGE - 1) + "\"" : "null";
+                        LocalServer.send(exchange, 200, "application/json", "{\"kind\": \"Listing\", \"data\": " +
+                                "{\"modhash\": \"\", \"after\": " + after + ", \"before\": null, \"children\": [" +
+                                children + "]}}");
+                    }
+                });
+        reddit = new RedditClient("PaginatorItemsTest", 0, server.getHost());
+        reddit.setRequestLoggingEnabled(false);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testAllItems() {
+        List<String> ids = new ArrayList<>();
+        for (Submission submission : paginator().items()) {
+            ids.add(submission.getId());
+        }
+        assertEquals(ids.size(), PAGES * PER_PAGE);
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i), String.valueOf(i));
+        }
+        assertEquals(server.getRequestCount(), PAGES);
+    }
+
+    @Test
+    public void testStopsEarly() {
+        // The 5th submission is on the second page, so the last two pages are never requested
+        assertEquals(paginator().items().limit(5).size(), 5);
+        assertEquals(server.getRequestCount(), 2);
+
+        Submission first = paginator().items().firstMatch(new Predicate<Submission>() {
+            @Override
+            public boolean apply(Submission submission) {
+                return submission.getScore() > 1;
+            }
+        }).get();
+        assertEquals(first.getId(), "2");
+        assertEquals(server.getRequestCount(), 3);
+    }
+
+    @Test
+    public void testContinuesWherePreviousScanStopped() {
+        Paginator<Submission> paginator = paginator();
+        assertEquals(paginator.items().limit(2).last().get().getId(), "1");
+        assertEquals(paginator.items().first().get().getId(), "2");
+        assertEquals(paginator.getPageIndex(), 1);
+    }
+
+    @Test
+    public void testPrefetchingItems() {
+        PrefetchingPaginator<Submission> paginator = new PrefetchingPaginator<>(paginator());
+        assertEquals(paginator.items().size(), PAGES * PER_PAGE);
+        assertFalse(paginator.hasNext());
+    }
+
+    @Test
+    public void testStopsAtCreationTime() {
+        Paginator<Submission> paginator = paginator();
+        paginator.setTakeWhile(ThingPredicates.createdAfter(CREATED - 5));
+        assertEquals(paginator.next().size(), 3);
+
+        // The second page is cut off before the submission that is too old
+        Listing<Submission> last = paginator.next();
+        assertEquals(last.size(), 2);
+        assertEquals(last.get(1).getId(), "4");
+        assertTrue(paginator.isStopped());
+        assertFalse(paginator.hasNext());
+        assertEquals(server.getRequestCount(), 2);
+
+        paginator.reset();
+        assertEquals(paginator.items().size(), 5);
+    }
+
+    @Test
+    public void testStopsAtSeenThing() {
+        Paginator<Submission> paginator = paginator();
+        paginator.setTakeWhile(ThingPredicates.notSeen(Collections.singleton("t3_7")));
+        assertEquals(paginator.items().last().get().getId(), "6");
+        assertEquals(server.getRequestCount(), 3);
+    }
+
+    private SubredditPaginator paginator() {
+        SubredditPaginator paginator = new SubredditPaginator(reddit, "pics");
+        paginator.setSorting(Sorting.NEW);
+        return paginator;
+    }
+}
@@ -0,0 +1,176 @@
+package net.dean.jraw.test;
+
+import com.google.common.base.Predicate;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.paginators.PrefetchingPaginator;
+import net.dean.jraw.paginators.Sorting;
+import net.dean.jraw.paginators.SubredditPaginator;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link PrefetchingPaginator} against a local server that serves {@link #PAGES} pages */
+public class PrefetchingPaginatorTest {
+    private static final int PAGES = 5;
+    private LocalServer server;
+    private RedditClient reddit;
+    /** If true, the request for the third page fails once */
+    private AtomicBoolean failThirdPage;
+
+    @BeforeMethod
+    public void setUp() {
+        failThirdPage = new AtomicBoolean();
+        server = new LocalServer()
+                .handle("/r/pics/new.json", new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        String query = exchange.getRequestURI().getQuery();
+                        int page = query != null && query.contains("after=t3_p") ?
+                                Integer.parseInt(query.replaceAll(".*after=t3_p(\\d+).*", "$1")) + 1 : 1;
+                        if (page == 3 && failThirdPage.compareAndSet(true, false)) {
+                            LocalServer.send(exchange, 500, "application/json", "{}");
+                            return;
+                        }
+                        String after = page < PAGES ? "\"t3_p" + page + "\"" : "null";
+                        LocalServer.send(exchange, 200, "application/json", "{\"kind\": \"Listing\", \"data\": " +
+                                "{\"modhash\": \"\", \"after\": " + after + ", \"before\": null, \"children\": " +
+                                "[{\"kind\": \"t3\", \"data\": {\"id\": \"p" + page + "\", \"name\": \"t3_p" + page +
+                                "\"}}]}}");
+                    }
+                });
+        reddit = new RedditClient("PrefetchingPaginatorTest", 0, server.getHost());
+        reddit.setRequestLoggingEnabled(false);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testPagesInOrder() {
+        PrefetchingPaginator<Submission> paginator = new PrefetchingPaginator<>(paginator(), 2);
+        for (int i = 1; i <= PAGES; i++) {
+            assertTrue(paginator.hasNext());
+            Listing<Submission> listing = paginator.next();
+            assertEquals(listing.get(0).getId(), "p" + i);
+            assertEquals(paginator.getPageIndex(), i);
+            assertSame(paginator.getCurrentListing(), listing);
+        }
+        assertFalse(paginator.hasNext());
+        assertEquals(server.getRequestCount(), PAGES);
+
+        try {
+            paginator.next();
+            fail("Expected NoSuchElementException");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRequestsAhead() throws InterruptedException {
+        PrefetchingPaginator<Submission> paginator = new PrefetchingPaginator<>(paginator(), 3);
+        paginator.next();
+
+        // Pages 2 to 4 are requested while the caller does nothing
+        awaitRequests(4);
+        Thread.sleep(100);
+        assertEquals(server.getRequestCount(), 4);
+        assertEquals(paginator.getPendingCount(), 3);
+        assertEquals(paginator.getPageIndex(), 1);
+    }
+
+    @Test
+    public void testReset() throws InterruptedException {
+        SubredditPaginator wrapped = paginator();
+        PrefetchingPaginator<Submission> paginator = new PrefetchingPaginator<>(wrapped);
+        paginator.next();
+        paginator.next();
+
+        wrapped.setLimit(10);
+        paginator.reset();
+        assertEquals(paginator.getPageIndex(), 0);
+        assertNull(paginator.getCurrentListing());
+        assertEquals(paginator.getPendingCount(), 0);
+        assertEquals(paginator.next().get(0).getId(), "p1");
+    }
+
+    @Test
+    public void testResetWhileArriving() throws InterruptedException {
+        final CountDownLatch arriving = new CountDownLatch(1);
+        final CountDownLatch resume = new CountDownLatch(1);
+        final AtomicBoolean blockSecondPage = new AtomicBoolean(true);
+        SubredditPaginator wrapped = paginator();
+        // Holds the second page up after it was received, but before it has been handed to the caller
+        wrapped.setTakeWhile(new Predicate<Submission>() {
+            @Override
+            public boolean apply(Submission submission) {
+                if (submission.getId().equals("p2") && blockSecondPage.compareAndSet(true, false)) {
+                    arriving.countDown();
+                    Uninterruptibles.awaitUninterruptibly(resume);
+                }
+                return true;
+            }
+        });
+        PrefetchingPaginator<Submission> paginator = new PrefetchingPaginator<>(wrapped);
+        paginator.next();
+        assertTrue(arriving.await(5, TimeUnit.SECONDS));
+
+        paginator.reset();
+        resume.countDown();
+        Thread.sleep(100);
+
+        // The second page must not have moved the cursor
+        assertEquals(wrapped.getPageIndex(), 0);
+        assertNull(wrapped.getCurrentListing());
+        for (int i = 1; i <= PAGES; i++) {
+            assertEquals(paginator.next().get(0).getId(), "p" + i);
+        }
+        assertFalse(paginator.hasNext());
+    }
+
+    @Test
+    public void testFailedPageRequestedAgain() {
+        failThirdPage.set(true);
+        PrefetchingPaginator<Submission> paginator = new PrefetchingPaginator<>(paginator());
+        paginator.next();
+        paginator.next();
+        try {
+            paginator.next();
+            fail("Expected the third page to fail");
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        assertEquals(paginator.getPageIndex(), 2);
+        assertEquals(paginator.next().get(0).getId(), "p3");
+        assertEquals(paginator.next().get(0).getId(), "p4");
+    }
+
+    private SubredditPaginator paginator() {
+        SubredditPaginator paginator = new SubredditPaginator(reddit, "pics");
+        paginator.setSorting(Sorting.NEW);
+        return paginator;
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getRequestCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.models.Account;
+import net.dean.jraw.models.Submission;
+import net.dean.jraw.models.Subreddit;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.*;
+
+/** Tests that the primitive accessors of models agree with their boxed counterparts */
+public class PrimitiveAccessorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void testSubmission() throws IOException {
+        Submission s = new Submission(json("{\"id\": \"a\", \"score\": 42, \"ups\": 50, \"gilded\": 2, " +
+                "\"is_self\": true, \"num_comments\": 7, \"upvote_ratio\": 0.75, \"created\": 1420000000.0, " +
+                "\"created_utc\": 1419971200.0}"));
+        assertEquals(s.score(), (int) s.getScore());
+        assertEquals(s.upvotes(), (int) s.getUpvotes());
+        assertEquals(s.timesGilded(), (int) s.getTimesGilded());
+        assertTrue(s.isSelfPost());
+        assertEquals(s.commentCount(), (int) s.getCommentCount());
+        assertEquals(s.upvoteRatio(), s.getUpvoteRatio(), 0);
+        assertEquals(s.createdEpochSeconds() * 1000, s.getCreated().getTime());
+        assertEquals(s.createdUtcEpochSeconds() * 1000, s.getCreatedUtc().getTime());
+
+        // Still there after the JSON has been detached
+        s.detach();
+        assertEquals(s.score(), 42);
+        assertEquals(s.createdUtcEpochSeconds(), 1419971200L);
+    }
+
+    @Test
+    public void testMissingFields() throws IOException {
+        Submission s = new Submission(json("{\"id\": \"a\", \"score\": null}"));
+        assertEquals(s.score(), 0);
+        assertFalse(s.isSelfPost());
+        assertEquals(s.createdUtcEpochSeconds(), 0);
+    }
+
+    @Test
+    public void testSubredditAndAccount() throws IOException {
+        Subreddit sr = new Subreddit(json("{\"subscribers\": 9000000000, \"accounts_active\": 12, " +
+                "\"created_utc\": 1201233135.0}"));
+        assertEquals(sr.subscriberCount(), (long) sr.getSubscriberCount());
+        assertEquals(sr.accountsActive(), (int) sr.getAccountsActive());
+        assertEquals(sr.createdUtcEpochSeconds(), 1201233135L);
+
+        Account account = new Account(json("{\"link_karma\": 10, \"comment_karma\": 20, \"created_utc\": 5.0}"));
+        assertEquals(account.linkKarma(), (int) account.getLinkKarma());
+        assertEquals(account.commentKarma(), (int) account.getCommentKarma());
+        assertEquals(account.createdUtcEpochSeconds(), 5);
+    }
+
+    private static JsonNode json(String json) throws IOException {
+        return MAPPER.readTree(json);
+    }
+}
@@ -0,0 +1,142 @@
+package net.dean.jraw.test;
+
+import com.google.common.base.Ticker;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+import net.dean.jraw.http.FixedRateLimitPolicy;
+import net.dean.jraw.http.HeaderRateLimitPolicy;
+import net.dean.jraw.http.RestResponse;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link HeaderRateLimitPolicy} with a fake clock */
+public class RateLimitPolicyTest {
+    private FakeTicker ticker;
+    private HeaderRateLimitPolicy policy;
+
+    @BeforeMethod
+    public void setUp() {
+        ticker = new FakeTicker();
+        policy = new HeaderRateLimitPolicy(60, 0.1, ticker) {
+            @Override
+            protected void sleep(long nanos) {
+                ticker.advance(nanos);
+            }
+        };
+    }
+
+    @Test
+    public void testBurstWhilePlentyRemains() {
+        policy.onResponse(response(200, 10, 590, 300));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(policy.acquire(), 0.0);
+        }
+        assertEquals(policy.getRemaining(), 490.0);
+    }
+
+    @Test
+    public void testSpreadOutNearExhaustion() {
+        // 10 requests left with 100 seconds to go, below the 10% reserve
+        policy.onResponse(response(200, 590, 10, 100));
+        assertEquals(policy.acquire(), 0.0);
+        // The rest are spaced out over the time left in the window
+        assertEquals(policy.acquire(), 100.0 / 10, 0.01);
+        assertEquals(policy.acquire(), 100.0 / 9, 0.01);
+    }
+
+    @Test
+    public void testWaitForResetWhenExhausted() {
+        policy.onResponse(response(200, 600, 0, 42));
+        assertEquals(policy.acquire(), 42.0, 0.01);
+    }
+
+    @Test
+    public void testTooManyRequests() {
+        policy.onResponse(response(200, 10, 590, 300));
+        policy.onResponse(response(429, 600, 0, 30));
+        assertEquals(policy.acquire(), 30.0, 0.01);
+    }
+
+    @Test
+    public void testNewWindow() {
+        policy.onResponse(response(200, 600, 0, 5));
+        ticker.advance(TimeUnit.SECONDS.toNanos(6));
+        policy.onResponse(response(200, 1, 599, 600));
+        assertEquals(policy.acquire(), 0.0);
+        assertEquals(policy.getRemaining(), 598.0);
+    }
+
+    @Test
+    public void testUnknownUntilHeadersReceived() {
+        assertEquals(policy.getRemaining(), -1.0);
+        policy.onResponse(response(200, 1, 599, 600));
+        assertEquals(policy.getRemaining(), 599.0);
+    }
+
+    @Test
+    public void testFixedRefund() {
+        FixedRateLimitPolicy fixed = new FixedRateLimitPolicy(1);
+        assertEquals(fixed.acquire(), 0.0);
+        // The next permit would take a minute, unless the last one is given back
+        fixed.refund();
+        assertEquals(fixed.acquire(), 0.0);
+    }
+
+    private static RestResponse response(int code, double used, double remaining, double reset) {
+        return new RestResponse(new Response.Builder()
+                .request(new Request.Builder().url("http://localhost/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .header("Content-Type", "application/json")
+                .header(HeaderRateLimitPolicy.HEADER_USED, String.valueOf(used))
+                .header(HeaderRateLimitPolicy.HEADER_REMAINING, String.valueOf(remaining))
+                .header(HeaderRateLimitPolicy.HEADER_RESET, String.valueOf((long) reset))
+                .body(new StringBody("{}"))
+                .build());
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos = TimeUnit.DAYS.toNanos(1);
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long nanos) {
+            this.nanos += nanos;
+        }
+    }
+
+    static class StringBody extends ResponseBody {
+        private final Buffer buffer;
+
+        StringBody(String content) {
+            this.buffer = new Buffer().writeUtf8(content);
+        }
+
+        @Override
+        public MediaType contentType() {
+            return MediaType.parse("application/json");
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.size();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.LatencyHistogram;
+import net.dean.jraw.http.LatencyRecorder;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RequestListener;
+import net.dean.jraw.http.RestRequest;
+import net.dean.jraw.http.RestResponse;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link RequestListener}, {@link LatencyRecorder} and {@link LatencyHistogram} */
+public class RequestListenerTest {
+    private LocalServer server;
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer()
+                .respond("/ok.json", 200, "application/json", "{\"foo\": \"bar\"}")
+                .respond("/error.json", 500, "application/json", "{}");
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testEventOrder() throws Exception {
+        RedditClient client = client();
+        EventLog log = new EventLog();
+        client.addRequestListener(log);
+
+        client.execute(request(client, "/ok.json"));
+        assertEquals(log.events, expected("queued", "rateLimitWait", "sent 1", "firstByte", "bodyRead", "jsonParsed",
+                "completed"));
+
+        log.events.clear();
+        client.executeAsync(request(client, "/ok.json")).get(10, TimeUnit.SECONDS);
+        awaitLast(log, "completed");
+        assertEquals(log.events, expected("queued", "rateLimitWait", "sent 1", "firstByte", "bodyRead", "jsonParsed",
+                "completed"));
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        RedditClient client = client();
+        EventLog log = new EventLog();
+        client.addRequestListener(log);
+
+        try {
+            client.execute(request(client, "/error.json"));
+            fail("Expected a 500");
+        } catch (NetworkException e) {
+            assertEquals(log.events.get(log.events.size() - 1), "failed 500");
+        }
+
+        log.events.clear();
+        try {
+            client.executeAsync(request(client, "/error.json")).get(10, TimeUnit.SECONDS);
+            fail("Expected a 500");
+        } catch (ExecutionException e) {
+            awaitLast(log, "failed 500");
+        }
+    }
+
+    @Test
+    public void testThrowingListenerIgnored() throws NetworkException {
+        RedditClient client = client();
+        client.addRequestListener(new RequestListener.Adapter() {
+            @Override
+            public void onSent(RestRequest request, int attempt) {
+                throw new IllegalStateException("Expected");
+            }
+        });
+        assertEquals(client.execute(request(client, "/ok.json")).getJson().get("foo").asText(), "bar");
+    }
+
+    @Test
+    public void testRecorder() throws NetworkException {
+        RedditClient client = client();
+        LatencyRecorder recorder = new LatencyRecorder();
+        client.addRequestListener(recorder);
+        for (int i = 0; i < 5; i++) {
+            client.execute(request(client, "/ok.json"));
+        }
+
+        // Requests built from a path have no endpoint
+        assertEquals(recorder.getHistogram(null, LatencyRecorder.Phase.COMPLETED).getCount(), 5);
+        assertEquals(recorder.getHistogram(null, LatencyRecorder.Phase.FIRST_BYTE).getCount(), 5);
+        assertEquals(recorder.getHistogram(null, LatencyRecorder.Phase.JSON_PARSE).getCount(), 5);
+        assertEquals(recorder.getHistogram(null, LatencyRecorder.Phase.FAILED).getCount(), 0);
+        assertTrue(recorder.getHistogram(null, LatencyRecorder.Phase.COMPLETED).getMax(TimeUnit.NANOSECONDS) > 0);
+
+        client.removeRequestListener(recorder);
+        client.execute(request(client, "/ok.json"));
+        assertEquals(recorder.getHistogram(null, LatencyRecorder.Phase.COMPLETED).getCount(), 5);
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        assertEquals(histogram.getCount(), 1000);
+        assertEquals(histogram.getMax(TimeUnit.MICROSECONDS), 1000);
+        assertEquals(histogram.getMean(TimeUnit.MICROSECONDS), 500.5, 0.001);
+        assertWithin(histogram.getPercentile(50, TimeUnit.MICROSECONDS), 500);
+        assertWithin(histogram.getPercentile(99, TimeUnit.MICROSECONDS), 990);
+        assertEquals(histogram.getPercentile(100, TimeUnit.MICROSECONDS), 1000);
+    }
+
+    @Test
+    public void testHistogramEdges() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getPercentile(50, TimeUnit.NANOSECONDS), 0);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(histogram.getPercentile(50, TimeUnit.NANOSECONDS), 0);
+        assertEquals(histogram.getPercentile(100, TimeUnit.NANOSECONDS), Long.MAX_VALUE);
+    }
+
+    /** The caller of an asynchronous request may be woken up before the listeners have been called */
+    private static void awaitLast(EventLog log, String event) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (log.events.isEmpty() || !log.events.get(log.events.size() - 1).equals(event)) {
+            if (System.currentTimeMillis() > deadline)
+                fail("Expected the last event to be '" + event + "', got " + log.events);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void assertWithin(long actual, long expected) {
+        // Buckets are about 3% wide
+        assertTrue(Math.abs(actual - expected) <= expected * 0.04, actual + " is not close to " + expected);
+    }
+
+    private RedditClient client() {
+        RedditClient client = new RedditClient("RequestListenerTest", 0);
+        client.setRequestLoggingEnabled(false);
+        return client;
+    }
+
+    private RestRequest request(RedditClient client, String path) {
+        return client.request().host(server.getHost()).path(path).build();
+    }
+
+    private static List<String> expected(String... events) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, events);
+        return list;
+    }
+
+    private static class EventLog implements RequestListener {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void onQueued(RestRequest request) {
+            events.add("queued");
+        }
+
+        @Override
+        public void onRateLimitWait(RestRequest request, long waitNanos) {
+            events.add("rateLimitWait");
+        }
+
+        @Override
+        public void onSent(RestRequest request, int attempt) {
+            events.add("sent " + attempt);
+        }
+
+        @Override
+        public void onFirstByte(RestRequest request, long latencyNanos) {
+            events.add("firstByte");
+        }
+
+        @Override
+        public void onBodyRead(RestRequest request, long readNanos) {
+            events.add("bodyRead");
+        }
+
+        @Override
+        public void onJsonParsed(RestRequest request, long parseNanos) {
+            events.add("jsonParsed");
+        }
+
+        @Override
+        public void onCompleted(RestRequest request, RestResponse response, long totalNanos) {
+            events.add("completed");
+        }
+
+        @Override
+        public void onFailed(RestRequest request, NetworkException e, long totalNanos) {
+            events.add("failed " + e.getCode());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package net.dean.jraw.test;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import net.dean.jraw.http.RateLimitPolicy;
+import net.dean.jraw.http.RequestPriority;
+import net.dean.jraw.http.RequestScheduler;
+import net.dean.jraw.http.RestRequest;
+import net.dean.jraw.http.RestResponse;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/** Tests the order in which a {@link RequestScheduler} admits requests */
+public class RequestSchedulerTest {
+
+    @Test
+    public void testPriorityOrder() throws InterruptedException {
+        ManualPolicy policy = new ManualPolicy();
+        RequestScheduler scheduler = new RequestScheduler(policy);
+        List<RequestPriority> order = Collections.synchronizedList(new ArrayList<RequestPriority>());
+        CountDownLatch done = new CountDownLatch(4);
+
+        for (int i = 0; i < 3; i++) {
+            submit(scheduler, RequestPriority.BULK, order, done);
+        }
+        submit(scheduler, RequestPriority.INTERACTIVE, order, done);
+
+        assertEquals(scheduler.getQueueDepth(RequestPriority.BULK), 3);
+        assertEquals(scheduler.getQueueDepth(RequestPriority.INTERACTIVE), 1);
+        assertEquals(scheduler.getQueueDepth(RequestPriority.NORMAL), 0);
+
+        policy.permits.release(4);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(order.get(0), RequestPriority.INTERACTIVE);
+        for (int i = 1; i < 4; i++) {
+            assertEquals(order.get(i), RequestPriority.BULK);
+        }
+        assertEquals(scheduler.getQueueDepth(RequestPriority.BULK), 0);
+        assertEquals(scheduler.getAdmittedCount(RequestPriority.BULK), 3);
+        assertEquals(scheduler.getAdmittedCount(RequestPriority.INTERACTIVE), 1);
+        assertTrue(scheduler.getMaxWaitTime(RequestPriority.BULK, TimeUnit.NANOSECONDS) >=
+                scheduler.getAverageWaitTime(RequestPriority.BULK, TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void testAdmitBlocks() throws InterruptedException {
+        ManualPolicy policy = new ManualPolicy();
+        final RequestScheduler scheduler = new RequestScheduler(policy);
+        final CountDownLatch admitted = new CountDownLatch(1);
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                scheduler.admit(request(RequestPriority.NORMAL));
+                admitted.countDown();
+            }
+        });
+        t.start();
+
+        assertFalse(admitted.await(200, TimeUnit.MILLISECONDS));
+        policy.permits.release();
+        assertTrue(admitted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDisablingReleasesQueue() throws InterruptedException {
+        RequestScheduler scheduler = new RequestScheduler(new ManualPolicy());
+        List<RequestPriority> order = Collections.synchronizedList(new ArrayList<RequestPriority>());
+        CountDownLatch done = new CountDownLatch(2);
+
+        submit(scheduler, RequestPriority.BULK, order, done);
+        submit(scheduler, RequestPriority.NORMAL, order, done);
+
+        // Let the admission thread start waiting on the policy
+        Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+        scheduler.setRateLimitPolicy(null);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        // Without a policy, requests are admitted immediately
+        scheduler.admit(request(RequestPriority.BULK));
+    }
+
+    @Test
+    public void testDisablingOutsideLock() throws Exception {
+        ManualPolicy policy = new ManualPolicy();
+        final RequestScheduler scheduler = new RequestScheduler(policy);
+        final AtomicInteger failing = new AtomicInteger();
+        final AtomicInteger blocked = new AtomicInteger();
+        final AtomicInteger others = new AtomicInteger();
+
+        scheduler.submit(request(RequestPriority.INTERACTIVE), new RequestScheduler.Admission() {
+            @Override
+            public void onAdmitted(double waited) {
+                failing.incrementAndGet();
+                throw new IllegalStateException("Could not send");
+            }
+        });
+        scheduler.submit(request(RequestPriority.NORMAL), new RequestScheduler.Admission() {
+            @Override
+            public void onAdmitted(double waited) {
+                // Another thread can use the scheduler while the admissions are running
+                Thread t = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        scheduler.getQueueDepth(RequestPriority.BULK);
+                    }
+                });
+                t.start();
+                Uninterruptibles.joinUninterruptibly(t, 5, TimeUnit.SECONDS);
+                if (!t.isAlive())
+                    blocked.incrementAndGet();
+            }
+        });
+        scheduler.submit(request(RequestPriority.BULK), new RequestScheduler.Admission() {
+            @Override
+            public void onAdmitted(double waited) {
+                others.incrementAndGet();
+            }
+        });
+
+        Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+        scheduler.setRateLimitPolicy(null);
+        assertEquals(scheduler.getQueueDepth(RequestPriority.INTERACTIVE), 0);
+        assertEquals(scheduler.getQueueDepth(RequestPriority.BULK), 0);
+
+        // The admission thread finds nothing left to admit once it gets its permit
+        policy.permits.release();
+        Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+        assertEquals(failing.get(), 1);
+        assertEquals(blocked.get(), 1);
+        assertEquals(others.get(), 1);
+    }
+
+    private static void submit(RequestScheduler scheduler, final RequestPriority priority,
+                               final List<RequestPriority> order, final CountDownLatch done) {
+        scheduler.submit(request(priority), new RequestScheduler.Admission() {
+            @Override
+            public void onAdmitted(double waited) {
+                order.add(priority);
+                done.countDown();
+            }
+        });
+    }
+
+    private static RestRequest request(RequestPriority priority) {
+        return new RestRequest.Builder()
+                .host("localhost")
+                .path("/")
+                .priority(priority)
+                .build();
+    }
+
+    /** A RateLimitPolicy that only hands out a permit when the test releases one */
+    private static class ManualPolicy implements RateLimitPolicy {
+        private final Semaphore permits = new Semaphore(0);
+
+        @Override
+        public double acquire() {
+            permits.acquireUninterruptibly();
+            return 0;
+        }
+
+        @Override
+        public void onResponse(RestResponse response) {
+        }
+
+        @Override
+        public void refund() {
+            permits.release();
+        }
+    }
+}
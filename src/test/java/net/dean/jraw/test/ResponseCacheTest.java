@@ -0,0 +1,208 @@
+package net.dean.jraw.test;
+
+import com.google.common.io.Files;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.Response;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.CachedResponse;
+import net.dean.jraw.http.LruResponseCache;
+import net.dean.jraw.http.RateLimitPolicy;
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RestRequest;
+import net.dean.jraw.http.RestResponse;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link net.dean.jraw.http.RestClient#setResponseCache(net.dean.jraw.http.ResponseCache)} */
+public class ResponseCacheTest {
+    private static final String BODY = "{\"foo\": \"bar\"}";
+    private LocalServer server;
+    private RedditClient client;
+    private CountingPolicy policy;
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer()
+                .handle("/fresh.json", new CacheHeadersHandler("max-age=60", null, null))
+                .handle("/etag.json", new CacheHeadersHandler("max-age=0", "\"v1\"", null))
+                .handle("/modified.json", new CacheHeadersHandler(null, null, "Wed, 21 Oct 2015 07:28:00 GMT"))
+                .handle("/nostore.json", new CacheHeadersHandler("no-store", "\"v1\"", null));
+        client = new RedditClient("ResponseCacheTest", 0);
+        client.setRequestLoggingEnabled(false);
+    }
+
+    @BeforeMethod
+    public void resetCache() {
+        client.setResponseCache(new LruResponseCache(1024 * 1024));
+        policy = new CountingPolicy();
+        client.setRateLimitPolicy(policy);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testFreshResponse() throws Exception {
+        int before = server.getRequestCount();
+        assertBody(client.execute(request("/fresh.json")));
+        assertBody(client.execute(request("/fresh.json")));
+        assertBody(client.executeAsync(request("/fresh.json")).get(10, TimeUnit.SECONDS));
+        assertEquals(server.getRequestCount() - before, 1);
+        assertEquals(policy.acquired.get(), 1);
+    }
+
+    @Test
+    public void testETagRevalidation() throws Exception {
+        int before = server.getRequestCount();
+        assertBody(client.execute(request("/etag.json")));
+        assertBody(client.execute(request("/etag.json")));
+        assertBody(client.executeAsync(request("/etag.json")).get(10, TimeUnit.SECONDS));
+        assertEquals(server.getRequestCount() - before, 3);
+        // Both 304 responses are given back to the rate limiter
+        assertEquals(policy.refunded.get(), 2);
+    }
+
+    @Test
+    public void testLastModifiedRevalidation() throws Exception {
+        assertBody(client.execute(request("/modified.json")));
+        assertBody(client.execute(request("/modified.json")));
+        assertEquals(policy.refunded.get(), 1);
+    }
+
+    @Test
+    public void testNoStore() throws Exception {
+        int before = server.getRequestCount();
+        assertBody(client.execute(request("/nostore.json")));
+        assertBody(client.execute(request("/nostore.json")));
+        assertEquals(server.getRequestCount() - before, 2);
+        assertEquals(policy.refunded.get(), 0);
+    }
+
+    @Test
+    public void testDiskTier() throws IOException {
+        File dir = Files.createTempDir();
+        // No room in memory, everything must come from the disk
+        LruResponseCache cache = new LruResponseCache(0, dir, 1024 * 1024);
+        Response response = new Response.Builder()
+                .request(new Request.Builder().url("http://localhost/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .header("Content-Type", "application/json")
+                .header("ETag", "\"v1\"")
+                .body(new RateLimitPolicyTest.StringBody(BODY))
+                .build();
+        cache.put("key", CachedResponse.create(response, 0));
+        assertTrue(cache.getDiskBytes() > 0);
+
+        CachedResponse read = new LruResponseCache(0, dir, 1024 * 1024).get("key");
+        assertNotNull(read);
+        assertEquals(read.getETag(), "\"v1\"");
+        assertEquals(read.toResponse(response.request()).body().string(), BODY);
+
+        cache.clear();
+        assertEquals(cache.getDiskBytes(), 0);
+        assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void testSensitiveDataNotWritten() throws IOException {
+        File dir = Files.createTempDir();
+        LruResponseCache cache = new LruResponseCache(1024 * 1024, dir, 1024 * 1024);
+        Response response = new Response.Builder()
+                .request(new Request.Builder().url("http://localhost/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .header("ETag", "\"v1\"")
+                .header("Set-Cookie", "reddit_session=secret")
+                .body(new RateLimitPolicyTest.StringBody(BODY))
+                .build();
+        CachedResponse cached = CachedResponse.create(response, 0, true);
+        assertTrue(cached.isAuthenticated());
+        assertNull(cached.toResponse(response.request()).header("Set-Cookie"));
+
+        // Only kept in memory
+        cache.put("user key", cached);
+        assertEquals(cache.getDiskBytes(), 0);
+        assertNotNull(cache.get("user key"));
+        assertEquals(dir.listFiles().length, 0);
+        cache.clear();
+    }
+
+    private void assertBody(RedditResponse response) {
+        assertEquals(response.getJson().get("foo").asText(), "bar");
+    }
+
+    private RestRequest request(String path) {
+        return client.request()
+                .host(server.getHost())
+                .path(path)
+                .build();
+    }
+
+    /** Sends a response with the given caching headers, or 304 Not Modified if the client's validators match */
+    private static class CacheHeadersHandler implements HttpHandler {
+        private final String cacheControl;
+        private final String etag;
+        private final String lastModified;
+
+        private CacheHeadersHandler(String cacheControl, String etag, String lastModified) {
+            this.cacheControl = cacheControl;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (cacheControl != null)
+                exchange.getResponseHeaders().set("Cache-Control", cacheControl);
+            if (etag != null)
+                exchange.getResponseHeaders().set("ETag", etag);
+            if (lastModified != null)
+                exchange.getResponseHeaders().set("Last-Modified", lastModified);
+
+            boolean notModified = (etag != null && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) ||
+                    (lastModified != null && lastModified.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since")));
+            if (notModified) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                LocalServer.send(exchange, 200, "application/json", BODY);
+            }
+        }
+    }
+
+    /** A RateLimitPolicy that never waits, but keeps track of permits */
+    private static class CountingPolicy implements RateLimitPolicy {
+        private final AtomicInteger acquired = new AtomicInteger();
+        private final AtomicInteger refunded = new AtomicInteger();
+
+        @Override
+        public double acquire() {
+            acquired.incrementAndGet();
+            return 0;
+        }
+
+        @Override
+        public void onResponse(RestResponse response) {
+        }
+
+        @Override
+        public void refund() {
+            refunded.incrementAndGet();
+        }
+    }
+}
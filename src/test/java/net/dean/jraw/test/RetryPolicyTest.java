@@ -0,0 +1,140 @@
+package net.dean.jraw.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.http.RestRequest;
+import net.dean.jraw.http.RetryPolicy;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link RetryPolicy} and how {@link net.dean.jraw.http.RestClient} applies it */
+public class RetryPolicyTest {
+    private LocalServer server;
+    private RedditClient client;
+    /** The amount of requests to /flaky.json that will fail before one succeeds */
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer().handle("/flaky.json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (failuresLeft.getAndDecrement() > 0) {
+                    LocalServer.send(exchange, 503, "application/json", "{}");
+                } else {
+                    LocalServer.send(exchange, 200, "application/json", "{\"foo\": \"bar\"}");
+                }
+            }
+        });
+        client = new RedditClient("RetryPolicyTest", 0);
+        client.setRequestLoggingEnabled(false);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testRetrySync() throws NetworkException {
+        client.setRetryPolicy(policy().build());
+        failuresLeft.set(2);
+        int before = server.getRequestCount();
+        assertEquals(client.execute(request()).getJson().get("foo").asText(), "bar");
+        assertEquals(server.getRequestCount() - before, 3);
+    }
+
+    @Test
+    public void testRetryAsync() throws Exception {
+        client.setRetryPolicy(policy().build());
+        failuresLeft.set(2);
+        int before = server.getRequestCount();
+        RedditResponse response = client.executeAsync(request()).get(10, TimeUnit.SECONDS);
+        assertEquals(response.getJson().get("foo").asText(), "bar");
+        assertEquals(server.getRequestCount() - before, 3);
+    }
+
+    @Test
+    public void testGiveUpAfterMaxAttempts() throws Exception {
+        client.setRetryPolicy(policy().maxAttempts(2).build());
+        failuresLeft.set(5);
+        int before = server.getRequestCount();
+        try {
+            client.executeAsync(request()).get(10, TimeUnit.SECONDS);
+            fail("Expected the request to fail");
+        } catch (ExecutionException e) {
+            assertEquals(((NetworkException) e.getCause()).getCode(), 503);
+        }
+        assertEquals(server.getRequestCount() - before, 2);
+    }
+
+    @Test
+    public void testPostNotRetried() {
+        client.setRetryPolicy(policy().build());
+        failuresLeft.set(1);
+        int before = server.getRequestCount();
+        try {
+            client.execute(client.request().host(server.getHost()).path("/flaky.json").post(null).build());
+            fail("Expected the request to fail");
+        } catch (NetworkException e) {
+            assertEquals(e.getCode(), 503);
+        }
+        assertEquals(server.getRequestCount() - before, 1);
+    }
+
+    @Test
+    public void testBudget() {
+        RetryPolicy retry = policy().budget(0.5, 1).build();
+        client.setRetryPolicy(retry);
+        failuresLeft.set(10);
+        int before = server.getRequestCount();
+        try {
+            client.execute(request());
+            fail("Expected the request to fail");
+        } catch (NetworkException e) {
+            assertEquals(e.getCode(), 503);
+        }
+        // Only one token was available, so only one retry was made
+        assertEquals(server.getRequestCount() - before, 2);
+        assertEquals(retry.getRemainingBudget(), 0.0, 0.001);
+
+        // Two more requests earn another retry
+        retry.onRequest();
+        retry.onRequest();
+        assertEquals(retry.getRemainingBudget(), 1.0, 0.001);
+    }
+
+    @Test
+    public void testBackoffBounds() {
+        RetryPolicy retry = new RetryPolicy.Builder().backoff(100, 1000, TimeUnit.MILLISECONDS).build();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retry.getBackoff(1, TimeUnit.MILLISECONDS) <= 100);
+            assertTrue(retry.getBackoff(3, TimeUnit.MILLISECONDS) <= 400);
+            assertTrue(retry.getBackoff(50, TimeUnit.MILLISECONDS) <= 1000);
+            assertTrue(retry.getBackoff(50, TimeUnit.MILLISECONDS) >= 0);
+        }
+    }
+
+    private static RetryPolicy.Builder policy() {
+        return new RetryPolicy.Builder()
+                .backoff(1, 10, TimeUnit.MILLISECONDS);
+    }
+
+    private RestRequest request() {
+        return client.request()
+                .host(server.getHost())
+                .path("/flaky.json")
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RedditResponse;
+import net.dean.jraw.models.Listing;
+import net.dean.jraw.models.Submission;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.*;
+
+/** Tests parsing JSON directly from the response body, see {@link RedditClient#setStreamingResponses(boolean)} */
+public class StreamingResponseTest {
+    private static final String LISTING = "{\"kind\": \"Listing\", \"data\": {\"modhash\": \"\", \"after\": \"t3_b\", " +
+            "\"before\": null, \"children\": [{\"kind\": \"t3\", \"data\": {\"id\": \"a\", \"name\": \"t3_a\", " +
+            "\"title\": \"caf\\u00e9\"}}]}}";
+    private static final String BROKEN = "<html><body><h1>Bad Gateway</h1></body></html>";
+    private LocalServer server;
+    private RedditClient client;
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer()
+                .respond("/listing.json", 200, "application/json; charset=UTF-8", LISTING)
+                .respond("/empty.json", 200, "application/json", "")
+                .respond("/broken.json", 200, "application/json", BROKEN);
+        client = new RedditClient("StreamingResponseTest", 0);
+        client.setRequestLoggingEnabled(false);
+        client.setStreamingResponses(true);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testStreamedListing() throws NetworkException, IOException {
+        RedditResponse response = get("/listing.json");
+        Listing<Submission> listing = response.asListing(Submission.class);
+        assertEquals(listing.getAfter(), "t3_b");
+        assertEquals(listing.get(0).getTitle(), "café");
+
+        // The raw content is re-created from the parsed tree
+        assertEquals(new ObjectMapper().readTree(response.getRaw()), response.getJson());
+    }
+
+    @Test
+    public void testStreamedEmptyBody() throws NetworkException {
+        RedditResponse response = get("/empty.json");
+        assertNull(response.getJson());
+        assertFalse(response.hasErrors());
+        assertEquals(response.getRaw(), "");
+    }
+
+    @Test
+    public void testStreamedInvalidBody() throws NetworkException {
+        RedditResponse response = get("/broken.json");
+        assertNull(response.getJson());
+        // The body that could not be parsed is returned as it was received
+        assertEquals(response.getRaw(), BROKEN);
+    }
+
+    private RedditResponse get(String path) throws NetworkException {
+        return client.execute(client.request()
+                .host(server.getHost())
+                .path(path)
+                .build());
+    }
+}
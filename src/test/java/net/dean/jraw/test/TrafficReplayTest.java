@@ -0,0 +1,164 @@
+package net.dean.jraw.test;
+
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import net.dean.jraw.JrawUtils;
+import net.dean.jraw.RedditClient;
+import net.dean.jraw.http.NetworkException;
+import net.dean.jraw.http.RestRequest;
+import net.dean.jraw.http.RestResponse;
+import net.dean.jraw.http.TrafficRecorder;
+import net.dean.jraw.http.TrafficReplayer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link TrafficRecorder} and {@link TrafficReplayer} */
+public class TrafficReplayTest {
+    private LocalServer server;
+    private RedditClient client;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @BeforeClass
+    public void setUp() {
+        server = new LocalServer()
+                .handle("/count.json", new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        exchange.getResponseHeaders().set("X-Count", String.valueOf(counter.get() + 1));
+                        exchange.getResponseHeaders().set("Set-Cookie", "reddit_session=secret; Path=/");
+                        LocalServer.send(exchange, 200, "application/json", "{\"n\": " + counter.incrementAndGet() + "}");
+                    }
+                })
+                .handle("/slow.json", new HttpHandler() {
+                    @Override
+                    public void handle(HttpExchange exchange) throws IOException {
+                        Uninterruptibles.sleepUninterruptibly(100, TimeUnit.MILLISECONDS);
+                        LocalServer.send(exchange, 200, "application/json", "{}");
+                    }
+                })
+                .respond("/missing.json", 404, "application/json", "{}");
+        client = new RedditClient("TrafficReplayTest", 0);
+        client.setRequestLoggingEnabled(false);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testRecordAndReplay() throws Exception {
+        File file = new File(Files.createTempDir(), "traffic.bin");
+        try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+            client.setTrafficRecorder(recorder);
+            try {
+                // The client still sees the cookies of a recorded response
+                assertNotNull(client.execute(get("/count.json")).getHeader("Set-Cookie"));
+                client.execute(get("/count.json"));
+                client.execute(post("hunter2"));
+                try {
+                    client.execute(get("/missing.json"));
+                    fail("Expected a 404");
+                } catch (NetworkException expected) {
+                    // Failed responses are recorded too
+                }
+            } finally {
+                client.setTrafficRecorder(null);
+            }
+            assertEquals(recorder.getRecordedCount(), 4);
+        }
+        assertFalse(new String(Files.toByteArray(file), StandardCharsets.ISO_8859_1).contains("hunter2"),
+                "Sensitive form data was recorded");
+        assertFalse(new String(Files.toByteArray(file), StandardCharsets.ISO_8859_1).contains("reddit_session"),
+                "A session cookie was recorded");
+
+        int before = server.getRequestCount();
+        TrafficReplayer replayer = TrafficReplayer.load(file, TrafficReplayer.Timing.NONE);
+        assertEquals(replayer.getRemaining(), 4);
+        client.setTrafficReplayer(replayer);
+        try {
+            // The POST is matched regardless of its sensitive arguments and of the order of requests
+            assertEquals(client.execute(post("another password")).getJson().get("n").asInt(), 3);
+            assertEquals(client.execute(get("/count.json")).getJson().get("n").asInt(), 1);
+            RestResponse async = client.executeAsync(get("/count.json")).get(10, TimeUnit.SECONDS);
+            assertEquals(async.getHeader("X-Count"), "2");
+            assertNull(async.getHeader("Set-Cookie"));
+            try {
+                client.execute(get("/missing.json"));
+                fail("Expected a 404");
+            } catch (NetworkException e) {
+                assertEquals(e.getCode(), 404);
+            }
+            assertEquals(replayer.getRemaining(), 0);
+
+            try {
+                client.execute(get("/count.json"));
+                fail("Expected the recording to be used up");
+            } catch (NetworkException expected) {
+                // No recorded response left
+            }
+        } finally {
+            client.setTrafficReplayer(null);
+        }
+        assertEquals(server.getRequestCount(), before);
+    }
+
+    @Test
+    public void testRecordedLatency() throws Exception {
+        File file = new File(Files.createTempDir(), "traffic.bin");
+        try (TrafficRecorder recorder = new TrafficRecorder(file)) {
+            client.setTrafficRecorder(recorder);
+            try {
+                client.execute(get("/slow.json"));
+                client.execute(get("/slow.json"));
+            } finally {
+                client.setTrafficRecorder(null);
+            }
+        }
+
+        client.setTrafficReplayer(TrafficReplayer.load(file, TrafficReplayer.Timing.LATENCY));
+        try {
+            long start = System.nanoTime();
+            client.execute(get("/slow.json"));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            client.setTrafficReplayer(null);
+        }
+
+        client.setTrafficReplayer(TrafficReplayer.load(file, TrafficReplayer.Timing.NONE));
+        try {
+            long start = System.nanoTime();
+            client.execute(get("/slow.json"));
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100));
+        } finally {
+            client.setTrafficReplayer(null);
+        }
+    }
+
+    private RestRequest get(String path) {
+        return client.request()
+                .host(server.getHost())
+                .path(path)
+                .build();
+    }
+
+    private RestRequest post(String password) {
+        return client.request()
+                .host(server.getHost())
+                .path("/count.json")
+                .post(JrawUtils.args("user", "foo", "passwd", password))
+                .sensitiveArgs("passwd")
+                .build();
+    }
+}
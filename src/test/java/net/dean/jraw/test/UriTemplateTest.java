@@ -0,0 +1,90 @@
+package net.dean.jraw.test;
+
+import net.dean.jraw.Endpoints;
+import net.dean.jraw.UriTemplate;
+import net.dean.jraw.http.RestRequest;
+import org.testng.annotations.Test;
+
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.testng.Assert.*;
+
+/** Tests {@link UriTemplate} and how {@link RestRequest.Builder} builds URLs with it */
+public class UriTemplateTest {
+
+    @Test
+    public void testParse() {
+        UriTemplate template = new UriTemplate("/api/{foo}/{bar}/baz");
+        assertEquals(template.getParams(), Arrays.asList("{foo}", "{bar}"));
+        assertEquals(template.toString(), "/api/{foo}/{bar}/baz");
+        assertEquals(new UriTemplate("/api/me").getParams(), Collections.emptyList());
+    }
+
+    @Test
+    public void testExpand() {
+        UriTemplate template = new UriTemplate("/api/{foo}/{bar}/baz");
+        assertEquals(expand(template, "a", "b"), "/api/a/b/baz");
+        // Slashes are kept so that multireddit paths work, everything else that is unsafe is encoded
+        assertEquals(expand(template, "user/me/m/multi", "a b?#%"), "/api/user/me/m/multi/a%20b%3F%23%25/baz");
+        assertEquals(expand(template, "\u00E9", "\uD83D\uDE00"), "/api/%C3%A9/%F0%9F%98%80/baz");
+        // Characters that broke Matcher.replaceFirst
+        assertEquals(expand(template, "$1", "\\"), "/api/$1/%5C/baz");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testWrongArgumentCount() {
+        expand(new UriTemplate("/api/{foo}"), "a", "b");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnclosedParam() {
+        new UriTemplate("/api/{foo");
+    }
+
+    @Test
+    public void testFormEncodingMatchesUrlEncoder() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            char[] chars = new char[random.nextInt(10)];
+            for (int j = 0; j < chars.length; j++) {
+                // Mostly ASCII, with some Latin-1 and CJK characters
+                int kind = random.nextInt(10);
+                chars[j] = (char) (kind < 8 ? random.nextInt(0x80) : kind < 9 ? 0x80 + random.nextInt(0x80) :
+                        0x4E00 + random.nextInt(0x100));
+            }
+            String str = new String(chars);
+            StringBuilder sb = new StringBuilder();
+            UriTemplate.appendFormEncoded(sb, str);
+            assertEquals(sb.toString(), URLEncoder.encode(str, "UTF-8"));
+        }
+    }
+
+    @Test
+    public void testBuildUrl() {
+        Map<String, String> query = new LinkedHashMap<>();
+        query.put("sort", "top");
+        query.put("q", "a b&c");
+        RestRequest request = new RestRequest.Builder()
+                .host("www.reddit.com")
+                .https(true)
+                .endpoint(Endpoints.USER_USERNAME_ABOUT, "some_user")
+                .query(query)
+                .build();
+        assertEquals(request.getUrl(), "https://www.reddit.com/user/some_user/about.json?sort=top&q=a+b%26c");
+
+        request = new RestRequest.Builder()
+                .host("localhost")
+                .path("foo.json")
+                .build();
+        assertEquals(request.getUrl(), "http://localhost/foo.json");
+    }
+
+    private static String expand(UriTemplate template, String... args) {
+        return template.expand(new StringBuilder(), Arrays.asList(args)).toString();
+    }
+}